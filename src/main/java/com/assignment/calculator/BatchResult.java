@@ -0,0 +1,112 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+/**
+ * Values and errors of a batch of expressions calculated by {@link Calculate#performCalculations(CharSequence[])}, by index
+ * of the expression. A failed expression has a value of 0 and an error code. Its exception, with the same message as
+ * {@link Calculate#performCalculation(String)} would give, is only created when asked for.
+ *
+ * What the message needs is copied when the expression fails, so the expressions can be changed or reused once they
+ * are calculated.
+ */
+public class BatchResult {
+    private final int[] values;
+    private final ErrorCode[] errors;
+    private final int[] errorOffsets;
+    private final ErrorReport[] reports;
+
+    BatchResult(int size) {
+        this.values = new int[size];
+        this.errors = new ErrorCode[size];
+        this.errorOffsets = new int[size];
+        this.reports = new ErrorReport[size];
+    }
+
+    //Every index is set by exactly one worker, the report is reused by it for the next expression
+    void set(int index, int value, ErrorReport report) {
+        values[index] = value;
+        errors[index] = report.getCode();
+        errorOffsets[index] = report.getOffset();
+        if (report.hasError()) {
+            reports[index] = report.copy();
+        }
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return The values of all expressions, 0 for failed ones. The array is not copied.
+     */
+    public int[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return The errors of all expressions, null for successful ones. The array is not copied.
+     */
+    public ErrorCode[] getErrors() {
+        return errors;
+    }
+
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return The error of the expression, or null if it was calculated.
+     */
+    public ErrorCode getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * @return Character offset of the error in the expression, or {@link CalculatorExpressionParserException#UNKNOWN_OFFSET}.
+     */
+    public int getErrorOffset(int index) {
+        return errorOffsets[index];
+    }
+
+    public boolean isSuccess(int index) {
+        return errors[index] == null;
+    }
+
+    public int getErrorCount() {
+        int errorCount = 0;
+        for (ErrorCode error : errors) {
+            if (error != null) {
+                errorCount++;
+            }
+        }
+        return errorCount;
+    }
+
+    /**
+     * Describes the error of the expression without creating an exception.
+     *
+     * @return The message {@link #getException(int)} would have, or null if the expression was calculated.
+     */
+    public String getErrorMessage(int index) {
+        ErrorReport report = reports[index];
+        return report == null ? null : report.getMessage();
+    }
+
+    /**
+     * @return A {@link CalculatorExpressionParserException} or an {@link ArithmeticException} for a division by zero or
+     * an overflow, or null if the expression was calculated.
+     */
+    public Exception getException(int index) {
+        ErrorReport report = reports[index];
+        if (report == null) {
+            return null;
+        }
+        if (report.getCode().isArithmetic()) {
+            return new ArithmeticException(report.getMessage());
+        }
+        return report.toParserException();
+    }
+}
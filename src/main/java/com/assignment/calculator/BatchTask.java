@@ -0,0 +1,55 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates the expressions in [start, end) of a batch. Ranges larger than the chunk size are split in half and the
+ * halves are forked, so idle workers can steal them. Each chunk is calculated by one worker reusing one error report.
+ */
+class BatchTask extends RecursiveAction {
+    private static final int MINIMUM_CHUNK_SIZE = 16;
+    private static final int CHUNKS_PER_WORKER = 8;
+
+    private final Calculate calculate;
+    private final BatchResult result;
+    private final CharSequence[] inputExpressions;
+    private final int start;
+    private final int end;
+    private final int chunkSize;
+
+    BatchTask(Calculate calculate, BatchResult result, CharSequence[] inputExpressions, int start, int end, int chunkSize) {
+        this.calculate = calculate;
+        this.result = result;
+        this.inputExpressions = inputExpressions;
+        this.start = start;
+        this.end = end;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Leaves several chunks per worker so the work stays balanced when some expressions take longer than others,
+     * without splitting so finely that forking costs more than calculating.
+     */
+    static int chunkSize(int size, ForkJoinPool pool) {
+        return Math.max(MINIMUM_CHUNK_SIZE, size / (pool.getParallelism() * CHUNKS_PER_WORKER));
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= chunkSize) {
+            ErrorReport errors = new ErrorReport();
+            for (int i = start; i < end; i++) {
+                errors.clear();
+                int value = calculate.calculate(inputExpressions[i], errors);
+                result.set(i, value, errors);
+            }
+        } else {
+            int middle = (start + end) >>> 1;
+            invokeAll(new BatchTask(calculate, result, inputExpressions, start, middle, chunkSize),
+                    new BatchTask(calculate, result, inputExpressions, middle, end, chunkSize));
+        }
+    }
+}
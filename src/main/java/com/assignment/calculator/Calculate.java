@@ -1,73 +1,691 @@
 package com.assignment.calculator;
 
+import com.assignment.calculator.compiler.CompiledExpression;
+import com.assignment.calculator.compiler.ExactEvaluator;
+import com.assignment.calculator.compiler.IntStack;
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.Optimizer;
+import com.assignment.calculator.compiler.Program;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.compiler.Resolver;
+import com.assignment.calculator.compiler.StreamingEvaluator;
+import com.assignment.calculator.compiler.StructuralHasher;
+import com.assignment.calculator.compiler.SubExpressionMemo;
+import com.assignment.calculator.metrics.CalculationEvent;
+import com.assignment.calculator.metrics.CalculatorMetrics;
+import com.assignment.calculator.metrics.EventRecording;
+import com.assignment.calculator.metrics.Stage;
 import com.assignment.calculator.parser.*;
 import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Evaluates the result of an expression given an abstract syntax tree. A map is used to store the values of variables declared.
+ * Evaluates the result of an expression. The expression is lexed, parsed, resolved, optimized and compiled into a
+ * {@link Program} which is then run by the {@link Interpreter}. Variable values only live for one evaluation, so an instance holds no
+ * evaluation state and can be shared between threads.
+ * When an {@link ExpressionCache} is given, repeated expressions are run from the cached program without being compiled again,
+ * and cached expressions evaluated often enough are promoted to generated JVM classes (see {@link CompiledExpression}).
+ * When a {@link SubExpressionMemo} is given, closed sub-expressions shared by different expressions are only evaluated once.
+ * Instances with more than a cache are set up through a {@link Builder}, see {@link #builder()}.
+ *
+ * A parsed tree can also be evaluated directly by walking it, see {@link #evaluate(AbstractSyntaxTree)}.
+ * Very large expressions can be parsed into a reusable {@link NodeArena} and walked there, see {@link #performLargeCalculation(CharSequence, NodeArena)}.
+ * Expressions too large to be held in memory are calculated as they are read, see {@link #performStreamingCalculation(Reader)}.
+ * Many expressions can be calculated at once on all cores, see {@link #performCalculations(CharSequence[])}.
+ * Expressions can be calculated on an executor without blocking the caller, see {@link #performCalculationAsync(String, Executor)}.
+ * An expression evaluated many times with different inputs can be prepared once, see {@link #prepare(String, String...)}.
+ *
+ * When {@link CalculatorMetrics} are given, the time spent in every stage and the size and errors of the expressions
+ * are recorded into them. Calculations, and the lexing and parsing within them, are also recorded as flight recorder
+ * events when they are slow, see {@link CalculationEvent}.
+ *
+ * Results wrap around on overflow unless the instance is created with {@link NumericMode#CHECKED}. Results of any size
+ * are calculated by {@link #performExactCalculation(String)}.
  *
  */
 public class Calculate {
-    private Map<String, Integer> variableMap = new HashMap<>();
+    private static final int VISIT = 0;
+    private static final int STORE = 1;
+    private static final int CALCULATE = 2;
+    private static final int MEMOIZE = 3;
+
+    private final ExpressionCache expressionCache;
+    private final int promotionThreshold;
+    private final CalculatorMetrics metrics;
+    private final boolean checked;
+    private final SubExpressionMemo memo;
+
+    public Calculate() {
+        this(builder());
+    }
+
+    /**
+     * @param expressionCache Cache of compiled expressions, may be shared between instances. Null disables caching.
+     */
+    public Calculate(ExpressionCache expressionCache) {
+        this(builder().expressionCache(expressionCache));
+    }
+
+    /**
+     * @param builder Settings of the instance, see {@link #builder()}.
+     */
+    protected Calculate(Builder builder) {
+        this.expressionCache = builder.expressionCache;
+        this.promotionThreshold = builder.promotionThreshold;
+        this.metrics = builder.metrics;
+        this.checked = NumericMode.CHECKED == builder.numericMode;
+        this.memo = builder.memo;
+    }
+
+    /**
+     * @return Builder of an instance without cache, metrics or memo, wrapping around on overflow.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public NumericMode getNumericMode() {
+        return checked ? NumericMode.CHECKED : NumericMode.WRAP;
+    }
+
+    /**
+     * @return The metrics the calculations are recorded into, or null.
+     */
+    public CalculatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The memo of closed sub-expression values, or null.
+     */
+    public SubExpressionMemo getMemo() {
+        return memo;
+    }
 
     /**
      *
      * @param inputExpression Input calculation expression.
      * @return Integer value of the result.
      * @throws CalculatorExpressionParserException Any invalid input will result in an exception.
+     * @throws ArithmeticException On a division by zero, or a result that does not fit in an int in checked mode.
      */
     public int performCalculation(String inputExpression) throws CalculatorExpressionParserException {
-        List<Token> tokenList = Lexer.lex(inputExpression);
-        AbstractSyntaxTree tree = Parser.parseTokensToAST(tokenList);
-        return evaluateTree(tree.getRoot());
+        ErrorReport errors = new ErrorReport();
+        int result = calculateCompiled(inputExpression, errors);
+        throwIfFailed(errors);
+        return result;
+    }
+
+    /**
+     * Same as {@link #performCalculation(String)} but returns a failure as a result instead of throwing, so an invalid
+     * expression costs no more than a valid one. No exception is created and the message is only built when asked for.
+     *
+     * @param inputExpression Input calculation expression.
+     * @return The value of the expression, or why it failed.
+     */
+    public CalculationResult tryCalculation(String inputExpression) {
+        ErrorReport errors = new ErrorReport();
+        int result = calculateCompiled(inputExpression, errors);
+        return errors.hasError() ? CalculationResult.failure(inputExpression, errors) : CalculationResult.success(inputExpression, result);
+    }
+
+    /**
+     * Calculates an expression on the common fork-join pool, see {@link #performCalculationAsync(String, Executor)}.
+     */
+    public CompletableFuture<Integer> performCalculationAsync(String inputExpression) {
+        return performCalculationAsync(inputExpression, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculates an expression on an executor instead of the calling thread. The future fails with the exception
+     * {@link #performCalculation(String)} would throw. Many expressions are calculated with backpressure by a
+     * {@link CalculationProcessor}.
+     *
+     * @param inputExpression Input calculation expression.
+     * @param executor Executor the expression is calculated on.
+     * @return The future value of the expression.
+     * @throws java.util.concurrent.RejectedExecutionException If the executor does not accept the calculation.
+     */
+    public CompletableFuture<Integer> performCalculationAsync(String inputExpression, Executor executor) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                CalculationResult result = tryCalculation(inputExpression);
+                if (result.isSuccess()) {
+                    future.complete(result.getValue());
+                } else {
+                    future.completeExceptionally(result.getException());
+                }
+            } catch (Throwable t) {
+                //Never left incomplete, whatever goes wrong
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private int calculateCompiled(String inputExpression, ErrorReport errors) {
+        if (!EventRecording.isCalculationRecorded()) {
+            return calculateCompiled(inputExpression, null, errors);
+        }
+        CalculationEvent event = new CalculationEvent();
+        event.begin();
+        int result = calculateCompiled(inputExpression, event, errors);
+        event.finish(inputExpression, errors.getCode());
+        return result;
+    }
+
+    //The event is null when calculations are not recorded
+    private int calculateCompiled(String inputExpression, CalculationEvent event, ErrorReport errors) {
+        if (metrics != null) {
+            metrics.recordExpression();
+        }
+        CompiledExpression expression = null;
+        if (expressionCache != null && inputExpression != null) {
+            expression = expressionCache.get(inputExpression);
+            if (metrics != null) {
+                metrics.recordCacheLookup(expression != null);
+            }
+        }
+        Program program = null;
+        if (expression == null) {
+            program = compile(inputExpression, event, errors);
+            if (program != null && expressionCache != null && inputExpression != null) {
+                expression = new CompiledExpression(program, promotionThreshold);
+                expressionCache.put(inputExpression, expression);
+            }
+        } else if (event != null) {
+            event.cacheHit();
+        }
+        int result = 0;
+        if (expression != null || program != null) {
+            long start = startStage();
+            result = expression == null ? Interpreter.execute(program, errors) : expression.evaluate(errors);
+            endStage(Stage.EVALUATE, start);
+        }
+        recordError(errors);
+        return result;
+    }
+
+    /**
+     * Compiles an expression whose free variables are given their values when it is evaluated, instead of wrapping it
+     * in let expressions with the values for every calculation.
+     *
+     * ie. prepare("add(mul(x, 3), y)", "x", "y").evaluate(2, 4) returns 10.
+     *
+     * @param inputExpression Input calculation expression, it can use the free variables anywhere a let expression
+     *                        does not bind the same name.
+     * @param variables Names of the free variables, in the order their values are given.
+     * @return The prepared expression.
+     * @throws CalculatorExpressionParserException If the expression is invalid or uses a variable nothing binds.
+     * @throws IllegalArgumentException If a free variable is declared twice.
+     */
+    public PreparedExpression prepare(String inputExpression, String... variables) throws CalculatorExpressionParserException {
+        String[] freeVariables = variables.clone();
+        AbstractSyntaxTree tree = Parser.parse(Lexer.tokenize(inputExpression));
+        Resolver.resolve(tree, freeVariables);
+        return new PreparedExpression(freeVariables, ProgramCompiler.compile(Optimizer.optimize(tree, checked), checked));
+    }
+
+    /**
+     * Calculates an expression without overflowing, whatever the size of its numbers. It is evaluated on longs first,
+     * and evaluated again on {@link BigInteger}s only if a long overflows or a literal does not fit in one, see
+     * {@link ExactEvaluator}. The expression cache is not used.
+     *
+     * @param inputExpression Input calculation expression, its literals can be of any size.
+     * @return The exact value of the result.
+     * @throws CalculatorExpressionParserException Any invalid input will result in an exception.
+     * @throws ArithmeticException On a division by zero.
+     */
+    public BigInteger performExactCalculation(String inputExpression) throws CalculatorExpressionParserException {
+        ErrorReport errors = new ErrorReport();
+        TokenStream tokens = Lexer.tokenize(inputExpression, true, errors);
+        if (tokens == null) {
+            throw errors.toParserException();
+        }
+        BigInteger result = ExactEvaluator.evaluate(Parser.parse(tokens), errors);
+        throwIfFailed(errors);
+        return result;
+    }
+
+    /**
+     * Evaluates a parsed tree by walking it, without compiling it into a program.
+     *
+     * @param tree A fully parsed abstract syntax tree. It is resolved first if that has not been done yet.
+     * @return Integer value of the result.
+     * @throws CalculatorExpressionParserException If the tree contains a node that cannot be evaluated.
+     * @throws ArithmeticException On a division by zero, or a result that does not fit in an int in checked mode.
+     */
+    public int evaluate(AbstractSyntaxTree tree) throws CalculatorExpressionParserException {
+        ErrorReport errors = new ErrorReport();
+        int result = evaluate(tree, errors);
+        throwIfFailed(errors);
+        return result;
+    }
+
+    /**
+     * Calculates a very large expression without creating an object per node. The expression is parsed into the arena,
+     * which is cleared first, and evaluated by walking the arena. Neither the expression cache nor the metrics are used.
+     *
+     * @param inputExpression Input calculation expression, read in place.
+     * @param arena Arena the nodes are kept in, reused by every calculation given it. Not to be shared between threads.
+     * @return Integer value of the result.
+     * @throws CalculatorExpressionParserException Any invalid input will result in an exception.
+     * @throws ArithmeticException On a division by zero, or a result that does not fit in an int in checked mode.
+     */
+    public int performLargeCalculation(CharSequence inputExpression, NodeArena arena) throws CalculatorExpressionParserException {
+        ErrorReport errors = new ErrorReport();
+        arena.clear();
+        int result = 0;
+        TokenStream tokens = Lexer.tokenize(inputExpression, errors);
+        if (tokens != null) {
+            AbstractSyntaxTree tree = Parser.parse(tokens, arena, errors);
+            if (tree != null) {
+                result = evaluate(tree, errors);
+            }
+        }
+        throwIfFailed(errors);
+        return result;
+    }
+
+    /**
+     * Calculates an expression too large to be held in memory as it is read, see {@link StreamingParser}. Memory is
+     * bounded by the nesting depth of the expression instead of its size. Neither the expression cache nor the metrics
+     * are used.
+     *
+     * @param input Input calculation expression, read until its end. It is not closed.
+     * @return Integer value of the result.
+     * @throws CalculatorExpressionParserException Any invalid input will result in an exception.
+     * @throws ArithmeticException On a division by zero, or a result that does not fit in an int in checked mode.
+     * @throws IOException If the input cannot be read.
+     */
+    public int performStreamingCalculation(Reader input) throws CalculatorExpressionParserException, IOException {
+        ErrorReport errors = new ErrorReport();
+        return calculateStreaming(new StreamingLexer(input, errors), errors);
+    }
+
+    /**
+     * Same as {@link #performStreamingCalculation(Reader)} for an expression read as ASCII bytes.
+     */
+    public int performStreamingCalculation(ReadableByteChannel input) throws CalculatorExpressionParserException, IOException {
+        ErrorReport errors = new ErrorReport();
+        return calculateStreaming(new StreamingLexer(input, errors), errors);
+    }
+
+    private int calculateStreaming(StreamingLexer lexer, ErrorReport errors) throws CalculatorExpressionParserException, IOException {
+        StreamingEvaluator evaluator = new StreamingEvaluator(checked, errors);
+        StreamingParser.parse(lexer, evaluator, errors);
+        throwIfFailed(errors);
+        return evaluator.getResult();
+    }
+
+    /**
+     * Calculates many expressions at once on the common fork-join pool, see {@link #performCalculations(CharSequence[], ForkJoinPool)}.
+     */
+    public BatchResult performCalculations(List<? extends CharSequence> inputExpressions) {
+        return performCalculations(inputExpressions.toArray(new CharSequence[0]));
+    }
+
+    /**
+     * Calculates many expressions at once on the common fork-join pool, see {@link #performCalculations(CharSequence[], ForkJoinPool)}.
+     */
+    public BatchResult performCalculations(CharSequence[] inputExpressions) {
+        return performCalculations(inputExpressions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculates many independent expressions at once. The expressions are split into chunks that are lexed, parsed
+     * and evaluated by the workers of the pool, which steal chunks from each other when they run out of work.
+     *
+     * Failed expressions are recorded in the result with an error code instead of throwing, so no exception is created
+     * for them. The expressions are lexed in place, so they can be slices of a larger buffer, see
+     * {@link com.assignment.calculator.parser.AsciiCharSequence}, which can be reused once the batch is calculated.
+     * The expression cache is not used: expressions in a batch are rarely repeated, and its lock would make the
+     * workers wait on each other.
+     *
+     * @param inputExpressions Input calculation expressions.
+     * @param pool Pool the expressions are calculated on.
+     * @return The value or error of every expression, by index.
+     */
+    public BatchResult performCalculations(CharSequence[] inputExpressions, ForkJoinPool pool) {
+        BatchResult result = new BatchResult(inputExpressions.length);
+        pool.invoke(new BatchTask(this, result, inputExpressions, 0, inputExpressions.length, BatchTask.chunkSize(inputExpressions.length, pool)));
+        return result;
+    }
+
+    /**
+     * Calculates an expression by walking its tree, without throwing. Compiling the tree into a program only pays off
+     * for expressions that are evaluated again.
+     *
+     * @param inputExpression Input calculation expression.
+     * @param errors Report without an error, the first error found is recorded in it.
+     * @return Integer value of the result, or 0 if an error was recorded.
+     */
+    int calculate(CharSequence inputExpression, ErrorReport errors) {
+        if (metrics != null) {
+            metrics.recordExpression();
+        }
+        int result = 0;
+        long start = startStage();
+        TokenStream tokens = Lexer.tokenize(inputExpression, errors);
+        long lexed = endStage(Stage.LEX, start);
+        if (tokens != null) {
+            AbstractSyntaxTree tree = Parser.parse(tokens, errors);
+            long parsed = endStage(Stage.PARSE, lexed);
+            if (tree != null) {
+                recordTree(tokens, tree);
+                result = evaluate(tree, errors);
+                endStage(Stage.EVALUATE, parsed);
+            }
+        }
+        recordError(errors);
+        return result;
+    }
+
+    private int evaluate(AbstractSyntaxTree tree, ErrorReport errors) {
+        if (!tree.isResolved() && !Resolver.resolve(tree, errors)) {
+            return 0;
+        }
+        if (tree.isFlat()) {
+            return evaluateArena(tree.getArena(), tree.getRootIndex(), new int[tree.getSlotCount()], errors);
+        }
+        if (memo != null) {
+            StructuralHasher.hash(tree);
+        }
+        return evaluateTree(tree.getRoot(), new int[tree.getSlotCount()], errors);
+    }
+
+    //Returns null if an error was recorded
+    private Program compile(String inputExpression, CalculationEvent event, ErrorReport errors) {
+        long start = startStage();
+        TokenStream tokens = Lexer.tokenize(inputExpression, errors);
+        long lexed = endStage(Stage.LEX, start);
+        if (tokens == null) {
+            return null;
+        }
+        AbstractSyntaxTree tree = Parser.parse(tokens, errors);
+        long parsed = endStage(Stage.PARSE, lexed);
+        if (tree == null) {
+            return null;
+        }
+        recordTree(tokens, tree);
+        if (event != null) {
+            event.parsed(tokens, tree);
+        }
+        Program program = compile(tree, errors);
+        endStage(Stage.COMPILE, parsed);
+        return program;
+    }
+
+    //The stages are only timed with metrics, every stage that has run is recorded whether it failed or not
+    private long startStage() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    private long endStage(Stage stage, long start) {
+        if (metrics == null) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        metrics.recordStage(stage, end - start);
+        return end;
+    }
+
+    private void recordTree(TokenStream tokens, AbstractSyntaxTree tree) {
+        if (metrics != null) {
+            metrics.recordTree(tokens.size(), tree.getNodeCount(), tree.getLetDepth());
+        }
+    }
+
+    private void recordError(ErrorReport errors) {
+        if (metrics != null && errors.hasError()) {
+            metrics.recordError(errors.getCode());
+        }
+    }
+
+    private Program compile(AbstractSyntaxTree tree, ErrorReport errors) {
+        if (!Resolver.resolve(tree, errors)) {
+            return null;
+        }
+        if (memo != null) {
+            StructuralHasher.hash(tree);
+        }
+        try {
+            return ProgramCompiler.compile(Optimizer.optimize(tree, checked, memo), checked);
+        } catch (CalculatorExpressionParserException cep) {
+            //Only a tree the parser did not build can fail to compile once resolved
+            errors.syntax(cep.getOffset(), cep.getExpected());
+            return null;
+        }
+    }
+
+    //Raises the recorded error the way the throwing variants do
+    private static void throwIfFailed(ErrorReport errors) throws CalculatorExpressionParserException {
+        if (errors.getCode() != null && errors.getCode().isArithmetic()) {
+            throw new ArithmeticException(errors.getMessage());
+        } else if (errors.hasError()) {
+            throw errors.toParserException();
+        }
     }
 
     /**
-     * 1. If it's a let expression, recursively evaluate the middle child which should return the value of the defined variable. Put key/value pair into map.
-     * 2. Recursively evaluate the left and right nodes. This will give us an integer value that we can apply an operand to.
-     * 3. If a node is a leaf node, return the value. If the value is a variable check the map for the integer value.
+     * 1. If it's a let expression, evaluate the middle child first which leaves the value of the defined variable.
+     *    Store it in the slot of the variable and evaluate the right child.
+     * 2. Evaluate the left and right nodes. This will leave two integer values that we can apply an operand to.
+     * 3. If a node is a leaf node, push the value. If the value is a variable read it from the slot of the variable.
+     *
+     * The nodes still to visit and the values evaluated so far are kept on explicit stacks, so the depth of the tree
+     * is only limited by the heap. With a memo, a hashed sub-tree whose value is memoized is not walked, and the value
+     * of one that is not is memoized once evaluated.
      *
-     * @param rootNode The root node of a fully parsed abstract syntax tree.
-     * @return The result of evaluating the expression.
-     * @throws CalculatorExpressionParserException If a variable used does not have a defined value.
-     */
-    private Integer evaluateTree(Node rootNode) throws CalculatorExpressionParserException {
-        Node leftChild = rootNode.getLeftChild();
-        Node rightChild = rootNode.getRightChild();
-        Node middleChild = rootNode.getMiddleChild();
-
-        if (leftChild != null && middleChild != null) {
-            int val = evaluateTree(middleChild);
-            variableMap.put(leftChild.getVariableName(), val);
-            return evaluateTree(rightChild);
-        } else if (leftChild != null && rightChild != null) {
-            Type operator = rootNode.getType();
-            return performCalculation(evaluateTree(leftChild), evaluateTree((rightChild)), operator);
-        } else {
-            Integer leafNodeNumber = rootNode.getNumberValue() == null ? variableMap.get(rootNode.getVariableName()) : rootNode.getNumberValue();
-            if (leafNodeNumber == null) {
-                throw new CalculatorExpressionParserException("The input did not match specifications");
+     * @param rootNode The root node of a fully parsed and resolved abstract syntax tree.
+     * @param slots The values of the variables, indexed by slot.
+     * @param errors Report for a leaf node that is neither a number nor a variable, a division by zero, or an overflow
+     *               in checked mode.
+     * @return The result of evaluating the expression, or 0 if an error was recorded.
+     */
+    private int evaluateTree(Node rootNode, int[] slots, ErrorReport errors) {
+        NodeStack nodes = new NodeStack();
+        IntStack values = new IntStack();
+
+        nodes.push(rootNode, VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node rightChild = node.getRightChild();
+            Node middleChild = node.getMiddleChild();
+
+            if (state == VISIT && memo != null && node.getStructuralHash() != null
+                    && memo.admits(node.getStructuralHash())) {
+                Integer memoized = memo.get(node.getStructuralHash(), checked);
+                if (memoized != null) {
+                    values.push(memoized);
+                    continue;
+                }
+                nodes.push(node, MEMOIZE);
+            }
+
+            if (state == MEMOIZE) {
+                memo.put(node.getStructuralHash(), checked, values.peek());
+            } else if (state == STORE) {
+                slots[leftChild.getSlot()] = values.pop();
+            } else if (state == CALCULATE) {
+                int operand2 = values.pop();
+                int operand1 = values.pop();
+                if (Type.div == node.getType() && operand2 == 0) {
+                    errors.divisionByZero();
+                    return 0;
+                }
+                long result = performCalculation(operand1, operand2, node.getType());
+                if (checked && result != (int) result) {
+                    errors.overflow();
+                    return 0;
+                }
+                values.push((int) result);
+            } else if (leftChild != null && middleChild != null) {
+                nodes.push(rightChild, VISIT);
+                nodes.push(node, STORE);
+                nodes.push(middleChild, VISIT);
+            } else if (leftChild != null && rightChild != null) {
+                nodes.push(node, CALCULATE);
+                nodes.push(rightChild, VISIT);
+                nodes.push(leftChild, VISIT);
+            } else if (Type.var == node.getType()) {
+                values.push(slots[node.getSlot()]);
+            } else {
+                Integer leafNodeNumber = node.getNumberValue();
+                if (leafNodeNumber == null) {
+                    errors.syntax(CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+                    return 0;
+                }
+                values.push(leafNodeNumber);
             }
-            return leafNodeNumber;
         }
+        return values.pop();
     }
 
-    private Integer performCalculation(Integer operand1, Integer operand2, Type operator) {
+    /**
+     * The same steps as {@link #evaluateTree(Node, int[], ErrorReport)} over the nodes of a flat tree. The nodes still
+     * to visit are kept as pairs of node index and state.
+     */
+    private int evaluateArena(NodeArena arena, int rootNode, int[] slots, ErrorReport errors) {
+        IntStack nodes = new IntStack();
+        IntStack values = new IntStack();
+
+        nodes.push(rootNode);
+        nodes.push(VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.pop();
+            int node = nodes.pop();
+            Type type = arena.getType(node);
+
+            if (state == STORE) {
+                slots[arena.getValue(arena.getLeft(node))] = values.pop();
+            } else if (state == CALCULATE) {
+                int operand2 = values.pop();
+                int operand1 = values.pop();
+                if (Type.div == type && operand2 == 0) {
+                    errors.divisionByZero();
+                    return 0;
+                }
+                long result = performCalculation(operand1, operand2, type);
+                if (checked && result != (int) result) {
+                    errors.overflow();
+                    return 0;
+                }
+                values.push((int) result);
+            } else if (Type.let == type) {
+                nodes.push(arena.getRight(node));
+                nodes.push(VISIT);
+                nodes.push(node);
+                nodes.push(STORE);
+                nodes.push(arena.getMiddle(node));
+                nodes.push(VISIT);
+            } else if (arena.getLeft(node) != NodeArena.NONE) {
+                nodes.push(node);
+                nodes.push(CALCULATE);
+                nodes.push(arena.getRight(node));
+                nodes.push(VISIT);
+                nodes.push(arena.getLeft(node));
+                nodes.push(VISIT);
+            } else if (Type.var == type) {
+                values.push(slots[arena.getValue(node)]);
+            } else if (Type.digit == type) {
+                values.push(arena.getValue(node));
+            } else {
+                errors.syntax(CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+                return 0;
+            }
+        }
+        return values.pop();
+    }
+
+    //Computed exactly in a long, its low 32 bits are the wrapped int result
+    private static long performCalculation(int operand1, int operand2, Type operator) {
             switch (operator) {
                 case add:
-                    return operand1 + operand2;
+                    return (long) operand1 + operand2;
                 case sub:
-                    return operand1 - operand2;
+                    return (long) operand1 - operand2;
                 case mul:
-                    return operand1 * operand2;
+                    return (long) operand1 * operand2;
                 case div:
-                    return operand1 / operand2;
+                    return (long) operand1 / operand2;
                 default:
                     throw new IllegalArgumentException("Illegal operators");
             }
     }
+
+    /**
+     * Settings of a {@link Calculate}, any of them can be left out.
+     */
+    public static class Builder {
+        private ExpressionCache expressionCache;
+        private int promotionThreshold = CompiledExpression.NEVER_PROMOTE;
+        private CalculatorMetrics metrics;
+        private NumericMode numericMode = NumericMode.WRAP;
+        private SubExpressionMemo memo;
+
+        private Builder() {}
+
+        /**
+         * @param expressionCache Cache of compiled expressions, may be shared between instances using the same numeric
+         *                        mode. Null disables caching.
+         */
+        public Builder expressionCache(ExpressionCache expressionCache) {
+            this.expressionCache = expressionCache;
+            return this;
+        }
+
+        /**
+         * @param promotionThreshold Number of evaluations after which a cached expression is compiled to a JVM class.
+         *                           {@link CompiledExpression#NEVER_PROMOTE} keeps every expression in the interpreter. When
+         *                           the cache is shared, the threshold of the instance that compiled the expression applies.
+         */
+        public Builder promotionThreshold(int promotionThreshold) {
+            this.promotionThreshold = promotionThreshold;
+            return this;
+        }
+
+        /**
+         * @param metrics Metrics the calculations are recorded into, may be shared between instances. Null disables
+         *                measuring, calculations then take the same steps as without metrics.
+         */
+        public Builder metrics(CalculatorMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param numericMode How a result that does not fit in an int is treated.
+         */
+        public Builder numericMode(NumericMode numericMode) {
+            this.numericMode = numericMode;
+            return this;
+        }
+
+        /**
+         * @param memo Values of the closed sub-expressions calculated so far, may be shared between instances whatever
+         *             their numeric mode. Null disables memoizing, the trees are then not hashed.
+         */
+        public Builder memo(SubExpressionMemo memo) {
+            this.memo = memo;
+            return this;
+        }
+
+        public Calculate build() {
+            return new Calculate(this);
+        }
+    }
 }
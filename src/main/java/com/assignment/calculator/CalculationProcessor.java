@@ -0,0 +1,270 @@
+package com.assignment.calculator;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Calculates a stream of expressions on an executor and publishes their results to one subscriber. A failed
+ * expression is published as a failed {@link CalculationResult}, it does not end the stream.
+ *
+ * At most the given window of expressions is requested from the publisher ahead of the results emitted, so no more
+ * than that many expressions are calculated or waiting for the subscriber at once. Results are only emitted as the
+ * subscriber requests them, a slow subscriber stops the expressions from being requested once the window is full.
+ *
+ * Ordered results are emitted in the order of their expressions. Unordered results are emitted as soon as they are
+ * calculated, a slow expression then does not hold back the results of the ones after it. Either way the expression of
+ * a result is given by {@link CalculationResult#getExpression()}.
+ *
+ * The stream ends once the results of all the expressions received are emitted, with the error of the publisher if it
+ * failed. It fails at once if the executor rejects a calculation.
+ *
+ * It is a {@link Flow.Processor}, so it connects to a {@link java.util.concurrent.SubmissionPublisher} or, through the
+ * adapters of org.reactivestreams.FlowAdapters, to any Reactive Streams library. The class needs Java 9, it is only
+ * loaded by code that uses it.
+ */
+public class CalculationProcessor implements Flow.Processor<String, CalculationResult> {
+    private final Calculate calculate;
+    private final Executor executor;
+    private final int window;
+    private final boolean ordered;
+    //Results by sequence number modulo the window when ordered, in the order they were calculated otherwise
+    private final AtomicReferenceArray<CalculationResult> orderedResults;
+    private final Queue<CalculationResult> unorderedResults;
+
+    private final AtomicReference<Flow.Subscriber<? super CalculationResult>> subscriber = new AtomicReference<>();
+    private final AtomicLong requested = new AtomicLong();
+    //Number of pending calls to drain(), only the caller that raised it from 0 emits
+    private final AtomicInteger drains = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile long received;
+    private volatile boolean done;
+    private volatile Throwable error;
+    //Failure of the processor itself, ending the stream without waiting for the results
+    private volatile Throwable failure;
+    private volatile boolean cancelled;
+
+    //Only used while draining
+    private long emitted;
+    private long upstreamRequested;
+
+    /**
+     * @param calculate Calculates the expressions.
+     * @param executor Executor the expressions are calculated on.
+     * @param window Maximum number of expressions calculated or waiting to be emitted at once.
+     * @param ordered true to emit the results in the order of their expressions.
+     */
+    public CalculationProcessor(Calculate calculate, Executor executor, int window, boolean ordered) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1: " + window);
+        }
+        this.calculate = calculate;
+        this.executor = executor;
+        this.window = window;
+        this.ordered = ordered;
+        this.orderedResults = ordered ? new AtomicReferenceArray<>(window) : null;
+        this.unorderedResults = ordered ? null : new ConcurrentLinkedQueue<>();
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CalculationResult> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!this.subscriber.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("The processor already has a subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n < 1) {
+                    fail(new IllegalArgumentException("The number of results requested must be positive: " + n));
+                    return;
+                }
+                requested.accumulateAndGet(n, CalculationProcessor::addCapped);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(String expression) {
+        Objects.requireNonNull(expression);
+        //Never called concurrently, but read by the draining thread
+        long sequence = received;
+        received = sequence + 1;
+        try {
+            executor.execute(() -> calculate(sequence, expression));
+        } catch (RejectedExecutionException ree) {
+            fail(ree);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = Objects.requireNonNull(throwable);
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    private void calculate(long sequence, String expression) {
+        CalculationResult result;
+        try {
+            result = calculate.tryCalculation(expression);
+        } catch (RuntimeException re) {
+            fail(re);
+            return;
+        }
+        if (cancelled) {
+            return;
+        }
+        if (ordered) {
+            orderedResults.set((int) (sequence % window), result);
+        } else {
+            unorderedResults.offer(result);
+        }
+        drain();
+    }
+
+    private void fail(Throwable throwable) {
+        failure = throwable;
+        cancelUpstream();
+        drain();
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    //Emits the results requested and requests more expressions, on one thread at a time
+    private void drain() {
+        if (drains.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super CalculationResult> downstream = subscriber.get();
+            if (downstream != null && !cancelled) {
+                long demand = requested.get();
+                long sent = 0;
+                CalculationResult result;
+                while (sent != demand && failure == null && !cancelled && (result = poll()) != null) {
+                    downstream.onNext(result);
+                    sent++;
+                }
+                if (sent != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-sent);
+                }
+
+                //done is read before received, which is final once it is set
+                if (failure != null) {
+                    cancelled = true;
+                    downstream.onError(failure);
+                } else if (done && emitted == received) {
+                    cancelled = true;
+                    if (error == null) {
+                        downstream.onComplete();
+                    } else {
+                        downstream.onError(error);
+                    }
+                } else if (!done) {
+                    requestExpressions();
+                }
+            }
+            if (cancelled) {
+                clear();
+            }
+            missed = drains.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    //Tops the expressions requested up to the window ahead of the results emitted, once half of it is free
+    private void requestExpressions() {
+        Flow.Subscription subscription = upstream;
+        long free = emitted + window - upstreamRequested;
+        if (subscription != null && free >= Math.max(1, window / 2)) {
+            upstreamRequested += free;
+            subscription.request(free);
+        }
+    }
+
+    private CalculationResult poll() {
+        CalculationResult result;
+        if (ordered) {
+            int index = (int) (emitted % window);
+            result = orderedResults.get(index);
+            if (result != null) {
+                orderedResults.set(index, null);
+            }
+        } else {
+            result = unorderedResults.poll();
+        }
+        if (result != null) {
+            emitted++;
+        }
+        return result;
+    }
+
+    private void clear() {
+        if (ordered) {
+            for (int i = 0; i < window; i++) {
+                orderedResults.set(i, null);
+            }
+        } else {
+            unorderedResults.clear();
+        }
+    }
+
+    private static long addCapped(long requested, long n) {
+        long sum = requested + n;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+}
@@ -0,0 +1,108 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+/**
+ * The value of an expression calculated by {@link Calculate#tryCalculation(String)}, or why it failed. A failed
+ * expression has a value of 0 and an error code. Its message, the same as {@link Calculate#performCalculation(String)}
+ * would give, is only built when asked for.
+ */
+public class CalculationResult {
+    private final String expression;
+    private final int value;
+    private final ErrorReport errors;
+
+    private CalculationResult(String expression, int value, ErrorReport errors) {
+        this.expression = expression;
+        this.value = value;
+        this.errors = errors;
+    }
+
+    static CalculationResult success(String expression, int value) {
+        return new CalculationResult(expression, value, null);
+    }
+
+    //The report is kept, it must not be reused
+    static CalculationResult failure(String expression, ErrorReport errors) {
+        return new CalculationResult(expression, 0, errors);
+    }
+
+    /**
+     * @return The expression that was calculated, to match results that are not in the order of their expressions.
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    public boolean isSuccess() {
+        return errors == null;
+    }
+
+    /**
+     * @return The value of the expression, or 0 if it failed.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * @return The error of the expression, or null if it was calculated.
+     */
+    public ErrorCode getError() {
+        return errors == null ? null : errors.getCode();
+    }
+
+    /**
+     * @return Character offset of the error in the expression, or {@link CalculatorExpressionParserException#UNKNOWN_OFFSET}.
+     */
+    public int getErrorOffset() {
+        return errors == null ? CalculatorExpressionParserException.UNKNOWN_OFFSET : errors.getOffset();
+    }
+
+    /**
+     * @return Description of the token expected at the offset of the error, or null.
+     */
+    public String getExpected() {
+        return errors == null ? null : errors.getExpected();
+    }
+
+    /**
+     * @return The message of the error, or null if the expression was calculated.
+     */
+    public String getMessage() {
+        return errors == null ? null : errors.getMessage();
+    }
+
+    /**
+     * @return A {@link CalculatorExpressionParserException} or an {@link ArithmeticException} for a division by zero or
+     * an overflow, or null if the expression was calculated.
+     */
+    public Exception getException() {
+        if (errors == null) {
+            return null;
+        }
+        if (errors.getCode().isArithmetic()) {
+            return new ArithmeticException(errors.getMessage());
+        }
+        return errors.toParserException();
+    }
+
+    /**
+     * For callers that still handle failures as exceptions. The parser exception is created without a stack trace.
+     *
+     * @return The value of the expression.
+     * @throws CalculatorExpressionParserException If the expression is invalid.
+     * @throws ArithmeticException On a division by zero, or a result that does not fit in an int in checked mode.
+     */
+    public int getValueOrThrow() throws CalculatorExpressionParserException {
+        if (errors == null) {
+            return value;
+        }
+        if (errors.getCode().isArithmetic()) {
+            throw new ArithmeticException(errors.getMessage());
+        }
+        throw errors.toStacklessParserException();
+    }
+}
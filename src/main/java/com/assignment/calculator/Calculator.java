@@ -1,16 +1,71 @@
 package com.assignment.calculator;
 
+import com.assignment.calculator.metrics.CalculatorMetrics;
 import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+
+import javax.management.JMException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Reads expressions from the console one line at a time, calculates a whole file with
+ * --input file --output file (see {@link FileCalculator}), calculates one expression of any size with --expression file
+ * (see {@link Calculate#performStreamingCalculation(java.nio.channels.ReadableByteChannel)}), or serves calculations over TCP with
+ * --port port [--max-connections count] (see {@link CalculatorServer}) until the JVM is stopped. The server records
+ * {@link CalculatorMetrics} and exposes them over JMX.
+ */
 public class Calculator {
+    private static final int EXPRESSION_CACHE_SIZE = 1024;
+    private static final int PROMOTION_THRESHOLD = 1000;
+    private static final String INPUT_OPTION = "--input";
+    private static final String OUTPUT_OPTION = "--output";
+    private static final String EXPRESSION_OPTION = "--expression";
+    private static final String PORT_OPTION = "--port";
+    private static final String MAX_CONNECTIONS_OPTION = "--max-connections";
+    private static final int MAX_CONNECTIONS = 1024;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final String METRICS_NAME = "server";
+    private static final String USAGE = "Usage: [" + INPUT_OPTION + " file " + OUTPUT_OPTION + " file] | ["
+            + EXPRESSION_OPTION + " file] | ["
+            + PORT_OPTION + " port [" + MAX_CONNECTIONS_OPTION + " count]]";
 
     public static void main(String args[]) {
+        if (args.length > 0) {
+            Map<String, String> options = parseOptions(args);
+            if (options != null && options.size() == 2 && options.containsKey(INPUT_OPTION) && options.containsKey(OUTPUT_OPTION)) {
+                calculateFile(Paths.get(options.get(INPUT_OPTION)), Paths.get(options.get(OUTPUT_OPTION)));
+            } else if (options != null && options.size() == 1 && options.containsKey(EXPRESSION_OPTION)) {
+                calculateExpression(Paths.get(options.get(EXPRESSION_OPTION)));
+            } else if (options != null && options.containsKey(PORT_OPTION) && options.size() <= 2
+                    && (options.size() == 1 || options.containsKey(MAX_CONNECTIONS_OPTION))) {
+                try {
+                    serve(Integer.parseInt(options.get(PORT_OPTION)),
+                            Integer.parseInt(options.getOrDefault(MAX_CONNECTIONS_OPTION, String.valueOf(MAX_CONNECTIONS))));
+                } catch (NumberFormatException nfe) {
+                    exitWithUsage();
+                }
+            } else {
+                exitWithUsage();
+            }
+            return;
+        }
             Scanner scanner = new Scanner(System.in);
+            Calculate calculate = Calculate.builder()
+                    .expressionCache(new ExpressionCache(EXPRESSION_CACHE_SIZE))
+                    .promotionThreshold(PROMOTION_THRESHOLD)
+                    .build();
             System.out.println("Please enter an expression to be calculated followed by enter: ");
             while(scanner.hasNextLine()) {
                 String inputExpression = scanner.nextLine();
-                Calculate calculate = new Calculate();
                 System.out.println("Input expression: " + inputExpression);
                 try {
                     System.out.println("Answer is: " + calculate.performCalculation(inputExpression));
@@ -23,4 +78,73 @@ public class Calculator {
             }
             scanner.close();
     }
+
+    private static void calculateFile(Path input, Path output) {
+        try {
+            new FileCalculator(new Calculate(), ForkJoinPool.commonPool()).process(input, output);
+        } catch (IOException ioe) {
+            System.err.println(ioe.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void calculateExpression(Path input) {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            System.out.println(new Calculate().performStreamingCalculation(channel));
+        } catch (CalculatorExpressionParserException cep) {
+            System.err.println(cep.getMessage());
+            System.exit(1);
+        } catch (ArithmeticException ae) {
+            System.err.println(ae.getMessage());
+            System.exit(1);
+        } catch (IOException ioe) {
+            System.err.println(ioe.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void serve(int port, int maxConnections) {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        try {
+            metrics.register(METRICS_NAME);
+        } catch (JMException jme) {
+            System.err.println("Metrics are not exposed over JMX: " + jme.getMessage());
+        }
+        Calculate calculate = Calculate.builder()
+                .expressionCache(new ExpressionCache(EXPRESSION_CACHE_SIZE))
+                .promotionThreshold(PROMOTION_THRESHOLD)
+                .metrics(metrics)
+                .build();
+        CalculatorServer server = new CalculatorServer(calculate, port, maxConnections);
+        try {
+            server.start();
+        } catch (IOException ioe) {
+            System.err.println(ioe.getMessage());
+            System.exit(1);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }, "calculator-shutdown"));
+        System.out.println("Listening on port " + server.getPort() + (server.isUsingVirtualThreads() ? " with virtual threads" : ""));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        if (args.length % 2 != 0) {
+            return null;
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        return options;
+    }
+
+    private static void exitWithUsage() {
+        System.err.println(USAGE);
+        System.exit(2);
+    }
 }
@@ -0,0 +1,360 @@
+package com.assignment.calculator;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves calculations over TCP with a line based protocol: every line received is an expression, and one line is sent
+ * back for it with its value, or "error: " followed by the message of the failure. Clients can pipeline requests by
+ * sending many lines without waiting, the responses come back in the same order. Responses are flushed once no more
+ * requests are waiting to be read, so a pipelined burst is answered with few writes.
+ *
+ * Every connection is served by its own thread. On a JVM with virtual threads (Java 21 and later) these are virtual
+ * threads, otherwise they come from a pool of platform threads. Either way at most maxConnections connections are
+ * served at once, further connections wait in the accept backlog until one closes.
+ *
+ * Shutting down stops accepting connections, answers every request already received and then closes the connections.
+ * A connection busy with a pipelined burst keeps reading until it has answered all of it, only a connection waiting for
+ * its next request is ended straight away.
+ *
+ * A request longer than {@link #MAX_REQUEST_LENGTH} characters is answered with an error and its connection is closed,
+ * as is a connection without a request for longer than its idle timeout, so neither holds a connection for ever.
+ */
+public class CalculatorServer implements Closeable {
+    /** The longest request line read, in characters. */
+    public static final int MAX_REQUEST_LENGTH = 64 * 1024;
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String ERROR_PREFIX = "error: ";
+    private static final String EMPTY_REQUEST_MESSAGE = "No expression to parse";
+    private static final String REQUEST_TOO_LONG_MESSAGE = "The request is longer than " + MAX_REQUEST_LENGTH + " characters";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int BACKLOG = 128;
+
+    private final Calculate calculate;
+    private final int port;
+    private final int maxConnections;
+    private final int idleTimeoutMillis;
+    private final Semaphore connectionPermits;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    //Counted down once a shutdown has gone through the open connections, for tests
+    final CountDownLatch connectionsSignalled = new CountDownLatch(1);
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private Thread acceptor;
+    private boolean virtualThreads;
+    private volatile boolean running;
+
+    /**
+     * @param calculate Calculates the expressions, shared by all connections.
+     * @param port Port to listen on, 0 picks a free one (see {@link #getPort()}).
+     * @param maxConnections Maximum number of connections served at once.
+     */
+    public CalculatorServer(Calculate calculate, int port, int maxConnections) {
+        this(calculate, port, maxConnections, DEFAULT_IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param calculate Calculates the expressions, shared by all connections.
+     * @param port Port to listen on, 0 picks a free one (see {@link #getPort()}).
+     * @param maxConnections Maximum number of connections served at once.
+     * @param idleTimeout Time a connection waits for the data of its next request before being closed, 0 to wait for ever.
+     * @param unit Unit of the idle timeout.
+     */
+    public CalculatorServer(Calculate calculate, int port, int maxConnections, long idleTimeout, TimeUnit unit) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be at least 1: " + maxConnections);
+        }
+        if (idleTimeout < 0) {
+            throw new IllegalArgumentException("idleTimeout must not be negative: " + idleTimeout);
+        }
+        this.calculate = calculate;
+        this.port = port;
+        this.maxConnections = maxConnections;
+        long idleTimeoutMillis = unit.toMillis(idleTimeout);
+        //Rounded up to a millisecond, a timeout of 0 waits for ever
+        this.idleTimeoutMillis = (int) Math.min(idleTimeout > 0 ? Math.max(idleTimeoutMillis, 1) : 0, Integer.MAX_VALUE);
+        this.connectionPermits = new Semaphore(maxConnections);
+    }
+
+    /**
+     * Binds the port and starts accepting connections in the background.
+     *
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("The server has already been started");
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port), BACKLOG);
+        executor = newVirtualThreadExecutor();
+        virtualThreads = executor != null;
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "calculator-connection-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        running = true;
+        acceptor = new Thread(this::accept, "calculator-acceptor");
+        acceptor.start();
+    }
+
+    //Executors.newVirtualThreadPerTaskExecutor() on Java 21 and later, looked up so the code still runs on Java 8
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return true if connections are served on virtual threads.
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                connectionPermits.acquire();
+            } catch (InterruptedException ie) {
+                return;
+            }
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException ioe) {
+                //The server socket is closed on shutdown
+                connectionPermits.release();
+                return;
+            }
+            Connection connection = new Connection(socket);
+            connections.add(connection);
+            executor.execute(() -> serve(connection));
+        }
+    }
+
+    private void serve(Connection connection) {
+        Socket socket = connection.socket;
+        try (Reader input = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(idleTimeoutMillis);
+            RequestReader reader = new RequestReader(input);
+            while (true) {
+                //Ready while requests are buffered or already received by the socket
+                if (!reader.ready()) {
+                    writer.flush();
+                    //Marked idle before checking, so a shutdown either sees it idle and ends it or is seen here
+                    connection.idle = true;
+                    if (!running) {
+                        break;
+                    }
+                }
+                String line = reader.readLine();
+                if (line == null) {
+                    if (reader.isTooLong()) {
+                        writer.write(ERROR_PREFIX + REQUEST_TOO_LONG_MESSAGE + '\n');
+                        writer.flush();
+                    }
+                    break;
+                }
+                connection.idle = false;
+                respond(line, writer);
+            }
+        } catch (SocketTimeoutException ste) {
+            //Idle for too long
+        } catch (SocketException se) {
+            //The client went away
+        } catch (IOException ioe) {
+            //The connection is closed below either way
+        } finally {
+            connections.remove(connection);
+            closeQuietly(socket);
+            connectionPermits.release();
+        }
+    }
+
+    private void respond(String inputExpression, Writer writer) throws IOException {
+        if (StringUtils.isBlank(inputExpression)) {
+            writer.write(ERROR_PREFIX + EMPTY_REQUEST_MESSAGE + '\n');
+            return;
+        }
+        CalculationResult result = calculate.tryCalculation(inputExpression);
+        if (result.isSuccess()) {
+            writer.write(Integer.toString(result.getValue()));
+        } else {
+            writer.write(ERROR_PREFIX);
+            writer.write(String.valueOf(result.getMessage()));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Stops accepting connections and waits for the open ones to be answered and closed. Requests already received
+     * are still answered, however many are pipelined; connections waiting for their next request are closed.
+     *
+     * @param timeout Maximum time to wait for the open connections.
+     * @param unit Unit of the timeout.
+     * @return true if every connection was closed in time.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        synchronized (this) {
+            if (serverSocket == null || !running) {
+                return true;
+            }
+            running = false;
+            closeQuietly(serverSocket);
+            acceptor.interrupt();
+        }
+        acceptor.join();
+        for (Connection connection : connections) {
+            if (!connection.idle) {
+                //Stops by itself once it has answered the requests it received
+                continue;
+            }
+            try {
+                //Ends the wait for the next request, a response still being written is not cut off
+                connection.socket.shutdownInput();
+            } catch (IOException ioe) {
+                closeQuietly(connection.socket);
+            }
+        }
+        connectionsSignalled.countDown();
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!shutdown(0, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+                for (Connection connection : connections) {
+                    closeQuietly(connection.socket);
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ioe) {
+            //Nothing left to do with it
+        }
+    }
+
+    //Reads the request lines like BufferedReader.readLine(), without holding more than MAX_REQUEST_LENGTH of a line
+    private static class RequestReader {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        //A line feed right after a carriage return ends the same line
+        private boolean skipLineFeed;
+        private boolean tooLong;
+
+        private RequestReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        //true while a line is buffered or already received, the same as BufferedReader.ready()
+        private boolean ready() throws IOException {
+            if (skipLineFeed && (position < limit || (reader.ready() && fill()))) {
+                skipLineFeed = false;
+                if (buffer[position] == '\n') {
+                    position++;
+                }
+            }
+            return position < limit || reader.ready();
+        }
+
+        //Returns null at the end of the input, or once a line is longer than MAX_REQUEST_LENGTH (see isTooLong())
+        private String readLine() throws IOException {
+            line.setLength(0);
+            while (position < limit || fill()) {
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (buffer[position] == '\n') {
+                        position++;
+                        continue;
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+                    position++;
+                }
+                if (line.length() + position - start > MAX_REQUEST_LENGTH) {
+                    tooLong = true;
+                    return null;
+                }
+                line.append(buffer, start, position - start);
+                if (position < limit) {
+                    skipLineFeed = buffer[position] == '\r';
+                    position++;
+                    return line.toString();
+                }
+            }
+            return line.length() == 0 ? null : line.toString();
+        }
+
+        private boolean isTooLong() {
+            return tooLong;
+        }
+
+        private boolean fill() throws IOException {
+            position = 0;
+            limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+            return limit > 0;
+        }
+    }
+
+    private static class Connection {
+        private final Socket socket;
+        //true once every request received so far is answered and flushed
+        private volatile boolean idle;
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.CompiledExpression;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe, size bounded cache of compiled expressions keyed by the trimmed input expression. The least recently used
+ * entry is evicted once either the maximum number of entries or the maximum weight is exceeded. The weight of an entry
+ * is the length of its expression.
+ */
+public class ExpressionCache {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<String, CompiledExpression> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries Maximum number of expressions to keep.
+     */
+    public ExpressionCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxEntries Maximum number of expressions to keep.
+     * @param maxWeight Maximum total length of the expressions to keep.
+     */
+    public ExpressionCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("The cache must be able to hold at least one expression");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @param inputExpression Input calculation expression.
+     * @return The cached compiled expression or null if it is not cached.
+     */
+    public CompiledExpression get(String inputExpression) {
+        CompiledExpression expression;
+        synchronized (entries) {
+            expression = entries.get(normalize(inputExpression));
+        }
+        if (expression == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return expression;
+    }
+
+    /**
+     * Adds an expression and evicts the least recently used expressions if the cache is over its bounds.
+     * Expressions heavier than the maximum weight are not cached.
+     *
+     * @param inputExpression Input calculation expression.
+     * @param expression The compiled expression.
+     */
+    public void put(String inputExpression, CompiledExpression expression) {
+        String key = normalize(inputExpression);
+        if (key.length() > maxWeight) {
+            return;
+        }
+        synchronized (entries) {
+            if (entries.put(key, expression) == null) {
+                weight += key.length();
+            }
+            Iterator<Map.Entry<String, CompiledExpression>> leastRecentlyUsed = entries.entrySet().iterator();
+            while (entries.size() > maxEntries || weight > maxWeight) {
+                weight -= leastRecentlyUsed.next().getKey().length();
+                leastRecentlyUsed.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static String normalize(String inputExpression) {
+        return inputExpression.trim();
+    }
+}
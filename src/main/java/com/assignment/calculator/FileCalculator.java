@@ -0,0 +1,205 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.AsciiCharSequence;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Calculates every line of an input file and writes one result line per input line, in the same order, to an output
+ * file. A result line is the value of the expression, or "error: " followed by the message of the failure.
+ *
+ * The work is pipelined: the input is memory-mapped in windows and split into blocks of lines, each block is
+ * calculated as a batch on a fork-join pool while the next blocks are read, and the results of finished blocks are
+ * written through a large buffer. A bounded queue of blocks keeps reading from running too far ahead of writing.
+ * Lines are lexed in place as {@link AsciiCharSequence} slices of the mapped window, so no String is created for them.
+ */
+public class FileCalculator {
+    private static final int BLOCK_SIZE = 4096;
+    private static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_MAP_WINDOW_SIZE = Integer.MAX_VALUE;
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+    private static final String ERROR_PREFIX = "error: ";
+    private static final Block END_OF_INPUT = new Block(null, null);
+
+    private final Calculate calculate;
+    private final ForkJoinPool pool;
+    private final int mapWindowSize;
+    private final int maxMapWindowSize;
+
+    /**
+     * @param calculate Calculates the expressions.
+     * @param pool Pool the blocks of expressions are calculated on.
+     */
+    public FileCalculator(Calculate calculate, ForkJoinPool pool) {
+        this(calculate, pool, MAP_WINDOW_SIZE);
+    }
+
+    FileCalculator(Calculate calculate, ForkJoinPool pool, int mapWindowSize) {
+        this(calculate, pool, mapWindowSize, MAX_MAP_WINDOW_SIZE);
+    }
+
+    FileCalculator(Calculate calculate, ForkJoinPool pool, int mapWindowSize, int maxMapWindowSize) {
+        this.calculate = calculate;
+        this.pool = pool;
+        this.mapWindowSize = mapWindowSize;
+        this.maxMapWindowSize = maxMapWindowSize;
+    }
+
+    /**
+     * @param input File with one expression per line, in ASCII.
+     * @param output File the results are written to. It is created or replaced.
+     * @return The number of lines calculated.
+     * @throws IOException If the input cannot be read, has a line longer than 2 GiB, or the output cannot be written.
+     * @throws java.util.concurrent.RejectedExecutionException If the pool does not accept the blocks of lines.
+     */
+    public long process(Path input, Path output) throws IOException {
+        BlockingQueue<Block> blocks = new ArrayBlockingQueue<>(pool.getParallelism() * 2 + 2);
+        Throwable[] readFailure = new Throwable[1];
+        Thread reader = new Thread(() -> {
+            try {
+                read(input, blocks);
+            } catch (InterruptedException ie) {
+                //Only interrupted once the writing has stopped
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                readFailure[0] = t;
+            } finally {
+                //Always ends the writing, whatever stopped the reading
+                try {
+                    blocks.put(END_OF_INPUT);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "calculator-reader");
+        reader.start();
+
+        long lines = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(output), StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE)) {
+            for (Block block = blocks.take(); block != END_OF_INPUT; block = blocks.take()) {
+                block.task.join();
+                write(block.result, writer);
+                lines += block.result.size();
+            }
+            reader.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calculating " + input);
+        } finally {
+            reader.interrupt();
+        }
+        throwIfFailed(readFailure[0]);
+        return lines;
+    }
+
+    private static void throwIfFailed(Throwable failure) throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    //Splits the input into lines, mapping it one window at a time. A window ends at the start of its last incomplete line,
+    //which is read again from the next window.
+    private void read(Path input, BlockingQueue<Block> blocks) throws IOException, InterruptedException {
+        List<CharSequence> lines = new ArrayList<>(BLOCK_SIZE);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long windowStart = 0;
+            int windowSize = mapWindowSize;
+            while (windowStart < size) {
+                int length = (int) Math.min(windowSize, size - windowStart);
+                boolean lastWindow = windowStart + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        lines.add(line(window, lineStart, i));
+                        lineStart = i + 1;
+                        if (lines.size() == BLOCK_SIZE) {
+                            submit(lines, blocks);
+                        }
+                    }
+                }
+                if (lastWindow && lineStart < length) {
+                    lines.add(line(window, lineStart, length));
+                    lineStart = length;
+                }
+                if (lineStart == 0 && !lastWindow) {
+                    //A single line longer than the window, map a larger one
+                    if (windowSize >= maxMapWindowSize) {
+                        throw new IOException("Line at offset " + windowStart + " of " + input + " is longer than " + maxMapWindowSize + " bytes");
+                    }
+                    windowSize = (int) Math.min(maxMapWindowSize, (long) windowSize * 2);
+                }
+                windowStart += lineStart;
+            }
+        }
+        if (!lines.isEmpty()) {
+            submit(lines, blocks);
+        }
+    }
+
+    private void submit(List<CharSequence> lines, BlockingQueue<Block> blocks) throws InterruptedException {
+        CharSequence[] inputExpressions = lines.toArray(new CharSequence[0]);
+        lines.clear();
+        BatchResult result = new BatchResult(inputExpressions.length);
+        BatchTask task = new BatchTask(calculate, result, inputExpressions, 0, inputExpressions.length,
+                BatchTask.chunkSize(inputExpressions.length, pool));
+        blocks.put(new Block(result, pool.submit(task)));
+    }
+
+    private static void write(BatchResult result, Writer writer) throws IOException {
+        int[] values = result.getValues();
+        for (int i = 0; i < values.length; i++) {
+            if (result.isSuccess(i)) {
+                writer.write(Integer.toString(values[i]));
+            } else {
+                writer.write(ERROR_PREFIX);
+                writer.write(String.valueOf(result.getErrorMessage(i)));
+            }
+            writer.write('\n');
+        }
+    }
+
+    //Slice of window[start, end) without a trailing carriage return
+    private static CharSequence line(MappedByteBuffer window, int start, int end) {
+        if (end > start && window.get(end - 1) == '\r') {
+            end--;
+        }
+        return AsciiCharSequence.of(window, start, end - start);
+    }
+
+    //A block of lines being calculated, in input order
+    private static class Block {
+        private final BatchResult result;
+        private final ForkJoinTask<?> task;
+
+        private Block(BatchResult result, ForkJoinTask<?> task) {
+            this.result = result;
+            this.task = task;
+        }
+    }
+}
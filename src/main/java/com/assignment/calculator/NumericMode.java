@@ -0,0 +1,14 @@
+package com.assignment.calculator;
+
+/**
+ * How {@link Calculate} treats a result that does not fit in an int.
+ *
+ * Results that do not fit in an int at all, and literals outside of its range, can be calculated exactly with
+ * {@link Calculate#performExactCalculation(String)} in either mode.
+ */
+public enum NumericMode {
+    /** Results wrap around like Java int arithmetic, ie. add(2147483647, 1) is -2147483648. */
+    WRAP,
+    /** A result that does not fit in an int fails with an {@link ArithmeticException}, like {@link Math#addExact(int, int)}. */
+    CHECKED
+}
@@ -0,0 +1,174 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.BytecodeCompiler;
+import com.assignment.calculator.compiler.ColumnInterpreter;
+import com.assignment.calculator.compiler.IntExpression;
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.Program;
+
+import java.util.Arrays;
+
+/**
+ * An expression compiled once with free variables, whose values are given every time it is evaluated, see
+ * {@link Calculate#prepare(String, String...)}. The free variables are resolved to slots when the expression is
+ * prepared, so evaluating it does not look at the expression again.
+ *
+ * ie. add(mul(x, 3), y) prepared with the variables x and y evaluates to 10 for evaluate(2, 4).
+ *
+ * The expression is compiled to a JVM class straight away, so evaluations allocate nothing. An expression too large
+ * for a JVM method is run by the {@link Interpreter} instead. Instances can be evaluated by many threads at once.
+ * Results wrap around on overflow unless the expression was prepared by a {@link Calculate} in {@link NumericMode#CHECKED}.
+ *
+ * Many rows of values can be evaluated at once from columns, see {@link #evaluateColumns(int[][], int[])}.
+ */
+public class PreparedExpression {
+    private final String[] variables;
+    private final Program program;
+    private final IntExpression bytecode;
+
+    PreparedExpression(String[] variables, Program program) {
+        this.variables = variables;
+        this.program = program;
+        this.bytecode = BytecodeCompiler.compile(program);
+    }
+
+    /**
+     * @return The names of the free variables, in the order their values are given.
+     */
+    public String[] getVariables() {
+        return variables.clone();
+    }
+
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    /**
+     * @return The index of the value of the variable, or -1 if it is not a free variable of the expression.
+     */
+    public int indexOf(String variable) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(variable)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param values Value of every free variable, in the order they were declared. The array is not kept.
+     * @return Integer value of the result.
+     * @throws IllegalArgumentException If the number of values differs from the number of free variables.
+     * @throws ArithmeticException If the expression divides by zero, or overflows when prepared in
+     *                             {@link NumericMode#CHECKED}.
+     */
+    public int evaluate(int... values) {
+        if (values.length != variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length + " values but got " + values.length);
+        }
+        return bytecode != null ? bytecode.evaluate(values) : Interpreter.execute(program, values, null);
+    }
+
+    /**
+     * @param bindings Values bound to the free variables, created by {@link #newBindings()}.
+     * @return Integer value of the result.
+     * @throws IllegalArgumentException If the bindings belong to another expression.
+     * @throws ArithmeticException If the expression divides by zero, or overflows when prepared in
+     *                             {@link NumericMode#CHECKED}.
+     */
+    public int evaluate(Bindings bindings) {
+        if (bindings.expression != this) {
+            throw new IllegalArgumentException("The bindings belong to another expression");
+        }
+        return evaluate(bindings.values);
+    }
+
+    /**
+     * Evaluates the expression for every row of the columns, see {@link #evaluateColumns(int[][], int[])}.
+     *
+     * @param columns Values of every free variable in the order they were declared, all with the same number of rows.
+     * @return The value of every row.
+     * @throws ArithmeticException If a row divides by zero, or overflows when prepared in {@link NumericMode#CHECKED}.
+     */
+    public int[] evaluateColumns(int[]... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("The number of rows is only known from the columns");
+        }
+        int[] output = new int[columns[0].length];
+        evaluateColumns(columns, output);
+        return output;
+    }
+
+    /**
+     * Evaluates the expression for every row of the columns with a {@link ColumnInterpreter}, which runs every
+     * operation over a chunk of rows at once. Much faster than evaluating row by row for large numbers of rows; when
+     * evaluating few rows many times, keep a ColumnInterpreter of the {@link #getProgram() program} instead.
+     *
+     * @param columns Values of every free variable in the order they were declared, each with at least as many rows
+     *                as the output.
+     * @param output Receives the value of every row.
+     * @throws IllegalArgumentException If a column is missing or too short.
+     * @throws ArithmeticException If a row divides by zero, or overflows when prepared in {@link NumericMode#CHECKED}.
+     */
+    public void evaluateColumns(int[][] columns, int[] output) {
+        new ColumnInterpreter(program).execute(columns, output);
+    }
+
+    /**
+     * @return Bindings with every free variable set to 0.
+     */
+    public Bindings newBindings() {
+        return new Bindings(this);
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * @return true if the expression runs as a generated JVM class.
+     */
+    public boolean isCompiled() {
+        return bytecode != null;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedExpression" + Arrays.toString(variables);
+    }
+
+    /**
+     * Values of the free variables of a {@link PreparedExpression}, set by name or index. Bindings can be changed and
+     * evaluated again as often as needed. They are not thread safe.
+     */
+    public static class Bindings {
+        private final PreparedExpression expression;
+        private final int[] values;
+
+        private Bindings(PreparedExpression expression) {
+            this.expression = expression;
+            this.values = new int[expression.variables.length];
+        }
+
+        /**
+         * @throws IllegalArgumentException If the variable is not a free variable of the expression.
+         */
+        public Bindings set(String variable, int value) {
+            int index = expression.indexOf(variable);
+            if (index < 0) {
+                throw new IllegalArgumentException("Not a free variable of the expression: " + variable);
+            }
+            values[index] = value;
+            return this;
+        }
+
+        public Bindings set(int index, int value) {
+            values[index] = value;
+            return this;
+        }
+
+        public int get(int index) {
+            return values[index];
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+import org.objectweb.asm.ClassTooLargeException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Translates a {@link Program} into a JVM class implementing {@link IntExpression}, so the arithmetic is JIT compiled by
+ * the JVM like any other code. Every program instruction maps to one JVM instruction: slots become local variables and
+ * the operand stack becomes the JVM operand stack. Checked operations call {@link Math#addExact(int, int)} and the like,
+ * which the JIT turns into an add and an overflow check. The free variables are copied from the arguments array into their
+ * local variables before the first instruction.
+ *
+ * The class also has a variant of the evaluation taking an {@link ErrorReport}, where the operations that can fail call
+ * the reporting operations of the {@link Interpreter} instead, so a failure is recorded without throwing.
+ *
+ * Each class is defined in its own class loader so it can be unloaded once the expression is no longer used.
+ */
+public class BytecodeCompiler {
+    private static final String INTERFACE_NAME = IntExpression.class.getName().replace('.', '/');
+    private static final String INTERPRETER_NAME = Interpreter.class.getName().replace('.', '/');
+    private static final String ERROR_REPORT_DESCRIPTOR = "L" + ErrorReport.class.getName().replace('.', '/') + ";";
+    private static final String REPORTING_DESCRIPTOR = "(II" + ERROR_REPORT_DESCRIPTOR + ")I";
+    private static final String MATH_NAME = "java/lang/Math";
+    private static final String CLASS_NAME_PREFIX = BytecodeCompiler.class.getPackage().getName().replace('.', '/') + "/GeneratedExpression";
+    private static final int MAXIMUM_LOCALS = 0xFFFF;
+    private static final int MAXIMUM_STACK = 0xFFFF;
+    //Local 0 holds this, local 1 the arguments and local 2 the errors when reporting, the slots follow
+    private static final int ARGUMENTS_LOCAL = 1;
+    private static final int ERRORS_LOCAL = 2;
+    private static final int FIRST_SLOT_LOCAL = 2;
+    private static final int FIRST_REPORTING_SLOT_LOCAL = 3;
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    private BytecodeCompiler() {}
+
+    /**
+     * @param program The program to translate.
+     * @return A new instance of the generated class, or null if the program is too large for a single JVM method.
+     */
+    public static IntExpression compile(Program program) {
+        if (program.slotCount + FIRST_REPORTING_SLOT_LOCAL > MAXIMUM_LOCALS || program.maxStack >= MAXIMUM_STACK) {
+            return null;
+        }
+        String className = CLASS_NAME_PREFIX + CLASS_COUNTER.incrementAndGet();
+        byte[] classFile;
+        try {
+            classFile = generate(className, program);
+        } catch (MethodTooLargeException | ClassTooLargeException e) {
+            return null;
+        }
+        try {
+            return (IntExpression) new ExpressionClassLoader()
+                    .define(className.replace('/', '.'), classFile)
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not instantiate the generated class " + className, e);
+        }
+    }
+
+    private static byte[] generate(String className, Program program) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+                "java/lang/Object", new String[] {INTERFACE_NAME});
+
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor noArguments = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", "()I", null, null);
+        noArguments.visitCode();
+        noArguments.visitVarInsn(Opcodes.ALOAD, 0);
+        noArguments.visitInsn(Opcodes.ACONST_NULL);
+        noArguments.visitMethodInsn(Opcodes.INVOKEVIRTUAL, className, "evaluate", "([I)I", false);
+        noArguments.visitInsn(Opcodes.IRETURN);
+        noArguments.visitMaxs(0, 0);
+        noArguments.visitEnd();
+
+        MethodVisitor evaluate = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", "([I)I", null, null);
+        evaluate.visitCode();
+        body(evaluate, program, false);
+        evaluate.visitInsn(Opcodes.IRETURN);
+        evaluate.visitMaxs(0, 0);
+        evaluate.visitEnd();
+
+        MethodVisitor reporting = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "evaluate", "([I" + ERROR_REPORT_DESCRIPTOR + ")I",
+                null, null);
+        reporting.visitCode();
+        body(reporting, program, true);
+        reporting.visitVarInsn(Opcodes.ALOAD, ERRORS_LOCAL);
+        reporting.visitMethodInsn(Opcodes.INVOKESTATIC, INTERPRETER_NAME, "reported", "(I" + ERROR_REPORT_DESCRIPTOR + ")I", false);
+        reporting.visitInsn(Opcodes.IRETURN);
+        reporting.visitMaxs(0, 0);
+        reporting.visitEnd();
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    //Leaves the value of the program on the stack
+    private static void body(MethodVisitor method, Program program, boolean reporting) {
+        int firstSlotLocal = reporting ? FIRST_REPORTING_SLOT_LOCAL : FIRST_SLOT_LOCAL;
+        for (int slot = 0; slot < program.freeVariableCount; slot++) {
+            method.visitVarInsn(Opcodes.ALOAD, ARGUMENTS_LOCAL);
+            pushConstant(method, slot);
+            method.visitInsn(Opcodes.IALOAD);
+            method.visitVarInsn(Opcodes.ISTORE, slot + firstSlotLocal);
+        }
+        int[] code = program.code;
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case Program.PUSH:
+                    pushConstant(method, code[++pc]);
+                    break;
+                case Program.LOAD:
+                    method.visitVarInsn(Opcodes.ILOAD, code[++pc] + firstSlotLocal);
+                    break;
+                case Program.STORE:
+                    method.visitVarInsn(Opcodes.ISTORE, code[++pc] + firstSlotLocal);
+                    break;
+                case Program.ADD:
+                    method.visitInsn(Opcodes.IADD);
+                    break;
+                case Program.SUB:
+                    method.visitInsn(Opcodes.ISUB);
+                    break;
+                case Program.MUL:
+                    method.visitInsn(Opcodes.IMUL);
+                    break;
+                case Program.DIV:
+                    if (reporting) {
+                        report(method, "divide");
+                    } else {
+                        method.visitInsn(Opcodes.IDIV);
+                    }
+                    break;
+                case Program.ADD_EXACT:
+                    exact(method, MATH_NAME, "addExact", reporting);
+                    break;
+                case Program.SUB_EXACT:
+                    exact(method, MATH_NAME, "subtractExact", reporting);
+                    break;
+                case Program.MUL_EXACT:
+                    exact(method, MATH_NAME, "multiplyExact", reporting);
+                    break;
+                case Program.DIV_EXACT:
+                    exact(method, INTERPRETER_NAME, "divideExact", reporting);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + code[pc]);
+            }
+        }
+    }
+
+    //Calls the throwing operation of the owner, or the reporting operation of the Interpreter with the same name
+    private static void exact(MethodVisitor method, String owner, String name, boolean reporting) {
+        if (reporting) {
+            report(method, name);
+        } else {
+            method.visitMethodInsn(Opcodes.INVOKESTATIC, owner, name, "(II)I", false);
+        }
+    }
+
+    private static void report(MethodVisitor method, String name) {
+        method.visitVarInsn(Opcodes.ALOAD, ERRORS_LOCAL);
+        method.visitMethodInsn(Opcodes.INVOKESTATIC, INTERPRETER_NAME, name, REPORTING_DESCRIPTOR, false);
+    }
+
+    private static void pushConstant(MethodVisitor method, int value) {
+        if (value >= -1 && value <= 5) {
+            method.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+
+    private static class ExpressionClassLoader extends ClassLoader {
+        private ExpressionClassLoader() {
+            super(IntExpression.class.getClassLoader());
+        }
+
+        private Class<?> define(String className, byte[] classFile) {
+            return defineClass(className, classFile, 0, classFile.length);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+
+import java.util.Arrays;
+
+/**
+ * Executes a {@link Program} over many rows of values of its free variables at once. The values are given as columns,
+ * one array per free variable, and the rows are processed a chunk at a time: every instruction runs as a loop over the
+ * whole chunk instead of once per row. The loops of add, sub and mul are simple enough for the JIT to vectorize.
+ *
+ * ie. add(mul(x, 3), y) over the columns x = {1, 2} and y = {10, 20} results in {13, 26}.
+ *
+ * Every operand stack entry and slot is a chunk sized buffer. An instance keeps its buffers between executions, so it
+ * must not be used by several threads at once.
+ */
+public class ColumnInterpreter {
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final Program program;
+    private final int chunkSize;
+    private final int[][] stackBuffers;
+    private final int[][] slotBuffers;
+    private final int[][] stack;
+
+    public ColumnInterpreter(Program program) {
+        this(program, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param program The program to execute.
+     * @param chunkSize Number of rows processed by every instruction at once. The buffers of a chunk should fit in
+     *                  the L1 or L2 cache: (max stack + slots) * chunk size * 4 bytes.
+     */
+    public ColumnInterpreter(Program program, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1: " + chunkSize);
+        }
+        this.program = program;
+        this.chunkSize = chunkSize;
+        this.stackBuffers = new int[program.maxStack][chunkSize];
+        this.slotBuffers = new int[program.slotCount][chunkSize];
+        this.stack = new int[program.maxStack][];
+    }
+
+    /**
+     * @param columns Values of every free variable in slot order, each with at least as many rows as the output.
+     * @param output Receives the value of every row.
+     * @throws IllegalArgumentException If a column is missing or too short.
+     * @throws ArithmeticException If a row divides by zero, or overflows in a checked operation. The message gives the
+     * row, the output is left partly written.
+     */
+    public void execute(int[][] columns, int[] output) {
+        if (columns.length != program.freeVariableCount) {
+            throw new IllegalArgumentException("Expected " + program.freeVariableCount + " columns but got " + columns.length);
+        }
+        for (int[] column : columns) {
+            if (column.length < output.length) {
+                throw new IllegalArgumentException("Expected columns of " + output.length + " rows but got " + column.length);
+            }
+        }
+        for (int start = 0; start < output.length; start += chunkSize) {
+            int rows = Math.min(chunkSize, output.length - start);
+            for (int slot = 0; slot < columns.length; slot++) {
+                System.arraycopy(columns[slot], start, slotBuffers[slot], 0, rows);
+            }
+            System.arraycopy(executeChunk(start, rows), 0, output, start, rows);
+        }
+    }
+
+    //Stack entries refer to their own buffer or to a slot buffer, so loads do not copy. Results go to the buffer of their entry.
+    private int[] executeChunk(int start, int rows) {
+        int[] code = program.code;
+        int sp = 0;
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case Program.PUSH:
+                    Arrays.fill(stackBuffers[sp], 0, rows, code[++pc]);
+                    stack[sp] = stackBuffers[sp];
+                    sp++;
+                    break;
+                case Program.LOAD:
+                    stack[sp++] = slotBuffers[code[++pc]];
+                    break;
+                case Program.STORE:
+                    System.arraycopy(stack[--sp], 0, slotBuffers[code[++pc]], 0, rows);
+                    break;
+                case Program.ADD:
+                    sp--;
+                    add(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                case Program.SUB:
+                    sp--;
+                    sub(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                case Program.MUL:
+                    sp--;
+                    mul(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                case Program.DIV:
+                    sp--;
+                    div(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows, start);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                case Program.ADD_EXACT:
+                    sp--;
+                    addExact(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows, start);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                case Program.SUB_EXACT:
+                    sp--;
+                    subExact(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows, start);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                case Program.MUL_EXACT:
+                    sp--;
+                    mulExact(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows, start);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                case Program.DIV_EXACT:
+                    sp--;
+                    divExact(stack[sp - 1], stack[sp], stackBuffers[sp - 1], rows, start);
+                    stack[sp - 1] = stackBuffers[sp - 1];
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + code[pc]);
+            }
+        }
+        return stack[0];
+    }
+
+    private static void add(int[] left, int[] right, int[] result, int rows) {
+        for (int i = 0; i < rows; i++) {
+            result[i] = left[i] + right[i];
+        }
+    }
+
+    private static void sub(int[] left, int[] right, int[] result, int rows) {
+        for (int i = 0; i < rows; i++) {
+            result[i] = left[i] - right[i];
+        }
+    }
+
+    private static void mul(int[] left, int[] right, int[] result, int rows) {
+        for (int i = 0; i < rows; i++) {
+            result[i] = left[i] * right[i];
+        }
+    }
+
+    //Checked operations compute the exact result in a long, it overflowed if it does not fit back in an int
+    private static void addExact(int[] left, int[] right, int[] result, int rows, int start) {
+        for (int i = 0; i < rows; i++) {
+            long exact = (long) left[i] + right[i];
+            if (exact != (int) exact) {
+                throw overflow(start + i);
+            }
+            result[i] = (int) exact;
+        }
+    }
+
+    private static void subExact(int[] left, int[] right, int[] result, int rows, int start) {
+        for (int i = 0; i < rows; i++) {
+            long exact = (long) left[i] - right[i];
+            if (exact != (int) exact) {
+                throw overflow(start + i);
+            }
+            result[i] = (int) exact;
+        }
+    }
+
+    private static void mulExact(int[] left, int[] right, int[] result, int rows, int start) {
+        for (int i = 0; i < rows; i++) {
+            long exact = (long) left[i] * right[i];
+            if (exact != (int) exact) {
+                throw overflow(start + i);
+            }
+            result[i] = (int) exact;
+        }
+    }
+
+    private static void divExact(int[] left, int[] right, int[] result, int rows, int start) {
+        for (int i = 0; i < rows; i++) {
+            if (right[i] == 0) {
+                throw new ArithmeticException("/ by zero in row " + (start + i));
+            } else if (left[i] == Integer.MIN_VALUE && right[i] == -1) {
+                throw overflow(start + i);
+            }
+            result[i] = left[i] / right[i];
+        }
+    }
+
+    private static ArithmeticException overflow(int row) {
+        return new ArithmeticException(ErrorCode.OVERFLOW_MESSAGE + " in row " + row);
+    }
+
+    //Integer division has no vector instruction, the check only costs a compare per row
+    private static void div(int[] left, int[] right, int[] result, int rows, int start) {
+        for (int i = 0; i < rows; i++) {
+            if (right[i] == 0) {
+                throw new ArithmeticException("/ by zero in row " + (start + i));
+            }
+            result[i] = left[i] / right[i];
+        }
+    }
+}
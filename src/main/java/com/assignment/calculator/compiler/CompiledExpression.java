@@ -0,0 +1,83 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+/**
+ * A compiled expression that starts out running its {@link Program} in the {@link Interpreter} and is promoted to a
+ * generated JVM class (see {@link BytecodeCompiler}) once it has been evaluated often enough.
+ *
+ * The evaluation counter is not synchronized, so under contention promotion can happen a few evaluations late.
+ * Instances can be evaluated by many threads at once.
+ */
+public class CompiledExpression {
+    /** Threshold that keeps an expression in the interpreter. */
+    public static final int NEVER_PROMOTE = 0;
+
+    private final Program program;
+    private final int promotionThreshold;
+    private int evaluations;
+    private volatile IntExpression bytecode;
+
+    /**
+     * @param program The program of the expression.
+     * @param promotionThreshold Number of evaluations after which the expression is compiled to a JVM class.
+     *                           {@link #NEVER_PROMOTE} or less keeps it in the interpreter.
+     */
+    public CompiledExpression(Program program, int promotionThreshold) {
+        this.program = program;
+        this.promotionThreshold = promotionThreshold;
+    }
+
+    /**
+     * @return The value of the expression.
+     * @throws ArithmeticException If the expression divides by zero.
+     */
+    public int evaluate() {
+        IntExpression promoted = bytecode;
+        if (promoted != null) {
+            return promoted.evaluate();
+        }
+        if (promotionThreshold > NEVER_PROMOTE && ++evaluations >= promotionThreshold) {
+            promote();
+        }
+        return Interpreter.execute(program);
+    }
+
+    /**
+     * Same as {@link #evaluate()} but records a division by zero or an overflow in a report instead of throwing, in
+     * the interpreter and in the generated class alike.
+     *
+     * @return The value of the expression, or 0 if an error was recorded.
+     */
+    public int evaluate(ErrorReport errors) {
+        IntExpression promoted = bytecode;
+        if (promoted != null) {
+            return promoted.evaluate(null, errors);
+        }
+        if (promotionThreshold > NEVER_PROMOTE && ++evaluations >= promotionThreshold) {
+            promote();
+        }
+        return Interpreter.execute(program, errors);
+    }
+
+    private synchronized void promote() {
+        if (bytecode == null && evaluations > 0) {
+            bytecode = BytecodeCompiler.compile(program);
+            if (bytecode == null) {
+                //Too large for a JVM method, stay in the interpreter
+                evaluations = Integer.MIN_VALUE;
+            }
+        }
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * @return true once the expression runs as a generated JVM class.
+     */
+    public boolean isPromoted() {
+        return bytecode != null;
+    }
+}
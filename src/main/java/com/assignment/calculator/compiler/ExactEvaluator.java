@@ -0,0 +1,195 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.NodeStack;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates a tree without overflowing, whatever the size of its numbers.
+ *
+ * Most expressions fit in a long, so the tree is first walked on primitive longs, checking every operation for
+ * overflow without creating any object. Only if an operation overflows, or a literal does not fit in a long, is the
+ * tree walked again on {@link BigInteger}s. Divisions truncate towards zero in both walks, like int division.
+ *
+ * Both walks keep the nodes still to visit on an explicit stack, like {@link com.assignment.calculator.Calculate#evaluate(AbstractSyntaxTree)}.
+ */
+public class ExactEvaluator {
+    private static final int VISIT = 0;
+    private static final int STORE = 1;
+    private static final int CALCULATE = 2;
+
+    private ExactEvaluator() {}
+
+    /**
+     * @param tree A fully parsed abstract syntax tree, its numbers may be big numbers (see {@link Node#getBigNumberValue()}).
+     *             It is resolved first if that has not been done yet.
+     * @param errors Report without an error, the first error found is recorded in it.
+     * @return The exact value of the expression, or null if an error was recorded.
+     */
+    public static BigInteger evaluate(AbstractSyntaxTree tree, ErrorReport errors) {
+        if (!tree.isResolved() && !Resolver.resolve(tree, errors)) {
+            return null;
+        }
+        boolean[] overflow = new boolean[1];
+        long result = evaluateLong(tree.getRoot(), new long[tree.getSlotCount()], overflow, errors);
+        if (errors.hasError()) {
+            return null;
+        }
+        if (!overflow[0]) {
+            return BigInteger.valueOf(result);
+        }
+        return evaluateBig(tree.getRoot(), new BigInteger[tree.getSlotCount()], errors);
+    }
+
+    //Sets overflow[0] and returns 0 as soon as a value does not fit in a long
+    private static long evaluateLong(Node rootNode, long[] slots, boolean[] overflow, ErrorReport errors) {
+        NodeStack nodes = new NodeStack();
+        LongStack values = new LongStack();
+
+        nodes.push(rootNode, VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node rightChild = node.getRightChild();
+            Node middleChild = node.getMiddleChild();
+
+            if (state == STORE) {
+                slots[leftChild.getSlot()] = values.pop();
+            } else if (state == CALCULATE) {
+                long operand2 = values.pop();
+                long operand1 = values.pop();
+                if (Type.div == node.getType() && operand2 == 0) {
+                    errors.divisionByZero();
+                    return 0;
+                }
+                long result = calculate(operand1, operand2, node.getType());
+                if (overflows(operand1, operand2, result, node.getType())) {
+                    overflow[0] = true;
+                    return 0;
+                }
+                values.push(result);
+            } else if (leftChild != null && middleChild != null) {
+                nodes.push(rightChild, VISIT);
+                nodes.push(node, STORE);
+                nodes.push(middleChild, VISIT);
+            } else if (leftChild != null && rightChild != null) {
+                nodes.push(node, CALCULATE);
+                nodes.push(rightChild, VISIT);
+                nodes.push(leftChild, VISIT);
+            } else if (Type.var == node.getType()) {
+                values.push(slots[node.getSlot()]);
+            } else if (node.getNumberValue() != null) {
+                values.push(node.getNumberValue());
+            } else if (node.getBigNumberValue() != null) {
+                if (node.getBigNumberValue().bitLength() >= Long.SIZE) {
+                    overflow[0] = true;
+                    return 0;
+                }
+                values.push(node.getBigNumberValue().longValue());
+            } else {
+                errors.syntax(CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+                return 0;
+            }
+        }
+        return values.pop();
+    }
+
+    private static BigInteger evaluateBig(Node rootNode, BigInteger[] slots, ErrorReport errors) {
+        NodeStack nodes = new NodeStack();
+        List<BigInteger> values = new ArrayList<>();
+
+        nodes.push(rootNode, VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node rightChild = node.getRightChild();
+            Node middleChild = node.getMiddleChild();
+
+            if (state == STORE) {
+                slots[leftChild.getSlot()] = values.remove(values.size() - 1);
+            } else if (state == CALCULATE) {
+                BigInteger operand2 = values.remove(values.size() - 1);
+                BigInteger operand1 = values.remove(values.size() - 1);
+                if (Type.div == node.getType() && operand2.signum() == 0) {
+                    errors.divisionByZero();
+                    return null;
+                }
+                values.add(calculate(operand1, operand2, node.getType()));
+            } else if (leftChild != null && middleChild != null) {
+                nodes.push(rightChild, VISIT);
+                nodes.push(node, STORE);
+                nodes.push(middleChild, VISIT);
+            } else if (leftChild != null && rightChild != null) {
+                nodes.push(node, CALCULATE);
+                nodes.push(rightChild, VISIT);
+                nodes.push(leftChild, VISIT);
+            } else if (Type.var == node.getType()) {
+                values.add(slots[node.getSlot()]);
+            } else if (node.getNumberValue() != null) {
+                values.add(BigInteger.valueOf(node.getNumberValue()));
+            } else if (node.getBigNumberValue() != null) {
+                values.add(node.getBigNumberValue());
+            } else {
+                errors.syntax(CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+                return null;
+            }
+        }
+        return values.remove(values.size() - 1);
+    }
+
+    private static long calculate(long operand1, long operand2, Type operator) {
+        switch (operator) {
+            case add:
+                return operand1 + operand2;
+            case sub:
+                return operand1 - operand2;
+            case mul:
+                return operand1 * operand2;
+            case div:
+                return operand1 / operand2;
+            default:
+                throw new IllegalArgumentException("Illegal operators");
+        }
+    }
+
+    //The same checks as Math.addExact, subtractExact and multiplyExact, without throwing
+    private static boolean overflows(long operand1, long operand2, long result, Type operator) {
+        switch (operator) {
+            case add:
+                return ((operand1 ^ result) & (operand2 ^ result)) < 0;
+            case sub:
+                return ((operand1 ^ operand2) & (operand1 ^ result)) < 0;
+            case mul:
+                if (((Math.abs(operand1) | Math.abs(operand2)) >>> 31) == 0) {
+                    return false;
+                }
+                return (operand2 != 0 && result / operand2 != operand1) || (operand1 == Long.MIN_VALUE && operand2 == -1);
+            default:
+                return operand1 == Long.MIN_VALUE && operand2 == -1;
+        }
+    }
+
+    private static BigInteger calculate(BigInteger operand1, BigInteger operand2, Type operator) {
+        switch (operator) {
+            case add:
+                return operand1.add(operand2);
+            case sub:
+                return operand1.subtract(operand2);
+            case mul:
+                return operand1.multiply(operand2);
+            case div:
+                return operand1.divide(operand2);
+            default:
+                throw new IllegalArgumentException("Illegal operators");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+/**
+ * An expression compiled into a JVM class by the {@link BytecodeCompiler}. {@link #evaluate()} is only valid for
+ * programs without free variables.
+ */
+public interface IntExpression {
+
+    /**
+     * @return The value of the expression.
+     * @throws ArithmeticException If the expression divides by zero.
+     */
+    int evaluate();
+
+    /**
+     * @param arguments Values of the free variables of the program, in slot order. Null when it has none.
+     * @return The value of the expression.
+     * @throws ArithmeticException If the expression divides by zero.
+     */
+    int evaluate(int[] arguments);
+
+    /**
+     * Same as {@link #evaluate(int[])} but records a division by zero or an overflow in a report instead of throwing.
+     *
+     * @param arguments Values of the free variables of the program, in slot order. Null when it has none.
+     * @param errors Report without an error yet.
+     * @return The value of the expression, or 0 if an error was recorded.
+     */
+    int evaluate(int[] arguments, ErrorReport errors);
+}
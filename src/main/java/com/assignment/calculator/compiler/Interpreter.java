@@ -0,0 +1,204 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+/**
+ * Executes a {@link Program} on an int operand stack. The stack and the variable slots are allocated per execution,
+ * so a program can be executed by many threads at once.
+ */
+public class Interpreter {
+
+    private Interpreter() {}
+
+    /**
+     * @param program The program to execute.
+     * @return The value left on the stack by the program.
+     * @throws ArithmeticException If the program divides by zero, or overflows in a checked operation.
+     */
+    public static int execute(Program program) {
+        return execute(program, null);
+    }
+
+    /**
+     * Same as {@link #execute(Program)} but records a division by zero in a report instead of throwing.
+     *
+     * @param program The program to execute.
+     * @param errors Report for a division by zero or an overflow, or null to throw an {@link ArithmeticException} instead.
+     * @return The value left on the stack by the program, or 0 if an error was recorded.
+     */
+    public static int execute(Program program, ErrorReport errors) {
+        return execute(program, null, errors);
+    }
+
+    /**
+     * Same as {@link #execute(Program, ErrorReport)} for a program with free variables.
+     *
+     * @param program The program to execute.
+     * @param arguments Values of the free variables, in slot order. Null when the program has none.
+     * @param errors Report for a division by zero or an overflow, or null to throw an {@link ArithmeticException} instead.
+     * @return The value left on the stack by the program, or 0 if an error was recorded.
+     */
+    public static int execute(Program program, int[] arguments, ErrorReport errors) {
+        int[] code = program.code;
+        int[] stack = new int[program.maxStack];
+        int[] slots = new int[program.slotCount];
+        int sp = 0;
+        if (program.freeVariableCount > 0) {
+            System.arraycopy(arguments, 0, slots, 0, program.freeVariableCount);
+        }
+
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case Program.PUSH:
+                    stack[sp++] = code[++pc];
+                    break;
+                case Program.LOAD:
+                    stack[sp++] = slots[code[++pc]];
+                    break;
+                case Program.STORE:
+                    slots[code[++pc]] = stack[--sp];
+                    break;
+                case Program.ADD:
+                    sp--;
+                    stack[sp - 1] += stack[sp];
+                    break;
+                case Program.SUB:
+                    sp--;
+                    stack[sp - 1] -= stack[sp];
+                    break;
+                case Program.MUL:
+                    sp--;
+                    stack[sp - 1] *= stack[sp];
+                    break;
+                case Program.DIV:
+                    sp--;
+                    if (errors != null && stack[sp] == 0) {
+                        errors.divisionByZero();
+                        return 0;
+                    }
+                    stack[sp - 1] /= stack[sp];
+                    break;
+                case Program.ADD_EXACT:
+                case Program.SUB_EXACT:
+                case Program.MUL_EXACT:
+                case Program.DIV_EXACT:
+                    sp--;
+                    if (errors != null && code[pc] == Program.DIV_EXACT && stack[sp] == 0) {
+                        errors.divisionByZero();
+                        return 0;
+                    }
+                    long exact = exact(code[pc], stack[sp - 1], stack[sp]);
+                    if (exact != (int) exact) {
+                        if (errors == null) {
+                            throw new ArithmeticException(ErrorCode.OVERFLOW_MESSAGE);
+                        }
+                        errors.overflow();
+                        return 0;
+                    }
+                    stack[sp - 1] = (int) exact;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + code[pc]);
+            }
+        }
+        return stack[0];
+    }
+
+    //The result of a checked operation computed without overflowing, it overflows if it does not fit in an int
+    private static long exact(int opcode, int operand1, int operand2) {
+        switch (opcode) {
+            case Program.ADD_EXACT:
+                return (long) operand1 + operand2;
+            case Program.SUB_EXACT:
+                return (long) operand1 - operand2;
+            case Program.MUL_EXACT:
+                return (long) operand1 * operand2;
+            default:
+                return (long) operand1 / operand2;
+        }
+    }
+
+    /**
+     * Division failing on overflow like {@link Math#addExact(int, int)}, used by the {@link BytecodeCompiler} for
+     * {@link Program#DIV_EXACT}.
+     *
+     * @throws ArithmeticException If the divisor is zero, or for Integer.MIN_VALUE / -1.
+     */
+    public static int divideExact(int dividend, int divisor) {
+        if (dividend == Integer.MIN_VALUE && divisor == -1) {
+            throw new ArithmeticException(ErrorCode.OVERFLOW_MESSAGE);
+        }
+        return dividend / divisor;
+    }
+
+    //The reporting operations below are called by the classes of the BytecodeCompiler instead of throwing. They only
+    //record the first error, the rest of the program then runs on the 0 they return and its value is dropped by
+    //reported(int, ErrorReport). The generated code needs no branch, and a failure costs no more than a success.
+
+    /**
+     * @return dividend / divisor, or 0 if the divisor is zero, which is recorded in the report.
+     */
+    public static int divide(int dividend, int divisor, ErrorReport errors) {
+        if (divisor == 0) {
+            divisionByZero(errors);
+            return 0;
+        }
+        return dividend / divisor;
+    }
+
+    /**
+     * @return operand1 + operand2, or 0 if it overflows, which is recorded in the report.
+     */
+    public static int addExact(int operand1, int operand2, ErrorReport errors) {
+        return reportOverflow((long) operand1 + operand2, errors);
+    }
+
+    /**
+     * @return operand1 - operand2, or 0 if it overflows, which is recorded in the report.
+     */
+    public static int subtractExact(int operand1, int operand2, ErrorReport errors) {
+        return reportOverflow((long) operand1 - operand2, errors);
+    }
+
+    /**
+     * @return operand1 * operand2, or 0 if it overflows, which is recorded in the report.
+     */
+    public static int multiplyExact(int operand1, int operand2, ErrorReport errors) {
+        return reportOverflow((long) operand1 * operand2, errors);
+    }
+
+    /**
+     * @return dividend / divisor, or 0 if the divisor is zero or it overflows, which is recorded in the report.
+     */
+    public static int divideExact(int dividend, int divisor, ErrorReport errors) {
+        if (divisor == 0) {
+            divisionByZero(errors);
+            return 0;
+        }
+        return reportOverflow((long) dividend / divisor, errors);
+    }
+
+    /**
+     * @return The value left by a program run with the reporting operations, or 0 if one of them recorded an error.
+     */
+    public static int reported(int value, ErrorReport errors) {
+        return errors.hasError() ? 0 : value;
+    }
+
+    private static int reportOverflow(long exact, ErrorReport errors) {
+        if (exact != (int) exact) {
+            if (!errors.hasError()) {
+                errors.overflow();
+            }
+            return 0;
+        }
+        return (int) exact;
+    }
+
+    private static void divisionByZero(ErrorReport errors) {
+        if (!errors.hasError()) {
+            errors.divisionByZero();
+        }
+    }
+}
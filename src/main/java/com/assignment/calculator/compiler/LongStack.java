@@ -0,0 +1,52 @@
+package com.assignment.calculator.compiler;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * Unsynchronized, array backed stack of primitive longs.
+ */
+public class LongStack {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int size;
+
+    public LongStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongStack(int capacity) {
+        values = new long[Math.max(capacity, 1)];
+    }
+
+    public void push(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @return The value on top of the stack.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    public long pop() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return values[--size];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,328 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.NodeStack;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Simplifies a resolved tree before it is compiled. The result always evaluates to the same value, and fails with the
+ * same exception, as the original tree.
+ *
+ * 1. Operations on two numbers are replaced by their result, except a division by zero which is left to fail when evaluated.
+ *    When optimizing for checked arithmetic, an operation that overflows is also left to fail.
+ * 2. A variable bound to a number is replaced by the number.
+ * 3. A let binding that is no longer used is removed, unless evaluating its value could fail.
+ * 4. Identical sub-trees are replaced by one shared node, so the {@link ProgramCompiler} evaluates them only once.
+ *    Every let binding has its own slot, so identical sub-trees always have the same value.
+ *
+ * ie. let(a, 5, let(b, mul(a, 10), add(b, a))) would result in:
+ * 55
+ *
+ * Given a {@link SubExpressionMemo}, closed sub-trees with a memoized value are replaced by it without being folded,
+ * and the closed sub-trees folded to a number are memoized, see {@link StructuralHasher}.
+ */
+public class Optimizer {
+    private static final int VISIT = 0;
+    private static final int BIND = 1;
+    private static final int COMBINE = 2;
+    private static final int MEMOIZE = 3;
+
+    private final Integer[] constants;
+    private final int[] uses;
+    private final Map<NodeKey, Node> sharedNodes = new HashMap<>();
+    private final NodeStack nodes = new NodeStack();
+    private final NodeStack results = new NodeStack();
+    private final boolean checked;
+    private final SubExpressionMemo memo;
+
+    private Optimizer(int slotCount, boolean checked, SubExpressionMemo memo) {
+        constants = new Integer[slotCount];
+        uses = new int[slotCount];
+        this.checked = checked;
+        this.memo = memo;
+    }
+
+    /**
+     * The tree is walked with explicit stacks, so its depth is only limited by the heap.
+     *
+     * @param tree A fully parsed abstract syntax tree. It is resolved first if that has not been done yet.
+     * @return The same tree with its root replaced by the optimized expression.
+     * @throws CalculatorExpressionParserException If a variable is used where no let expression binds it.
+     */
+    public static AbstractSyntaxTree optimize(AbstractSyntaxTree tree) throws CalculatorExpressionParserException {
+        return optimize(tree, false);
+    }
+
+    /**
+     * @param tree A fully parsed abstract syntax tree. It is resolved first if that has not been done yet.
+     * @param checked true if the tree is compiled with checked arithmetic, so overflows must still fail.
+     * @return The same tree with its root replaced by the optimized expression.
+     * @throws CalculatorExpressionParserException If a variable is used where no let expression binds it.
+     */
+    public static AbstractSyntaxTree optimize(AbstractSyntaxTree tree, boolean checked) throws CalculatorExpressionParserException {
+        return optimize(tree, checked, null);
+    }
+
+    /**
+     * @param tree A fully parsed abstract syntax tree. It is resolved first if that has not been done yet.
+     * @param checked true if the tree is compiled with checked arithmetic, so overflows must still fail.
+     * @param memo Values of closed sub-trees shared with other expressions, the tree must have been hashed by the
+     *             {@link StructuralHasher}. Null disables memoizing.
+     * @return The same tree with its root replaced by the optimized expression.
+     * @throws CalculatorExpressionParserException If a variable is used where no let expression binds it.
+     */
+    public static AbstractSyntaxTree optimize(AbstractSyntaxTree tree, boolean checked, SubExpressionMemo memo) throws CalculatorExpressionParserException {
+        if (!tree.isResolved()) {
+            Resolver.resolve(tree);
+        }
+        Optimizer optimizer = new Optimizer(tree.getSlotCount(), checked, memo);
+        tree.setRoot(optimizer.share(optimizer.fold(tree.getRoot())));
+        return tree;
+    }
+
+    //Steps 1 to 3. Returns the node to use in place of the given one.
+    private Node fold(Node root) {
+        nodes.push(root, VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node middleChild = node.getMiddleChild();
+            Node rightChild = node.getRightChild();
+
+            if (state == MEMOIZE) {
+                Node value = results.peek();
+                if (isNumber(value)) {
+                    memo.put(node.getStructuralHash(), checked, value.getNumberValue());
+                }
+                continue;
+            }
+            if (state == VISIT && memo != null && node.getStructuralHash() != null
+                    && memo.admits(node.getStructuralHash())) {
+                Integer memoized = memo.get(node.getStructuralHash(), checked);
+                if (memoized != null) {
+                    results.push(number(memoized));
+                    continue;
+                }
+                nodes.push(node, MEMOIZE);
+            }
+
+            if (leftChild != null && middleChild != null) {
+                if (state == VISIT) {
+                    nodes.push(node, BIND);
+                    nodes.push(middleChild, VISIT);
+                } else if (state == BIND) {
+                    Node value = results.peek();
+                    if (isNumber(value)) {
+                        constants[leftChild.getSlot()] = value.getNumberValue();
+                    }
+                    nodes.push(node, COMBINE);
+                    nodes.push(rightChild, VISIT);
+                } else {
+                    Node body = results.pop();
+                    Node value = results.pop();
+                    results.push(uses[leftChild.getSlot()] == 0 && cannotFail(value) ? body : let(leftChild, value, body));
+                }
+            } else if (leftChild != null && rightChild != null) {
+                if (state == VISIT) {
+                    nodes.push(node, COMBINE);
+                    nodes.push(rightChild, VISIT);
+                    nodes.push(leftChild, VISIT);
+                } else {
+                    Node right = results.pop();
+                    Node left = results.pop();
+                    Type operator = node.getType();
+                    long exact = 0;
+                    boolean foldable = isArithmetic(operator) && isNumber(left) && isNumber(right) && !isDivisionByZero(operator, right);
+                    if (foldable) {
+                        exact = apply(operator, left.getNumberValue(), right.getNumberValue());
+                        foldable = !checked || exact == (int) exact;
+                    }
+                    if (foldable) {
+                        results.push(number((int) exact));
+                    } else {
+                        results.push(operation(operator, left, right));
+                    }
+                }
+            } else if (Type.var == node.getType() && constants[node.getSlot()] != null) {
+                results.push(number(constants[node.getSlot()]));
+            } else {
+                if (Type.var == node.getType()) {
+                    uses[node.getSlot()]++;
+                }
+                results.push(node);
+            }
+        }
+        return results.pop();
+    }
+
+    //Step 4. Returns the shared node with the same structure as the given one.
+    private Node share(Node root) {
+        nodes.push(root, VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node middleChild = node.getMiddleChild();
+            Node rightChild = node.getRightChild();
+
+            NodeKey key;
+            if (leftChild != null && (middleChild != null || rightChild != null)) {
+                if (state == VISIT) {
+                    nodes.push(node, COMBINE);
+                    nodes.push(rightChild, VISIT);
+                    nodes.push(middleChild != null ? middleChild : leftChild, VISIT);
+                    continue;
+                }
+                Node right = results.pop();
+                Node leftOrMiddle = results.pop();
+                key = middleChild != null
+                        ? new NodeKey(Type.let, leftChild.getSlot(), leftChild, leftOrMiddle, right)
+                        : new NodeKey(node.getType(), 0, leftOrMiddle, null, right);
+            } else if (Type.var == node.getType()) {
+                key = new NodeKey(Type.var, node.getSlot(), null, null, null);
+            } else if (isNumber(node)) {
+                key = new NodeKey(Type.digit, node.getNumberValue(), null, null, null);
+            } else {
+                results.push(node);
+                continue;
+            }
+
+            Node sharedNode = sharedNodes.get(key);
+            if (sharedNode == null) {
+                sharedNode = key.toNode(node);
+                sharedNodes.put(key, sharedNode);
+            }
+            results.push(sharedNode);
+        }
+        return results.pop();
+    }
+
+    //A sub-tree can be dropped if evaluating it can never throw. With checked arithmetic any operation can overflow.
+    private boolean cannotFail(Node root) {
+        NodeStack unchecked = new NodeStack();
+        unchecked.push(root);
+        while (!unchecked.isEmpty()) {
+            Node node = unchecked.pop();
+            Node leftChild = node.getLeftChild();
+            Node middleChild = node.getMiddleChild();
+            Node rightChild = node.getRightChild();
+
+            if (leftChild != null && middleChild != null) {
+                unchecked.push(middleChild);
+                unchecked.push(rightChild);
+            } else if (leftChild != null && rightChild != null) {
+                Type operator = node.getType();
+                boolean safeDivision = Type.div != operator || (isNumber(rightChild) && rightChild.getNumberValue() != 0);
+                if (!isArithmetic(operator) || !safeDivision || checked) {
+                    return false;
+                }
+                unchecked.push(leftChild);
+                unchecked.push(rightChild);
+            } else if (Type.var != node.getType() && !isNumber(node)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isArithmetic(Type type) {
+        return Type.add == type || Type.sub == type || Type.mul == type || Type.div == type;
+    }
+
+    private static boolean isNumber(Node node) {
+        return Type.digit == node.getType() && node.getLeftChild() == null && node.getNumberValue() != null;
+    }
+
+    private static boolean isDivisionByZero(Type operator, Node divisor) {
+        return Type.div == operator && divisor.getNumberValue() == 0;
+    }
+
+    //Computed exactly in a long. Its low 32 bits are the result of the same int arithmetic as the Interpreter, including overflow.
+    private static long apply(Type operator, int operand1, int operand2) {
+        switch (operator) {
+            case add:
+                return (long) operand1 + operand2;
+            case sub:
+                return (long) operand1 - operand2;
+            case mul:
+                return (long) operand1 * operand2;
+            case div:
+                return (long) operand1 / operand2;
+            default:
+                throw new IllegalArgumentException("Illegal operators");
+        }
+    }
+
+    private static Node number(int value) {
+        Node node = new Node(Type.digit);
+        node.setNumberValue(value);
+        return node;
+    }
+
+    private static Node operation(Type operator, Node left, Node right) {
+        Node node = new Node(operator);
+        node.setLeftChild(left);
+        node.setRightChild(right);
+        return node;
+    }
+
+    private static Node let(Node variable, Node value, Node body) {
+        Node node = new Node(Type.let);
+        node.setLeftChild(variable);
+        node.setMiddleChild(value);
+        node.setRightChild(body);
+        return node;
+    }
+
+    //Identifies a node by its type, value and the identity of its already shared children
+    private static class NodeKey {
+        private final Type type;
+        private final int value;
+        private final Node left;
+        private final Node middle;
+        private final Node right;
+
+        private NodeKey(Type type, int value, Node left, Node middle, Node right) {
+            this.type = type;
+            this.value = value;
+            this.left = left;
+            this.middle = middle;
+            this.right = right;
+        }
+
+        private Node toNode(Node original) {
+            if (Type.let == type) {
+                return let(left, middle, right);
+            } else if (left != null) {
+                return operation(type, left, right);
+            }
+            return original;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof NodeKey)) {
+                return false;
+            }
+            NodeKey key = (NodeKey) obj;
+            return type == key.type && value == key.value && left == key.left && middle == key.middle && right == key.right;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 17;
+            result = 31 * result + type.hashCode();
+            result = 31 * result + value;
+            result = 31 * result + System.identityHashCode(left);
+            result = 31 * result + System.identityHashCode(middle);
+            result = 31 * result + System.identityHashCode(right);
+            return result;
+        }
+    }
+}
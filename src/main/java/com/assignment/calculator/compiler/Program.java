@@ -0,0 +1,117 @@
+package com.assignment.calculator.compiler;
+
+/**
+ * A compiled expression as a flat array of instructions for a stack machine. Each instruction is an opcode, followed
+ * by one operand for {@link #PUSH}, {@link #LOAD} and {@link #STORE}.
+ *
+ * ie. let(a, 5, add(a, 1)) would result in:
+ * PUSH 5, STORE 0, LOAD 0, PUSH 1, ADD
+ *
+ * The values of the free variables of a prepared expression are placed in the first slots before the program starts.
+ *
+ * Programs are immutable and can be executed by any number of threads at once, see {@link Interpreter}.
+ */
+public class Program {
+    /** Pushes the operand onto the stack. */
+    public static final int PUSH = 0;
+    /** Pushes the value of the slot given by the operand. */
+    public static final int LOAD = 1;
+    /** Pops a value into the slot given by the operand. */
+    public static final int STORE = 2;
+    public static final int ADD = 3;
+    public static final int SUB = 4;
+    public static final int MUL = 5;
+    public static final int DIV = 6;
+    /** Same as {@link #ADD} but fails when the result overflows, like {@link Math#addExact(int, int)}. */
+    public static final int ADD_EXACT = 7;
+    public static final int SUB_EXACT = 8;
+    public static final int MUL_EXACT = 9;
+    /** Same as {@link #DIV} but fails when the result overflows, which only Integer.MIN_VALUE / -1 does. */
+    public static final int DIV_EXACT = 10;
+
+    final int[] code;
+    final int slotCount;
+    final int freeVariableCount;
+    final int maxStack;
+
+    Program(int[] code, int slotCount, int freeVariableCount, int maxStack) {
+        this.code = code;
+        this.slotCount = slotCount;
+        this.freeVariableCount = freeVariableCount;
+        this.maxStack = maxStack;
+    }
+
+    /**
+     * @return The number of ints in the instruction array.
+     */
+    public int length() {
+        return code.length;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return The number of values the program expects in its first slots, 0 unless it was prepared with free variables.
+     */
+    public int getFreeVariableCount() {
+        return freeVariableCount;
+    }
+
+    /**
+     * @return The deepest the operand stack gets while executing the program.
+     */
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    /**
+     * @return The instructions, one per line.
+     */
+    @Override
+    public String toString() {
+        StringBuilder instructions = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case PUSH:
+                    instructions.append("PUSH ").append(code[++pc]);
+                    break;
+                case LOAD:
+                    instructions.append("LOAD ").append(code[++pc]);
+                    break;
+                case STORE:
+                    instructions.append("STORE ").append(code[++pc]);
+                    break;
+                case ADD:
+                    instructions.append("ADD");
+                    break;
+                case SUB:
+                    instructions.append("SUB");
+                    break;
+                case MUL:
+                    instructions.append("MUL");
+                    break;
+                case DIV:
+                    instructions.append("DIV");
+                    break;
+                case ADD_EXACT:
+                    instructions.append("ADD_EXACT");
+                    break;
+                case SUB_EXACT:
+                    instructions.append("SUB_EXACT");
+                    break;
+                case MUL_EXACT:
+                    instructions.append("MUL_EXACT");
+                    break;
+                case DIV_EXACT:
+                    instructions.append("DIV_EXACT");
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + code[pc]);
+            }
+            instructions.append('\n');
+        }
+        return instructions.toString();
+    }
+}
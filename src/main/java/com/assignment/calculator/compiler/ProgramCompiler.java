@@ -0,0 +1,180 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.NodeStack;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Compiles a resolved abstract syntax tree into a {@link Program}. The tree is walked in the same order it is evaluated:
+ * operands left to right before their operator, and the value of a let binding before its body.
+ *
+ * A sub-tree shared by several parents (see {@link Optimizer}) is compiled once where it is first evaluated. Its value is
+ * kept in an extra slot after the slots of the let bindings, and loaded from there everywhere else.
+ *
+ * The tree is walked with an explicit stack, so its depth is only limited by the heap.
+ */
+public class ProgramCompiler {
+    private static final int VISIT = 0;
+    private static final int STORE_BINDING = 1;
+    private static final int OPERATE = 2;
+    private static final int FINISH = 3;
+
+    private final Map<Node, Integer> parentCounts = new IdentityHashMap<>();
+    private final Map<Node, Integer> sharedSlots = new IdentityHashMap<>();
+    private final NodeStack nodes = new NodeStack();
+    private int slotCount;
+    private int[] code = new int[16];
+    private int length;
+    private int stackDepth;
+    private int maxStack;
+
+    private final boolean checked;
+
+    private ProgramCompiler(int slotCount, boolean checked) {
+        this.slotCount = slotCount;
+        this.checked = checked;
+    }
+
+    /**
+     * @param tree A fully parsed abstract syntax tree. It is resolved first if that has not been done yet.
+     * @return The program evaluating the tree.
+     * @throws CalculatorExpressionParserException If the tree contains a node that cannot be evaluated.
+     */
+    public static Program compile(AbstractSyntaxTree tree) throws CalculatorExpressionParserException {
+        return compile(tree, false);
+    }
+
+    /**
+     * @param tree A fully parsed abstract syntax tree. It is resolved first if that has not been done yet.
+     * @param checked true to compile operations that fail on overflow (see {@link Program#ADD_EXACT}) instead of wrapping.
+     * @return The program evaluating the tree.
+     * @throws CalculatorExpressionParserException If the tree contains a node that cannot be evaluated.
+     */
+    public static Program compile(AbstractSyntaxTree tree, boolean checked) throws CalculatorExpressionParserException {
+        if (!tree.isResolved()) {
+            Resolver.resolve(tree);
+        }
+        ProgramCompiler compiler = new ProgramCompiler(tree.getSlotCount(), checked);
+        compiler.countParents(tree.getRoot());
+        compiler.compile(tree.getRoot());
+        return new Program(Arrays.copyOf(compiler.code, compiler.length), compiler.slotCount,
+                tree.getFreeVariableCount(), compiler.maxStack);
+    }
+
+    //Counts the parents of every operation and let node, visiting shared sub-trees once
+    private void countParents(Node root) {
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pop();
+            if (node.getLeftChild() == null) {
+                continue;
+            }
+            Integer parentCount = parentCounts.get(node);
+            parentCounts.put(node, parentCount == null ? 1 : parentCount + 1);
+            if (parentCount == null) {
+                if (node.getRightChild() != null) {
+                    nodes.push(node.getRightChild());
+                }
+                nodes.push(node.getMiddleChild() != null ? node.getMiddleChild() : node.getLeftChild());
+            }
+        }
+    }
+
+    private void compile(Node root) throws CalculatorExpressionParserException {
+        nodes.push(root, VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node middleChild = node.getMiddleChild();
+            Node rightChild = node.getRightChild();
+
+            if (state == STORE_BINDING) {
+                emit(Program.STORE, leftChild.getSlot(), -1);
+                continue;
+            } else if (state == OPERATE) {
+                emit(opcodeOf(node.getType(), checked), -1);
+                continue;
+            } else if (state == FINISH) {
+                share(node);
+                continue;
+            }
+
+            Integer sharedSlot = sharedSlots.get(node);
+            if (sharedSlot != null) {
+                emit(Program.LOAD, sharedSlot, 1);
+            } else if (leftChild != null && middleChild != null) {
+                nodes.push(node, FINISH);
+                nodes.push(rightChild, VISIT);
+                nodes.push(node, STORE_BINDING);
+                nodes.push(middleChild, VISIT);
+            } else if (leftChild != null && rightChild != null) {
+                nodes.push(node, FINISH);
+                nodes.push(node, OPERATE);
+                nodes.push(rightChild, VISIT);
+                nodes.push(leftChild, VISIT);
+            } else if (Type.var == node.getType()) {
+                emit(Program.LOAD, node.getSlot(), 1);
+            } else if (node.getNumberValue() != null) {
+                emit(Program.PUSH, node.getNumberValue(), 1);
+            } else {
+                throw new CalculatorExpressionParserException("The input did not match specifications");
+            }
+        }
+    }
+
+    //Keeps the value of a sub-tree with several parents in its own slot, so the other parents can load it
+    private void share(Node node) {
+        if (parentCounts.get(node) > 1) {
+            int sharedSlot = slotCount++;
+            sharedSlots.put(node, sharedSlot);
+            emit(Program.STORE, sharedSlot, -1);
+            emit(Program.LOAD, sharedSlot, 1);
+        }
+    }
+
+    private static int opcodeOf(Type operator, boolean checked) throws CalculatorExpressionParserException {
+        switch (operator) {
+            case add:
+                return checked ? Program.ADD_EXACT : Program.ADD;
+            case sub:
+                return checked ? Program.SUB_EXACT : Program.SUB;
+            case mul:
+                return checked ? Program.MUL_EXACT : Program.MUL;
+            case div:
+                return checked ? Program.DIV_EXACT : Program.DIV;
+            default:
+                throw new CalculatorExpressionParserException("The input did not match specifications");
+        }
+    }
+
+    private void emit(int opcode, int stackEffect) {
+        ensureCapacity(1);
+        code[length++] = opcode;
+        adjustStack(stackEffect);
+    }
+
+    private void emit(int opcode, int operand, int stackEffect) {
+        ensureCapacity(2);
+        code[length++] = opcode;
+        code[length++] = operand;
+        adjustStack(stackEffect);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+    }
+
+    private void adjustStack(int stackEffect) {
+        stackDepth += stackEffect;
+        maxStack = Math.max(maxStack, stackDepth);
+    }
+}
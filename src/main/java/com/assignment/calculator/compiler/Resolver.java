@@ -0,0 +1,225 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.NodeArena;
+import com.assignment.calculator.parser.NodeStack;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the variables of a parsed tree to numeric slots so they can be evaluated without looking up names.
+ *
+ * Every let binding gets its own slot, numbered in the order the bindings appear. Every variable reference is given
+ * the slot of the innermost let binding with the same name that encloses it. A binding is only visible inside the
+ * body (right child) of its let expression.
+ *
+ * ie. let(a, 5, let(b, mul(a, 10), add(b, a))) would result in:
+ * let(a#0, 5, let(b#1, mul(a#0, 10), add(b#1, a#0)))
+ *
+ * Free variables, whose values are given when the expression is evaluated, take the first slots in the order they are
+ * declared and are visible everywhere a let binding does not shadow them.
+ *
+ * ie. add(mul(x, 3), let(x, 1, x)) with the free variable x would result in:
+ * add(mul(x#0, 3), let(x#1, 1, x#1))
+ *
+ * The variable nodes of a flat tree (see {@link AbstractSyntaxTree#isFlat()}) are given their slot as their value.
+ */
+public class Resolver {
+    private static final int VISIT = 0;
+    private static final int BIND = 1;
+    private static final int UNBIND = 2;
+    private static final String[] NO_FREE_VARIABLES = {};
+
+    private Resolver() {}
+
+    /**
+     * Sets the slot of every variable node and the slot count of the tree. The tree is walked with an explicit stack,
+     * so its depth is only limited by the heap.
+     *
+     * @param tree A fully parsed abstract syntax tree.
+     * @throws CalculatorExpressionParserException If a variable is used where no let expression binds it, or a let
+     * expression does not bind a variable.
+     */
+    public static void resolve(AbstractSyntaxTree tree) throws CalculatorExpressionParserException {
+        ErrorReport errors = new ErrorReport();
+        if (!resolve(tree, errors)) {
+            throw errors.toParserException();
+        }
+    }
+
+    /**
+     * Same as {@link #resolve(AbstractSyntaxTree)} but records an error in a report instead of throwing.
+     *
+     * @param tree A fully parsed abstract syntax tree.
+     * @param errors Report without an error, the first error found is recorded in it.
+     * @return false if the tree could not be resolved.
+     */
+    public static boolean resolve(AbstractSyntaxTree tree, ErrorReport errors) {
+        return resolve(tree, NO_FREE_VARIABLES, errors);
+    }
+
+    /**
+     * Same as {@link #resolve(AbstractSyntaxTree)} but lets the expression use the given free variables.
+     *
+     * @param tree A fully parsed abstract syntax tree.
+     * @param freeVariables Names of the variables bound outside of the expression, slot i is given to freeVariables[i].
+     * @throws CalculatorExpressionParserException If a variable is used where neither a let expression nor the free
+     * variables bind it.
+     * @throws IllegalArgumentException If a free variable is declared twice.
+     */
+    public static void resolve(AbstractSyntaxTree tree, String[] freeVariables) throws CalculatorExpressionParserException {
+        ErrorReport errors = new ErrorReport();
+        if (!resolve(tree, freeVariables, errors)) {
+            throw errors.toParserException();
+        }
+    }
+
+    /**
+     * Same as {@link #resolve(AbstractSyntaxTree, String[])} but records an error in a report instead of throwing.
+     *
+     * @return false if the tree could not be resolved.
+     */
+    public static boolean resolve(AbstractSyntaxTree tree, String[] freeVariables, ErrorReport errors) {
+        if (tree.isFlat()) {
+            return resolveFlat(tree, freeVariables, errors);
+        }
+        Map<String, Integer> scope = new HashMap<>();
+        IntStack shadowedSlots = new IntStack();
+        NodeStack nodes = new NodeStack();
+        for (int slot = 0; slot < freeVariables.length; slot++) {
+            if (scope.put(freeVariables[slot], slot) != null) {
+                throw new IllegalArgumentException("Free variable declared twice: " + freeVariables[slot]);
+            }
+        }
+        int nextSlot = freeVariables.length;
+
+        nodes.push(tree.getRoot(), VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node middleChild = node.getMiddleChild();
+            Node rightChild = node.getRightChild();
+
+            if (leftChild != null && middleChild != null) {
+                String variableName = leftChild.getVariableName();
+                if (state == VISIT) {
+                    if (Type.var != leftChild.getType() || rightChild == null) {
+                        errors.syntax(CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+                        return false;
+                    }
+                    nodes.push(node, BIND);
+                    nodes.push(middleChild, VISIT);
+                } else if (state == BIND) {
+                    int slot = nextSlot++;
+                    leftChild.setSlot(slot);
+                    Integer shadowedSlot = scope.put(variableName, slot);
+                    shadowedSlots.push(shadowedSlot == null ? -1 : shadowedSlot);
+                    nodes.push(node, UNBIND);
+                    nodes.push(rightChild, VISIT);
+                } else {
+                    int shadowedSlot = shadowedSlots.pop();
+                    if (shadowedSlot < 0) {
+                        scope.remove(variableName);
+                    } else {
+                        scope.put(variableName, shadowedSlot);
+                    }
+                }
+            } else if (leftChild != null && rightChild != null) {
+                nodes.push(rightChild, VISIT);
+                nodes.push(leftChild, VISIT);
+            } else if (Type.var == node.getType()) {
+                Integer slot = scope.get(node.getVariableName());
+                if (slot == null) {
+                    errors.undefinedVariable(node.getVariableName());
+                    return false;
+                }
+                node.setSlot(slot);
+            }
+        }
+        tree.setFreeVariableCount(freeVariables.length);
+        tree.setSlotCount(nextSlot);
+        return true;
+    }
+
+    //The same steps as for a tree of nodes, the nodes still to visit are kept as pairs of node index and state
+    private static boolean resolveFlat(AbstractSyntaxTree tree, String[] freeVariables, ErrorReport errors) {
+        NodeArena arena = tree.getArena();
+        Map<String, Integer> scope = new HashMap<>();
+        List<String> slotNames = new ArrayList<>(Arrays.asList(freeVariables));
+        IntStack shadowedSlots = new IntStack();
+        IntStack nodes = new IntStack();
+        for (int slot = 0; slot < freeVariables.length; slot++) {
+            if (scope.put(freeVariables[slot], slot) != null) {
+                throw new IllegalArgumentException("Free variable declared twice: " + freeVariables[slot]);
+            }
+        }
+
+        nodes.push(tree.getRootIndex());
+        nodes.push(VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.pop();
+            int node = nodes.pop();
+            int leftChild = arena.getLeft(node);
+            int middleChild = arena.getMiddle(node);
+            int rightChild = arena.getRight(node);
+
+            if (leftChild != NodeArena.NONE && middleChild != NodeArena.NONE) {
+                if (state == VISIT) {
+                    if (Type.var != arena.getType(leftChild) || rightChild == NodeArena.NONE) {
+                        errors.syntax(CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+                        return false;
+                    }
+                    nodes.push(node);
+                    nodes.push(BIND);
+                    nodes.push(middleChild);
+                    nodes.push(VISIT);
+                } else if (state == BIND) {
+                    String variableName = tree.getVariableName(leftChild);
+                    int slot = slotNames.size();
+                    slotNames.add(variableName);
+                    arena.setValue(leftChild, slot);
+                    Integer shadowedSlot = scope.put(variableName, slot);
+                    shadowedSlots.push(shadowedSlot == null ? -1 : shadowedSlot);
+                    nodes.push(node);
+                    nodes.push(UNBIND);
+                    nodes.push(rightChild);
+                    nodes.push(VISIT);
+                } else {
+                    String variableName = slotNames.get(arena.getValue(leftChild));
+                    int shadowedSlot = shadowedSlots.pop();
+                    if (shadowedSlot < 0) {
+                        scope.remove(variableName);
+                    } else {
+                        scope.put(variableName, shadowedSlot);
+                    }
+                }
+            } else if (leftChild != NodeArena.NONE && rightChild != NodeArena.NONE) {
+                nodes.push(rightChild);
+                nodes.push(VISIT);
+                nodes.push(leftChild);
+                nodes.push(VISIT);
+            } else if (Type.var == arena.getType(node)) {
+                String variableName = tree.getVariableName(node);
+                Integer slot = scope.get(variableName);
+                if (slot == null) {
+                    errors.undefinedVariable(variableName);
+                    return false;
+                }
+                arena.setValue(node, slot);
+            }
+        }
+        tree.setFreeVariableCount(freeVariables.length);
+        tree.setSlotNames(slotNames.toArray(new String[0]));
+        tree.setSlotCount(slotNames.size());
+        return true;
+    }
+}
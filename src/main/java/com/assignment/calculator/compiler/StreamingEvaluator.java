@@ -0,0 +1,110 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.ExpressionListener;
+import com.assignment.calculator.parser.StreamingParser;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates an expression while it is being parsed by the {@link StreamingParser}. Every sub-expression is calculated
+ * as soon as it is closed and only its value is kept, so an evaluation holds one value per open operator and one
+ * binding per open let expression, whatever the size of the expression.
+ *
+ * Variables are looked up by name when they are read, as there is no tree to resolve them in beforehand.
+ */
+public class StreamingEvaluator implements ExpressionListener {
+    private final boolean checked;
+    private final ErrorReport errors;
+    private final IntStack values = new IntStack();
+    private final Map<String, Integer> scope = new HashMap<>();
+    //The value each bound variable had before its let expression, null if it had none
+    private final List<Integer> shadowedValues = new ArrayList<>();
+
+    /**
+     * @param checked true to record an overflow instead of wrapping around.
+     * @param errors Report an undefined variable, a division by zero or an overflow is recorded in.
+     */
+    public StreamingEvaluator(boolean checked, ErrorReport errors) {
+        this.checked = checked;
+        this.errors = errors;
+    }
+
+    /**
+     * @return The value of the expression once it has been parsed without an error.
+     */
+    public int getResult() {
+        return values.pop();
+    }
+
+    @Override
+    public boolean number(int value) {
+        values.push(value);
+        return true;
+    }
+
+    @Override
+    public boolean variable(String variableName) {
+        Integer value = scope.get(variableName);
+        if (value == null) {
+            errors.undefinedVariable(variableName);
+            return false;
+        }
+        values.push(value);
+        return true;
+    }
+
+    @Override
+    public boolean bind(String variableName) {
+        shadowedValues.add(scope.put(variableName, values.pop()));
+        return true;
+    }
+
+    @Override
+    public boolean unbind(String variableName) {
+        Integer shadowedValue = shadowedValues.remove(shadowedValues.size() - 1);
+        if (shadowedValue == null) {
+            scope.remove(variableName);
+        } else {
+            scope.put(variableName, shadowedValue);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean operator(Type type) {
+        int operand2 = values.pop();
+        int operand1 = values.pop();
+        long result;
+        switch (type) {
+            case add:
+                result = (long) operand1 + operand2;
+                break;
+            case sub:
+                result = (long) operand1 - operand2;
+                break;
+            case mul:
+                result = (long) operand1 * operand2;
+                break;
+            case div:
+                if (operand2 == 0) {
+                    errors.divisionByZero();
+                    return false;
+                }
+                result = (long) operand1 / operand2;
+                break;
+            default:
+                throw new IllegalArgumentException("Illegal operators");
+        }
+        if (checked && result != (int) result) {
+            errors.overflow();
+            return false;
+        }
+        values.push((int) result);
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.NodeStack;
+import com.assignment.calculator.parser.StructuralHash;
+import com.assignment.calculator.parser.Type;
+
+import java.util.Arrays;
+
+/**
+ * Hashes the closed sub-trees of a resolved tree, so their values can be memoized across expressions, see
+ * {@link SubExpressionMemo}.
+ *
+ * A sub-tree is closed if every variable it uses is bound by a let expression within it. Its value then only depends
+ * on its structure, and is the same as the value of any other closed sub-tree with the same structure. Variables are
+ * hashed by the number of let bindings between them and their binding instead of by name.
+ *
+ * ie. let(a, 5, add(a, a)) and let(b, 5, add(b, b)) have the same hash, add(a, a) has none as a is bound outside of it.
+ *
+ * Every closed sub-tree other than a single number is given its hash, see {@link Node#getStructuralHash()}. The hash
+ * does not depend on how the tree is calculated, so a tree is only hashed once and can then be evaluated by any
+ * number of threads in any numeric mode without being written to.
+ */
+public class StructuralHasher {
+    private static final int VISIT = 0;
+    private static final int BIND = 1;
+    private static final int COMBINE = 2;
+    //Binding depth of a free variable, or of a sub-tree that cannot be evaluated
+    private static final int UNBOUND = -1;
+    //Outermost binding depth of a sub-tree without variables
+    private static final int NO_VARIABLE = Integer.MAX_VALUE;
+    private static final long HIGH_SEED = 0x9E3779B97F4A7C15L;
+    private static final long LOW_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    //Number of let bindings enclosing the binding of every slot
+    private final int[] bindingDepths;
+    private int depth;
+
+    private final NodeStack nodes = new NodeStack();
+    private final LongStack highs = new LongStack();
+    private final LongStack lows = new LongStack();
+    private final IntStack costs = new IntStack();
+    //The smallest binding depth of the variables used by every sub-tree
+    private final IntStack outermostBindings = new IntStack();
+
+    private StructuralHasher(int slotCount) {
+        this.bindingDepths = new int[slotCount];
+        Arrays.fill(bindingDepths, UNBOUND);
+    }
+
+    /**
+     * Sets the structural hash of every node, null for the leaves and the sub-trees that are not closed. A tree that
+     * is already hashed is left as it is. The tree is walked with explicit stacks, so its depth is only limited by the
+     * heap.
+     *
+     * @param tree A resolved tree of nodes.
+     */
+    public static void hash(AbstractSyntaxTree tree) {
+        if (tree.isHashed()) {
+            return;
+        }
+        new StructuralHasher(tree.getSlotCount()).hash(tree.getRoot());
+        tree.setHashed(true);
+    }
+
+    private void hash(Node root) {
+        nodes.push(root, VISIT);
+        while (!nodes.isEmpty()) {
+            int state = nodes.peekState();
+            Node node = nodes.pop();
+            Node leftChild = node.getLeftChild();
+            Node middleChild = node.getMiddleChild();
+            Node rightChild = node.getRightChild();
+
+            if (leftChild != null && middleChild != null) {
+                if (state == VISIT) {
+                    nodes.push(node, BIND);
+                    nodes.push(middleChild, VISIT);
+                } else if (state == BIND) {
+                    bindingDepths[leftChild.getSlot()] = depth++;
+                    nodes.push(node, COMBINE);
+                    nodes.push(rightChild, VISIT);
+                } else {
+                    depth--;
+                    combine(node, Type.let);
+                }
+            } else if (leftChild != null && rightChild != null) {
+                if (state == VISIT) {
+                    nodes.push(node, COMBINE);
+                    nodes.push(rightChild, VISIT);
+                    nodes.push(leftChild, VISIT);
+                } else {
+                    combine(node, node.getType());
+                }
+            } else if (Type.var == node.getType()) {
+                int bindingDepth = bindingDepths[node.getSlot()];
+                leaf(node, Type.var, bindingDepth == UNBOUND ? UNBOUND : depth - 1 - bindingDepth, bindingDepth);
+            } else if (node.getNumberValue() != null) {
+                leaf(node, Type.digit, node.getNumberValue(), NO_VARIABLE);
+            } else {
+                leaf(node, node.getType(), 0, UNBOUND);
+            }
+        }
+    }
+
+    private void leaf(Node node, Type type, int value, int outermostBinding) {
+        node.setStructuralHash(null);
+        long tag = tag(type, value);
+        highs.push(mix(HIGH_SEED + tag));
+        lows.push(mix(LOW_SEED ^ tag));
+        costs.push(1);
+        outermostBindings.push(outermostBinding);
+    }
+
+    //Hashes a node from the hashes of its two evaluated children, a let expression is hashed from its value and body
+    private void combine(Node node, Type type) {
+        long tag = tag(type, 0);
+        long rightHigh = highs.pop();
+        long leftHigh = highs.pop();
+        long rightLow = lows.pop();
+        long leftLow = lows.pop();
+        long high = mix(mix(mix(HIGH_SEED + tag) + leftHigh) + rightHigh);
+        long low = mix(mix(mix(LOW_SEED ^ tag) ^ Long.rotateLeft(leftLow, 21)) ^ Long.rotateLeft(rightLow, 43));
+        int cost = 1 + costs.pop() + costs.pop();
+        int outermostBinding = Math.min(outermostBindings.pop(), outermostBindings.pop());
+
+        //Closed if none of its variables is bound outside of it, the current depth being the one of its own binding
+        boolean closed = outermostBinding >= depth;
+        node.setStructuralHash(closed ? new StructuralHash(high, low, cost) : null);
+        highs.push(high);
+        lows.push(low);
+        costs.push(cost);
+        outermostBindings.push(outermostBinding);
+    }
+
+    private static long tag(Type type, int value) {
+        return ((long) type.ordinal() << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    //The 64 bit finalizer of MurmurHash3, every bit of the input affects every bit of the output
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
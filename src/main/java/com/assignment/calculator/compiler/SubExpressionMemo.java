@@ -0,0 +1,140 @@
+package com.assignment.calculator.compiler;
+
+import com.assignment.calculator.parser.StructuralHash;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe, size bounded table of the values of closed sub-expressions, keyed by their {@link StructuralHash}. It
+ * lets different expressions sharing a large closed sub-expression, ie. the same let(a, let(b, 10, add(b, b)), ...)
+ * prefix, evaluate it only once.
+ *
+ * Only sub-trees of at least the minimum cost, their number of nodes, are admitted: smaller ones are cheaper to
+ * evaluate again than to hash and look up. A value is kept in the slot its hash maps to, replacing whatever value was
+ * there, so the table never grows and is read and written without locks. Only values that were calculated without an
+ * error are stored.
+ *
+ * The values of checked and wrapping calculations are kept apart, as a wrapped value is an overflow in checked mode.
+ * A memo can then be shared by calculations in any numeric mode.
+ */
+public class SubExpressionMemo {
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final int minCost;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder replacements = new LongAdder();
+
+    /**
+     * @param capacity Maximum number of values to keep, rounded up to a power of two.
+     * @param minCost Number of nodes from which a closed sub-tree is memoized.
+     */
+    public SubExpressionMemo(int capacity, int minCost) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The memo must hold between 1 and 2^30 values");
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size < capacity ? size << 1 : size;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.minCost = minCost;
+    }
+
+    /**
+     * @param hash Structural hash of a closed sub-tree.
+     * @return true if the sub-tree is large enough to be memoized.
+     */
+    public boolean admits(StructuralHash hash) {
+        return hash.getCost() >= minCost;
+    }
+
+    /**
+     * @param hash Structural hash of a closed sub-tree.
+     * @param checked true if the sub-tree is calculated with checked arithmetic.
+     * @return The value of the sub-tree, or null if it is not memoized.
+     */
+    public Integer get(StructuralHash hash, boolean checked) {
+        Entry entry = entries.get(index(hash, checked));
+        if (entry != null && entry.checked == checked && entry.hash.equals(hash)) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * @param hash Structural hash of a closed sub-tree.
+     * @param checked true if the sub-tree was calculated with checked arithmetic.
+     * @param value The value the sub-tree was calculated to.
+     */
+    public void put(StructuralHash hash, boolean checked, int value) {
+        Entry previous = entries.getAndSet(index(hash, checked), new Entry(hash, checked, value));
+        stores.increment();
+        if (previous != null && (previous.checked != checked || !previous.hash.equals(hash))) {
+            replacements.increment();
+        }
+    }
+
+    public int getMinCost() {
+        return minCost;
+    }
+
+    public int capacity() {
+        return entries.length();
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Hits divided by lookups, or 0 before the first lookup.
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long lookups = hitCount + getMisses();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return Number of values that replaced the value of another sub-tree.
+     */
+    public long getReplacements() {
+        return replacements.sum();
+    }
+
+    //Each mode indexes by its own half of the hash, so a sub-tree calculated in both modes takes two different slots
+    private int index(StructuralHash hash, boolean checked) {
+        return (int) (checked ? hash.getLow() : hash.getHigh()) & mask;
+    }
+
+    private static class Entry {
+        private final StructuralHash hash;
+        private final boolean checked;
+        private final int value;
+
+        private Entry(StructuralHash hash, boolean checked, int value) {
+            this.hash = hash;
+            this.checked = checked;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.assignment.calculator.metrics;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.TokenStream;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of {@link com.assignment.calculator.Calculate#performCalculation(String)}, from the lookup
+ * in the expression cache to the result. The size of the expression is only known when it was not cached, cached
+ * expressions report 0 tokens and nodes. Only calculations taking longer than the threshold are recorded, see
+ * {@link LexEvent}.
+ *
+ * Events are only created while a recording is running, which is checked first with {@link EventRecording}. They need
+ * a JVM with the flight recorder API: Java 11 and later, or OpenJDK 8u262 and later. Without it nothing is recorded.
+ */
+@Name("com.assignment.calculator.Calculation")
+@Label("Calculation")
+@Category(CalculationEvent.CATEGORY)
+@Description("Calculating an expression, from the cache lookup to the result")
+@Threshold("1 ms")
+@StackTrace(false)
+public class CalculationEvent extends jdk.jfr.Event {
+    static final String CATEGORY = "Calculator";
+    private static final String SUCCESS = "OK";
+
+    @Label("Expression Length")
+    int expressionLength;
+
+    @Label("Cached")
+    @Description("The expression was run from the expression cache without being compiled")
+    boolean cached;
+
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Node Count")
+    int nodeCount;
+
+    @Label("Tree Depth")
+    int treeDepth;
+
+    @Label("Outcome")
+    @Description("OK, or the reason the expression failed")
+    String outcome;
+
+    public void cacheHit() {
+        cached = true;
+    }
+
+    /**
+     * Records the size of the expression if the event is recorded.
+     */
+    public void parsed(TokenStream tokens, AbstractSyntaxTree tree) {
+        if (isEnabled()) {
+            tokenCount = tokens.size();
+            nodeCount = tree.getNodeCount();
+            treeDepth = tree.getDepth();
+        }
+    }
+
+    /**
+     * Ends the event and commits it if it is recorded, filling in the fields only then.
+     *
+     * @param error Reason the expression failed, or null if it was calculated.
+     */
+    public void finish(String inputExpression, ErrorCode error) {
+        end();
+        if (shouldCommit()) {
+            this.expressionLength = inputExpression == null ? 0 : inputExpression.length();
+            this.outcome = outcomeOf(error);
+            commit();
+        }
+    }
+
+    static String outcomeOf(ErrorCode error) {
+        return error == null ? SUCCESS : error.name();
+    }
+}
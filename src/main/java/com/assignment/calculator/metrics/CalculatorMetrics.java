@@ -0,0 +1,195 @@
+package com.assignment.calculator.metrics;
+
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent in every {@link Stage} of the calculations and counts of what was calculated: tokens, nodes, let depth,
+ * errors by reason and expression cache hits. Pass an instance to {@link com.assignment.calculator.Calculate} to
+ * record into it; without one nothing is measured and the calculations take no extra steps.
+ *
+ * Every value is recorded into {@link LongAdder}s, so an instance can be shared by all the threads calculating
+ * without them contending. The metrics can be read through the getters, over JMX once {@link #register(String)
+ * registered}, or pushed to a {@link MetricsReporter}.
+ */
+public class CalculatorMetrics implements CalculatorMetricsMXBean {
+    private static final String OBJECT_NAME = "com.assignment.calculator:type=CalculatorMetrics,name=";
+    private static final Stage[] STAGES = Stage.values();
+    private static final ErrorCode[] ERROR_CODES = ErrorCode.values();
+
+    private final Histogram[] stages = new Histogram[STAGES.length];
+    private final LongAdder[] errors = new LongAdder[ERROR_CODES.length];
+    private final Histogram letDepths = new Histogram();
+    private final LongAdder expressions = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAccumulator maxLetDepth = new LongAccumulator(Math::max, 0);
+
+    public CalculatorMetrics() {
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new Histogram();
+        }
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param stage Stage that has run.
+     * @param nanos Time it took, as measured with {@link System#nanoTime()}.
+     */
+    public void recordStage(Stage stage, long nanos) {
+        stages[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records an expression that has been calculated, or has failed.
+     */
+    public void recordExpression() {
+        expressions.increment();
+    }
+
+    /**
+     * Records the size of a parsed expression.
+     */
+    public void recordTree(int tokenCount, int nodeCount, int letDepth) {
+        tokens.add(tokenCount);
+        nodes.add(nodeCount);
+        letDepths.record(letDepth);
+        maxLetDepth.accumulate(letDepth);
+    }
+
+    public void recordError(ErrorCode code) {
+        errors[code.ordinal()].increment();
+    }
+
+    public void recordCacheLookup(boolean hit) {
+        if (hit) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+    }
+
+    public Histogram getStage(Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    /**
+     * @return Distribution of the let depths of the parsed expressions.
+     */
+    public Histogram getLetDepths() {
+        return letDepths;
+    }
+
+    public long getErrorCount(ErrorCode code) {
+        return errors[code.ordinal()].sum();
+    }
+
+    @Override
+    public long getExpressionCount() {
+        return expressions.sum();
+    }
+
+    @Override
+    public long getTokenCount() {
+        return tokens.sum();
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getMaxLetDepth() {
+        return maxLetDepth.get();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        for (ErrorCode code : ERROR_CODES) {
+            errorCounts.put(code.name(), getErrorCount(code));
+        }
+        return errorCounts;
+    }
+
+    @Override
+    public Map<String, Long> getStageLatencies() {
+        Map<String, Long> latencies = new LinkedHashMap<>();
+        for (Stage stage : STAGES) {
+            Histogram histogram = getStage(stage);
+            String name = stage.name().toLowerCase(Locale.ROOT);
+            latencies.put(name + ".count", histogram.getCount());
+            latencies.put(name + ".meanNanos", Math.round(histogram.getMean()));
+            latencies.put(name + ".p50Nanos", histogram.getValueAtPercentile(50));
+            latencies.put(name + ".p99Nanos", histogram.getValueAtPercentile(99));
+            latencies.put(name + ".maxNanos", histogram.getMax());
+        }
+        return latencies;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.
+     *
+     * @param name Name telling the calculators of the JVM apart, ie. "server".
+     * @return The name the metrics are registered under.
+     * @throws JMException If the name is invalid or already registered.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(OBJECT_NAME + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Reports the metrics at a fixed rate from a daemon thread, until the returned handle is closed.
+     *
+     * @param reporter Reporter receiving the metrics.
+     * @param period Time between two reports.
+     * @param unit Unit of the period.
+     * @return Handle stopping the reports when closed.
+     */
+    public Closeable startReporting(MetricsReporter reporter, long period, TimeUnit unit) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calculator-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> reporter.report(this), period, period, unit);
+        return scheduler::shutdown;
+    }
+
+    @Override
+    public String toString() {
+        return "CalculatorMetrics{expressions=" + getExpressionCount() + ", tokens=" + getTokenCount()
+                + ", nodes=" + getNodeCount() + ", maxLetDepth=" + getMaxLetDepth()
+                + ", cacheHits=" + getCacheHitCount() + ", cacheMisses=" + getCacheMissCount()
+                + ", errors=" + getErrorCounts() + ", latencies=" + getStageLatencies() + '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.assignment.calculator.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link CalculatorMetrics}, see {@link CalculatorMetrics#register(String)}.
+ */
+public interface CalculatorMetricsMXBean {
+    long getExpressionCount();
+
+    long getTokenCount();
+
+    long getNodeCount();
+
+    long getMaxLetDepth();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    /**
+     * @return Number of failed expressions by {@link com.assignment.calculator.parser.exceptions.ErrorCode} name.
+     */
+    Map<String, Long> getErrorCounts();
+
+    /**
+     * @return Count, mean, p50, p99 and max of every {@link Stage}, ie. "lex.p99Nanos".
+     */
+    Map<String, Long> getStageLatencies();
+}
@@ -0,0 +1,44 @@
+package com.assignment.calculator.metrics;
+
+import jdk.jfr.EventType;
+
+/**
+ * Tells whether the flight recorder events of the calculator are recorded, before any of them is created. It is safe
+ * to call on a JVM without the flight recorder API, such as Java 8 before 8u262 or a runtime linked without the
+ * jdk.jfr module: the events are then never recorded, and never created.
+ *
+ * The checks read the state of the cached event types, they create no event.
+ */
+public final class EventRecording {
+    private static final boolean AVAILABLE = isAvailable();
+
+    private EventRecording() {}
+
+    public static boolean isLexRecorded() {
+        return AVAILABLE && Types.LEX.isEnabled();
+    }
+
+    public static boolean isParseRecorded() {
+        return AVAILABLE && Types.PARSE.isEnabled();
+    }
+
+    public static boolean isCalculationRecorded() {
+        return AVAILABLE && Types.CALCULATION.isEnabled();
+    }
+
+    //Loads the event types, failing if the JVM has no flight recorder or it is disabled
+    private static boolean isAvailable() {
+        try {
+            return Types.LEX != null && Types.PARSE != null && Types.CALCULATION != null;
+        } catch (LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+
+    //Only initialized once the flight recorder API is known to be there, the first time it is checked for
+    private static final class Types {
+        private static final EventType LEX = EventType.getEventType(LexEvent.class);
+        private static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+        private static final EventType CALCULATION = EventType.getEventType(CalculationEvent.class);
+    }
+}
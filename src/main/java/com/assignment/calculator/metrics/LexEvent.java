@@ -0,0 +1,46 @@
+package com.assignment.calculator.metrics;
+
+import com.assignment.calculator.parser.TokenStream;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of {@link com.assignment.calculator.parser.Lexer} scanning an expression into tokens. Only
+ * scans taking longer than the threshold are recorded, it can be changed in the recording settings,
+ * ie. com.assignment.calculator.Lex#threshold=0 ms to record every scan.
+ */
+@Name("com.assignment.calculator.Lex")
+@Label("Lex Expression")
+@Category(CalculationEvent.CATEGORY)
+@Description("Scanning an expression into tokens")
+@Threshold("1 ms")
+@StackTrace(false)
+public class LexEvent extends jdk.jfr.Event {
+    @Label("Expression Length")
+    int expressionLength;
+
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Outcome")
+    @Description("OK, or the reason the expression failed")
+    String outcome;
+
+    /**
+     * Ends the event and commits it if it is recorded, filling in the fields only then.
+     */
+    public void finish(CharSequence inputExpression, TokenStream tokens, ErrorReport errors) {
+        end();
+        if (shouldCommit()) {
+            expressionLength = inputExpression == null ? 0 : inputExpression.length();
+            tokenCount = tokens == null ? 0 : tokens.size();
+            outcome = CalculationEvent.outcomeOf(errors.getCode());
+            commit();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.assignment.calculator.metrics;
+
+/**
+ * Receives the metrics of a calculator periodically, see {@link CalculatorMetrics#startReporting(MetricsReporter, long, java.util.concurrent.TimeUnit)}.
+ * ie. to print them: metrics.startReporting(System.err::println, 1, TimeUnit.MINUTES)
+ */
+@FunctionalInterface
+public interface MetricsReporter {
+    /**
+     * Called from the reporting thread, the metrics keep changing while they are read.
+     */
+    void report(CalculatorMetrics metrics);
+}
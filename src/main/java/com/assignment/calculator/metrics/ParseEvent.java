@@ -0,0 +1,56 @@
+package com.assignment.calculator.metrics;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.TokenStream;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event of {@link com.assignment.calculator.parser.Parser} building the tree of an expression. Only
+ * parses taking longer than the threshold are recorded, see {@link LexEvent}.
+ */
+@Name("com.assignment.calculator.Parse")
+@Label("Parse Expression")
+@Category(CalculationEvent.CATEGORY)
+@Description("Building the tree of an expression from its tokens")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ParseEvent extends jdk.jfr.Event {
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Node Count")
+    int nodeCount;
+
+    @Label("Tree Depth")
+    int treeDepth;
+
+    @Label("Let Depth")
+    int letDepth;
+
+    @Label("Outcome")
+    @Description("OK, or the reason the expression failed")
+    String outcome;
+
+    /**
+     * Ends the event and commits it if it is recorded, filling in the fields only then.
+     */
+    public void finish(TokenStream tokens, AbstractSyntaxTree tree, ErrorReport errors) {
+        end();
+        if (shouldCommit()) {
+            tokenCount = tokens.size();
+            if (tree != null) {
+                nodeCount = tree.getNodeCount();
+                treeDepth = tree.getDepth();
+                letDepth = tree.getLetDepth();
+            }
+            outcome = CalculationEvent.outcomeOf(errors.getCode());
+            commit();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.assignment.calculator.metrics;
+
+/**
+ * Stages of a calculation that are timed by {@link CalculatorMetrics}.
+ */
+public enum Stage {
+    /** Scanning the input into tokens. */
+    LEX,
+    /** Building the tree from the tokens. */
+    PARSE,
+    /** Resolving, optimizing and compiling the tree into a program, skipped when the program is cached. */
+    COMPILE,
+    /** Running the program, or walking the tree when it is not compiled. */
+    EVALUATE
+}
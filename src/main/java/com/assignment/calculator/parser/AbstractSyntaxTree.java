@@ -2,14 +2,38 @@ package com.assignment.calculator.parser;
 
 /**
  * Tree implementation with one root node.
+ *
+ * A tree parsed into a {@link NodeArena} is flat: its nodes are indexes into the arena instead of {@link Node} objects,
+ * see {@link #isFlat()}. Asking a flat tree for its {@link #getRoot() root} converts it into nodes.
  */
 public class AbstractSyntaxTree {
     private Node root;
+    private NodeArena arena;
+    private int rootIndex = NodeArena.NONE;
+    private TokenStream tokens;
+    private String[] slotNames;
+    private int slotCount = -1;
+    private int freeVariableCount;
+    private int nodeCount;
+    private int letDepth;
+    private int depth;
+    private volatile boolean hashed;
 
     public AbstractSyntaxTree(Type type) {
         root = new Node(type);
     }
 
+    /**
+     * @param arena The arena holding the nodes of the tree.
+     * @param rootIndex Index of the root node in the arena.
+     * @param tokens The tokens the tree was parsed from, the unresolved variable nodes refer to them by index.
+     */
+    public AbstractSyntaxTree(NodeArena arena, int rootIndex, TokenStream tokens) {
+        this.arena = arena;
+        this.rootIndex = rootIndex;
+        this.tokens = tokens;
+    }
+
     /**
      *
      * @param currentNode Node to append new node to
@@ -29,7 +53,155 @@ public class AbstractSyntaxTree {
         return newNode;
     }
 
+    /**
+     * @return The root node. A flat tree is converted into nodes first, and no longer uses its arena afterwards.
+     */
     public Node getRoot() {
+        if (arena != null) {
+            root = toNodes();
+            arena = null;
+            rootIndex = NodeArena.NONE;
+        }
         return root;
     }
+
+    public void setRoot(Node root) {
+        this.root = root;
+        this.arena = null;
+        this.rootIndex = NodeArena.NONE;
+        this.hashed = false;
+    }
+
+    /**
+     * @return true if the nodes of the tree are held by a {@link NodeArena}.
+     */
+    public boolean isFlat() {
+        return arena != null;
+    }
+
+    /**
+     * @return The arena holding the nodes of a flat tree, null otherwise.
+     */
+    public NodeArena getArena() {
+        return arena;
+    }
+
+    public int getRootIndex() {
+        return rootIndex;
+    }
+
+    /**
+     * @return The name of an unresolved variable node of a flat tree.
+     */
+    public String getVariableName(int node) {
+        return tokens.getVariableName(arena.getValue(node));
+    }
+
+    /**
+     * @param slotNames The name of the variable of every slot, set when a flat tree is resolved so it can still be
+     *                  converted into named nodes.
+     */
+    public void setSlotNames(String[] slotNames) {
+        this.slotNames = slotNames;
+    }
+
+    //Nodes are added to the arena before their children, so every child has a higher index than its parent
+    private Node toNodes() {
+        Node[] nodes = new Node[arena.size() - rootIndex];
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            int index = rootIndex + i;
+            Node node = new Node(arena.getType(index));
+            if (Type.digit == node.getType()) {
+                node.setNumberValue(arena.getValue(index));
+            } else if (Type.var == node.getType()) {
+                if (isResolved()) {
+                    node.setSlot(arena.getValue(index));
+                    node.setVariableName(slotNames[arena.getValue(index)]);
+                } else {
+                    node.setVariableName(getVariableName(index));
+                }
+            }
+            node.setLeftChild(child(nodes, arena.getLeft(index)));
+            node.setMiddleChild(child(nodes, arena.getMiddle(index)));
+            node.setRightChild(child(nodes, arena.getRight(index)));
+            nodes[i] = node;
+        }
+        return nodes[0];
+    }
+
+    private Node child(Node[] nodes, int index) {
+        return index == NodeArena.NONE ? null : nodes[index - rootIndex];
+    }
+
+    /**
+     * @return The number of variable slots needed to evaluate the tree, -1 if the variables have not been resolved.
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public void setSlotCount(int slotCount) {
+        this.slotCount = slotCount;
+        this.hashed = false;
+    }
+
+    /**
+     * @return The number of variables bound outside of the expression, they are given the first slots.
+     */
+    public int getFreeVariableCount() {
+        return freeVariableCount;
+    }
+
+    public void setFreeVariableCount(int freeVariableCount) {
+        this.freeVariableCount = freeVariableCount;
+    }
+
+    /**
+     * @return The number of nodes the parser created for the tree, 0 if it was built by hand.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public void setNodeCount(int nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @return The deepest nesting of let expressions the parser found in the tree, 0 if it was built by hand.
+     */
+    public int getLetDepth() {
+        return letDepth;
+    }
+
+    public void setLetDepth(int letDepth) {
+        this.letDepth = letDepth;
+    }
+
+    /**
+     * @return The number of levels of the tree as found by the parser, 1 for a single number, 0 if it was built by hand.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public boolean isResolved() {
+        return slotCount >= 0;
+    }
+
+    /**
+     * @return true once the closed sub-trees have their structural hash, see {@link Node#getStructuralHash()}. It is
+     * cleared when the tree is resolved again or its root is replaced.
+     */
+    public boolean isHashed() {
+        return hashed;
+    }
+
+    public void setHashed(boolean hashed) {
+        this.hashed = hashed;
+    }
 }
@@ -0,0 +1,82 @@
+package com.assignment.calculator.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a range of ASCII bytes as characters, without decoding them into a String. Every byte is one character, so
+ * any byte outside of ASCII is simply a character the {@link Lexer} rejects.
+ *
+ * The bytes are not copied, they must not change while the sequence or tokens lexed from it are in use.
+ */
+public class AsciiCharSequence implements CharSequence {
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    private AsciiCharSequence(byte[] bytes, ByteBuffer buffer, int offset, int length) {
+        this.bytes = bytes;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return The characters of bytes[offset, offset + length).
+     */
+    public static AsciiCharSequence of(byte[] bytes, int offset, int length) {
+        checkRange(bytes.length, offset, length);
+        return new AsciiCharSequence(bytes, null, offset, length);
+    }
+
+    /**
+     * @return The characters of buffer[offset, offset + length), by absolute index so the position of the buffer is
+     * neither used nor changed. Works for heap, direct and memory-mapped buffers alike.
+     */
+    public static AsciiCharSequence of(ByteBuffer buffer, int offset, int length) {
+        checkRange(buffer.limit(), offset, length);
+        if (buffer.hasArray()) {
+            return new AsciiCharSequence(buffer.array(), null, buffer.arrayOffset() + offset, length);
+        }
+        return new AsciiCharSequence(null, buffer, offset, length);
+    }
+
+    private static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", size " + size);
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        byte value = bytes != null ? bytes[offset + index] : buffer.get(offset + index);
+        return (char) (value & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        checkRange(length, start, end - start);
+        return new AsciiCharSequence(bytes, buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (bytes != null) {
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+}
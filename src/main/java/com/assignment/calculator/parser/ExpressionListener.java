@@ -0,0 +1,29 @@
+package com.assignment.calculator.parser;
+
+/**
+ * Receives an expression from the {@link StreamingParser} in post order, as each sub-expression is closed, instead of
+ * as a tree. Every method returns false to stop the parse, ie. after recording an error.
+ *
+ * ie. let(a, 5, add(a, 1)) would result in:
+ * number(5), bind(a), variable(a), number(1), operator(add), unbind(a)
+ */
+public interface ExpressionListener {
+    boolean number(int value);
+
+    boolean variable(String variableName);
+
+    /**
+     * The value of a let expression has been read, the variable is bound to it for the rest of the let expression.
+     */
+    boolean bind(String variableName);
+
+    /**
+     * A let expression has been closed, the variable is bound to its previous value again if it had one.
+     */
+    boolean unbind(String variableName);
+
+    /**
+     * Both operands of the operator have been read.
+     */
+    boolean operator(Type type);
+}
@@ -1,11 +1,12 @@
 package com.assignment.calculator.parser;
 
+import com.assignment.calculator.metrics.EventRecording;
+import com.assignment.calculator.metrics.LexEvent;
 import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
 import org.apache.commons.lang3.StringUtils;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Class to parse a user input expression into tokens defined by the calculator specifications. The order of operations are retained
@@ -24,18 +25,14 @@ import java.util.regex.Pattern;
  *
  * ie. add(1, 2) would result in:
  * ["add", "(", "1", ",", "2", ")"]
+ *
+ * The input is scanned in a single pass. Numbers and variable names are validated and converted while scanning, so no
+ * intermediate strings are created for a valid expression. Any {@link CharSequence} can be scanned in place, and ASCII
+ * bytes are scanned through an {@link AsciiCharSequence} without being decoded first.
+ *
+ * Slow scans are recorded as {@link LexEvent}s when the flight recorder is running.
  */
 public class Lexer {
-    private static final Integer OPERATOR_LENGTH = 3;
-    private static final char NEGATIVE_SIGN = '-';
-    private static final char COMMA = ',';
-    private static final char LPARENTH = '(';
-    private static final char RPARENTH = ')';
-    private static final String ERROR_MESSAGE = "The input did not match specifications: ";
-
-    private static final Pattern NUMBER_VALIDATOR_REGEX = Pattern.compile("^((-?[1-9])(\\d+)?)|[0]$");
-    private static final Pattern VARIABLE_VALIDATOR_REGEX = Pattern.compile("^([a-zA-Z_])([a-zA-Z0-9_]+)?$");
-
     private Lexer() {}
     /**
      * Goes through each character in an input string and determines if it belongs to a digit, variable, number, etc.
@@ -45,123 +42,167 @@ public class Lexer {
      * @return List of parsed tokens based off the input expression.
      * @throws CalculatorExpressionParserException If the number, variable or operator format is invalid.
      */
-    public static List<Token> lex(String inputExpression) throws CalculatorExpressionParserException {
-        LinkedList<Token> parsedTokens = new LinkedList<>();
+    public static List<Token> lex(CharSequence inputExpression) throws CalculatorExpressionParserException {
+        return tokenize(inputExpression).toTokens();
+    }
 
-        if (StringUtils.isNotBlank(inputExpression)) {
-            String trimmedInputExpression = inputExpression.trim();
-            for (int i = 0; i < trimmedInputExpression.length();) {
-                char currentCharValue = trimmedInputExpression.charAt(i);
-                if (isWhiteSpace(currentCharValue)) {
-                    i++;
-                } else if(isDigit(currentCharValue)) {
-                    Integer digit = parseDigit(trimmedInputExpression, i);
-                    parsedTokens.add(new Token(Type.digit, digit));
-                    i += String.valueOf(digit).length();
-                } else if(isComma(currentCharValue)) {
-                    parsedTokens.add(new Token(Type.comma));
-                    i++;
-                } else if(isLeftParenthesis(currentCharValue)) {
-                    parsedTokens.add(new Token(Type.lparenth));
-                    i++;
-                } else if(isRightParenthesis(currentCharValue)) {
-                    parsedTokens.add(new Token(Type.rparenth));
-                    i++;
-                } else if(isLetter(currentCharValue)) {
-                    Type operator = parseOperator(trimmedInputExpression, i);
-                    if (Type.invalid != operator) {
-                        parsedTokens.add(new Token(operator));
-                        i += OPERATOR_LENGTH;
-                    } else {
-                        String variable = parseVariable(trimmedInputExpression, i);
-                        parsedTokens.add(new Token(Type.var, variable));
-                        i += variable.length();
-                    }
-                } else {
-                    throw new CalculatorExpressionParserException(ERROR_MESSAGE + currentCharValue);
-                }
-            }
+    /**
+     * Same as {@link #lex(CharSequence)} but returns the tokens in a compact {@link TokenStream}.
+     *
+     * @param inputExpression Direct user input, read in place. Variable names in the tokens are slices of it.
+     * @return Stream of parsed tokens positioned before the first token.
+     * @throws CalculatorExpressionParserException If the number, variable or operator format is invalid.
+     */
+    public static TokenStream tokenize(CharSequence inputExpression) throws CalculatorExpressionParserException {
+        ErrorReport errors = new ErrorReport();
+        TokenStream tokens = tokenize(inputExpression, errors);
+        if (tokens == null) {
+            throw errors.toParserException();
         }
-        return Collections.unmodifiableList(parsedTokens);
+        return tokens;
     }
 
-    private static Type parseOperator(String inputExpression, int offset) {
-        String potentialOperator = inputExpression.substring(offset, offset + OPERATOR_LENGTH);
+    /**
+     * Same as {@link #tokenize(CharSequence)} but reads the expression from ASCII bytes[offset, offset + length),
+     * without decoding them into a String.
+     */
+    public static TokenStream tokenize(byte[] bytes, int offset, int length) throws CalculatorExpressionParserException {
+        return tokenize(AsciiCharSequence.of(bytes, offset, length));
+    }
 
-        return parseOperator(potentialOperator);
+    /**
+     * Same as {@link #tokenize(CharSequence)} but reads the expression from ASCII buffer[offset, offset + length),
+     * without decoding them into a String. The position of the buffer is not changed.
+     */
+    public static TokenStream tokenize(ByteBuffer buffer, int offset, int length) throws CalculatorExpressionParserException {
+        return tokenize(AsciiCharSequence.of(buffer, offset, length));
     }
 
-    private static Type parseOperator(String potentialOperator) {
-        switch(potentialOperator) {
-            case "add":
-                return Type.add;
-            case "sub":
-                return Type.sub;
-            case "div":
-                return Type.div;
-            case "mul":
-                return Type.mul;
-            case "let":
-                return Type.let;
-            default:
-                return Type.invalid;
-        }
+    /**
+     * Same as {@link #tokenize(CharSequence)} but records an invalid format in a report instead of throwing.
+     *
+     * @param inputExpression Direct user input, read in place. Variable names in the tokens are slices of it.
+     * @param errors Report without an error, the first error found is recorded in it.
+     * @return Stream of parsed tokens positioned before the first token, or null if the input is invalid.
+     */
+    public static TokenStream tokenize(CharSequence inputExpression, ErrorReport errors) {
+        return tokenize(inputExpression, false, errors);
     }
 
-    //Parses a potential variable name and matches the format with a regex expression
-    private static String parseVariable(String inputExpression, int offset) throws CalculatorExpressionParserException {
-        StringBuilder stringBuilder = new StringBuilder();
-        while (offset < inputExpression.length() && inputExpression.charAt(offset) != COMMA && inputExpression.charAt(offset) != RPARENTH) {
-            stringBuilder.append(inputExpression.charAt(offset++));
-        }
-        String potentialVariable = stringBuilder.toString().trim();
-        if (!VARIABLE_VALIDATOR_REGEX.matcher(potentialVariable).matches()) {
-            throw new CalculatorExpressionParserException(ERROR_MESSAGE + potentialVariable);
+    /**
+     * Same as {@link #tokenize(CharSequence, ErrorReport)}, optionally accepting numbers outside of the int range.
+     *
+     * @param inputExpression Direct user input, read in place.
+     * @param bigNumbers true to keep numbers outside of the int range as big number tokens (see
+     *                   {@link TokenStream#isBigNumber(int)}) instead of reporting them as invalid.
+     * @param errors Report without an error, the first error found is recorded in it.
+     * @return Stream of parsed tokens positioned before the first token, or null if the input is invalid.
+     */
+    public static TokenStream tokenize(CharSequence inputExpression, boolean bigNumbers, ErrorReport errors) {
+        if (!EventRecording.isLexRecorded()) {
+            return scan(inputExpression, bigNumbers, errors);
         }
-        return potentialVariable;
+        LexEvent event = new LexEvent();
+        event.begin();
+        TokenStream tokens = scan(inputExpression, bigNumbers, errors);
+        event.finish(inputExpression, tokens, errors);
+        return tokens;
     }
 
-    //Parses a potential digit and matches the format with a regex expression
-    private static Integer parseDigit(String inputExpression, int offset) throws CalculatorExpressionParserException {
-        StringBuilder stringBuilder = new StringBuilder();
-        while (offset < inputExpression.length() && (!isComma(inputExpression.charAt(offset)) && !isRightParenthesis(inputExpression.charAt(offset)))) {
-            stringBuilder.append(inputExpression.charAt(offset++));
+    private static TokenStream scan(CharSequence inputExpression, boolean bigNumbers, ErrorReport errors) {
+        if (StringUtils.isBlank(inputExpression)) {
+            return new TokenStream(StringUtils.EMPTY);
         }
 
-        String potentialDigit = stringBuilder.toString().trim();
-        if (!NUMBER_VALIDATOR_REGEX.matcher(potentialDigit).matches()) {
-            throw new CalculatorExpressionParserException(ERROR_MESSAGE + potentialDigit);
-        }
-        Integer digit;
-        try {
-            digit = Integer.valueOf(potentialDigit);
-        } catch (NumberFormatException nfe) {
-            throw new CalculatorExpressionParserException("Invalid number format");
+        int end = trimmedEnd(inputExpression);
+        TokenStream parsedTokens = new TokenStream(inputExpression, end / 2);
+        for (int i = trimmedStart(inputExpression); i < end;) {
+            char currentCharValue = inputExpression.charAt(i);
+            if (LexicalRules.isWhiteSpace(currentCharValue)) {
+                i++;
+            } else if(LexicalRules.isDigit(currentCharValue)) {
+                int tokenEnd = findTokenEnd(inputExpression, i, end);
+                long numberValue = LexicalRules.parseNumber(inputExpression, i, tokenEnd);
+                if (numberValue == LexicalRules.INVALID_NUMBER) {
+                    errors.invalidToken(inputExpression, i, tokenEnd);
+                    return null;
+                }
+                if (numberValue != LexicalRules.OUT_OF_RANGE) {
+                    parsedTokens.addNumber((int) numberValue, i);
+                } else if (bigNumbers) {
+                    parsedTokens.addBigNumber(i, tokenEnd);
+                } else {
+                    errors.invalidNumber(i);
+                    return null;
+                }
+                i = tokenEnd;
+            } else if(LexicalRules.isComma(currentCharValue)) {
+                parsedTokens.add(Type.comma, i);
+                i++;
+            } else if(LexicalRules.isLeftParenthesis(currentCharValue)) {
+                parsedTokens.add(Type.lparenth, i);
+                i++;
+            } else if(LexicalRules.isRightParenthesis(currentCharValue)) {
+                parsedTokens.add(Type.rparenth, i);
+                i++;
+            } else if(LexicalRules.isLetter(currentCharValue)) {
+                Type operator = parseOperator(inputExpression, i, end);
+                if (Type.invalid != operator) {
+                    parsedTokens.add(operator, i);
+                    i += LexicalRules.OPERATOR_LENGTH;
+                } else {
+                    int tokenEnd = findTokenEnd(inputExpression, i, end);
+                    if (!LexicalRules.isVariable(inputExpression, i, tokenEnd)) {
+                        errors.invalidToken(inputExpression, i, tokenEnd);
+                        return null;
+                    }
+                    parsedTokens.addVariable(i, tokenEnd);
+                    i = tokenEnd;
+                }
+            } else {
+                errors.invalidToken(inputExpression, i, i + 1);
+                return null;
+            }
         }
-        return digit;
-    }
-
-    private static boolean isWhiteSpace(char value) {
-        return Character.isWhitespace(value);
-    }
-
-    private static boolean isComma(char value) {
-        return COMMA == value;
+        parsedTokens.setEndPosition(end);
+        return parsedTokens;
     }
 
-    private static boolean isLeftParenthesis(char value) {
-        return LPARENTH == value;
+    //An operator needs its three characters before the end of the input
+    private static Type parseOperator(CharSequence inputExpression, int offset, int end) {
+        if (offset + LexicalRules.OPERATOR_LENGTH > end) {
+            return Type.invalid;
+        }
+        return LexicalRules.parseOperator(inputExpression.charAt(offset), inputExpression.charAt(offset + 1),
+                inputExpression.charAt(offset + 2));
     }
 
-    private static boolean isRightParenthesis(char value) {
-        return RPARENTH == value;
+    //Numbers and variable names run until the next comma or right parenthesis, without trailing spaces
+    private static int findTokenEnd(CharSequence inputExpression, int start, int end) {
+        int tokenEnd = start;
+        while (tokenEnd < end && !LexicalRules.isTokenEnd(inputExpression.charAt(tokenEnd))) {
+            tokenEnd++;
+        }
+        while (tokenEnd > start && LexicalRules.isTrimmed(inputExpression.charAt(tokenEnd - 1))) {
+            tokenEnd--;
+        }
+        return tokenEnd;
     }
 
-    private static boolean isLetter(char value) {
-        return Character.isLetter(value);
+    //Same boundaries as String.trim()
+    private static int trimmedStart(CharSequence inputExpression) {
+        int start = 0;
+        while (start < inputExpression.length() && LexicalRules.isTrimmed(inputExpression.charAt(start))) {
+            start++;
+        }
+        return start;
     }
 
-    private static boolean isDigit(char value) {
-        return (Character.isDigit(value) || value == NEGATIVE_SIGN);
+    private static int trimmedEnd(CharSequence inputExpression) {
+        int end = inputExpression.length();
+        while (end > 0 && LexicalRules.isTrimmed(inputExpression.charAt(end - 1))) {
+            end--;
+        }
+        return end;
     }
 }
@@ -0,0 +1,147 @@
+package com.assignment.calculator.parser;
+
+/**
+ * The rules of the tokens, shared by the {@link Lexer} and the {@link StreamingLexer} so both read an input into the
+ * same tokens.
+ *
+ * The input is trimmed like String.trim() at either end. Between tokens whitespace is skipped, and any other
+ * character up to the space is invalid. Numbers and variable names run until the next comma or right parenthesis,
+ * without the trimmed characters that end them.
+ */
+final class LexicalRules {
+    static final int OPERATOR_LENGTH = 3;
+    /** Returned by {@link #parseNumber(CharSequence, int, int)} for a valid number outside of the int range. */
+    static final long OUT_OF_RANGE = Long.MIN_VALUE;
+    /** Returned by {@link #parseNumber(CharSequence, int, int)} for an invalid number. */
+    static final long INVALID_NUMBER = Long.MAX_VALUE;
+    private static final char NEGATIVE_SIGN = '-';
+    private static final char COMMA = ',';
+    private static final char LPARENTH = '(';
+    private static final char RPARENTH = ')';
+
+    private LexicalRules() {}
+
+    /**
+     * @return true for a character trimmed at either end of the input and at the end of a number or variable name.
+     */
+    static boolean isTrimmed(char value) {
+        return value <= ' ';
+    }
+
+    /**
+     * @return true for a character skipped between tokens.
+     */
+    static boolean isWhiteSpace(char value) {
+        return Character.isWhitespace(value);
+    }
+
+    /**
+     * @return true for the characters ending a number or a variable name.
+     */
+    static boolean isTokenEnd(char value) {
+        return isComma(value) || isRightParenthesis(value);
+    }
+
+    static boolean isComma(char value) {
+        return COMMA == value;
+    }
+
+    static boolean isLeftParenthesis(char value) {
+        return LPARENTH == value;
+    }
+
+    static boolean isRightParenthesis(char value) {
+        return RPARENTH == value;
+    }
+
+    /**
+     * @return true for the first character of an operator or a variable name.
+     */
+    static boolean isLetter(char value) {
+        return Character.isLetter(value);
+    }
+
+    /**
+     * @return true for the first character of a number.
+     */
+    static boolean isDigit(char value) {
+        return (Character.isDigit(value) || value == NEGATIVE_SIGN);
+    }
+
+    //Operators are recognised by their first three characters only, ie. "adder" is lexed as "add" followed by "er"
+    static Type parseOperator(char first, char second, char third) {
+        switch (first) {
+            case 'a':
+                return second == 'd' && third == 'd' ? Type.add : Type.invalid;
+            case 's':
+                return second == 'u' && third == 'b' ? Type.sub : Type.invalid;
+            case 'd':
+                return second == 'i' && third == 'v' ? Type.div : Type.invalid;
+            case 'm':
+                return second == 'u' && third == 'l' ? Type.mul : Type.invalid;
+            case 'l':
+                return second == 'e' && third == 't' ? Type.let : Type.invalid;
+            default:
+                return Type.invalid;
+        }
+    }
+
+    //Validates a variable name in the format [a-zA-Z_][a-zA-Z0-9_]*
+    static boolean isVariable(CharSequence input, int start, int end) {
+        if (!isVariableStart(input.charAt(start))) {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            if (!isVariablePart(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Validates a number in the format -?[1-9][0-9]* or 0 and converts it while reading the digits. Returns
+    //INVALID_NUMBER for an invalid number, OUT_OF_RANGE for a valid number outside of the int range.
+    static long parseNumber(CharSequence input, int start, int end) {
+        int i = start;
+        boolean negative = input.charAt(i) == NEGATIVE_SIGN;
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            return INVALID_NUMBER;
+        }
+        if (input.charAt(i) == '0') {
+            return negative || i + 1 != end ? INVALID_NUMBER : 0;
+        }
+
+        long value = 0;
+        boolean overflow = false;
+        for (; i < end; i++) {
+            char digit = input.charAt(i);
+            if (!isAsciiDigit(digit)) {
+                return INVALID_NUMBER;
+            }
+            if (!overflow) {
+                value = value * 10 + (digit - '0');
+                overflow = value > (long) Integer.MAX_VALUE + 1;
+            }
+        }
+        value = negative ? -value : value;
+        if (overflow || value > Integer.MAX_VALUE) {
+            return OUT_OF_RANGE;
+        }
+        return value;
+    }
+
+    private static boolean isAsciiDigit(char value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private static boolean isVariableStart(char value) {
+        return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z') || value == '_';
+    }
+
+    private static boolean isVariablePart(char value) {
+        return isVariableStart(value) || isAsciiDigit(value);
+    }
+}
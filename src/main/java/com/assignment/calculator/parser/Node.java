@@ -1,11 +1,16 @@
 package com.assignment.calculator.parser;
 
+import java.math.BigInteger;
+
 public class Node {
     private Type type;
     private Node leftChild;
     private Node middleChild;
     private Node rightChild;
     private Integer numberValue;
+    private BigInteger bigNumberValue;
+    private int slot = -1;
+    private StructuralHash structuralHash;
 
     public void setType(Type type) {
         this.type = type;
@@ -19,6 +24,18 @@ public class Node {
         this.numberValue = numberValue;
     }
 
+    /**
+     * @return The value of a number outside of the int range, only set when lexed for exact calculations. The number
+     * value is then null.
+     */
+    public BigInteger getBigNumberValue() {
+        return bigNumberValue;
+    }
+
+    public void setBigNumberValue(BigInteger bigNumberValue) {
+        this.bigNumberValue = bigNumberValue;
+    }
+
     public String getVariableName() {
         return variableName;
     }
@@ -29,6 +46,29 @@ public class Node {
 
     private String variableName;
 
+    /**
+     * @return For a variable, the slot holding its value once the tree is resolved. -1 otherwise.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * @return For a closed sub-tree other than a single number, the hash its value is memoized under once the tree is
+     * hashed. null otherwise.
+     */
+    public StructuralHash getStructuralHash() {
+        return structuralHash;
+    }
+
+    public void setStructuralHash(StructuralHash structuralHash) {
+        this.structuralHash = structuralHash;
+    }
+
     public Node() {
         this.type = null;
         this.leftChild = null;
@@ -0,0 +1,320 @@
+package com.assignment.calculator.parser;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Flat storage for the nodes of very large trees. A node is an int index instead of an object, and its type, children
+ * and value are kept in columns indexed by it, so a tree costs a few bytes per node and gives the garbage collector
+ * nothing to trace.
+ *
+ * The value of a number node is the number. The value of a variable node is the index of its token in the
+ * {@link TokenStream} it was parsed from until the tree is resolved, and its slot afterwards. A missing child is {@link #NONE}.
+ *
+ * An arena {@link #onHeap() on the heap} keeps the columns in parallel arrays. An arena {@link #offHeap(int) off the heap}
+ * keeps the nodes as fixed size records of a direct {@link ByteBuffer}, for trees too big to keep on the heap comfortably.
+ * Either grows as nodes are added, and is reused for another tree once {@link #clear() cleared}. An arena is not
+ * thread safe, a tree parsed into it is only valid until it is cleared.
+ */
+public abstract class NodeArena {
+    public static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final Type[] TYPES = Type.values();
+
+    int size;
+
+    NodeArena() {}
+
+    public static NodeArena onHeap() {
+        return onHeap(DEFAULT_CAPACITY);
+    }
+
+    public static NodeArena onHeap(int capacity) {
+        return new HeapNodeArena(Math.max(capacity, 1));
+    }
+
+    /**
+     * @param capacity Number of nodes to allocate memory for up front.
+     * @return An arena keeping its nodes in direct memory. The memory is released when the arena is garbage collected.
+     */
+    public static NodeArena offHeap(int capacity) {
+        return new DirectNodeArena(Math.max(capacity, 1));
+    }
+
+    /**
+     * @return The index of a new node without children.
+     */
+    public int add(Type type, int value) {
+        if (size == capacity()) {
+            grow();
+        }
+        set(size, type.ordinal(), NONE, NONE, NONE, value);
+        return size++;
+    }
+
+    /**
+     * Adds a new node as the next child of the parent: its left child, then the middle child of a let expression,
+     * then its right child. Same as {@link AbstractSyntaxTree#addChildNodeToCurrentNode(Node, Node)}.
+     *
+     * @return The index of the new node.
+     */
+    public int addChild(int parent, Type type, int value) {
+        int child = add(type, value);
+        if (getLeft(parent) == NONE) {
+            setLeft(parent, child);
+        } else if (Type.let == getType(parent) && getMiddle(parent) == NONE) {
+            setMiddle(parent, child);
+        } else if (getRight(parent) == NONE) {
+            setRight(parent, child);
+        }
+        return child;
+    }
+
+    public Type getType(int node) {
+        return TYPES[getTypeOrdinal(node)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drops every node, keeping the memory for the next tree.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public abstract boolean isOffHeap();
+
+    public abstract void setType(int node, Type type);
+
+    public abstract int getLeft(int node);
+
+    public abstract void setLeft(int node, int child);
+
+    public abstract int getMiddle(int node);
+
+    public abstract void setMiddle(int node, int child);
+
+    public abstract int getRight(int node);
+
+    public abstract void setRight(int node, int child);
+
+    public abstract int getValue(int node);
+
+    public abstract void setValue(int node, int value);
+
+    abstract int getTypeOrdinal(int node);
+
+    abstract int capacity();
+
+    abstract void grow();
+
+    abstract void set(int node, int type, int left, int middle, int right, int value);
+
+    private static final class HeapNodeArena extends NodeArena {
+        private byte[] types;
+        private int[] lefts;
+        private int[] middles;
+        private int[] rights;
+        private int[] values;
+
+        HeapNodeArena(int capacity) {
+            types = new byte[capacity];
+            lefts = new int[capacity];
+            middles = new int[capacity];
+            rights = new int[capacity];
+            values = new int[capacity];
+        }
+
+        @Override
+        public boolean isOffHeap() {
+            return false;
+        }
+
+        @Override
+        public void setType(int node, Type type) {
+            types[node] = (byte) type.ordinal();
+        }
+
+        @Override
+        public int getLeft(int node) {
+            return lefts[node];
+        }
+
+        @Override
+        public void setLeft(int node, int child) {
+            lefts[node] = child;
+        }
+
+        @Override
+        public int getMiddle(int node) {
+            return middles[node];
+        }
+
+        @Override
+        public void setMiddle(int node, int child) {
+            middles[node] = child;
+        }
+
+        @Override
+        public int getRight(int node) {
+            return rights[node];
+        }
+
+        @Override
+        public void setRight(int node, int child) {
+            rights[node] = child;
+        }
+
+        @Override
+        public int getValue(int node) {
+            return values[node];
+        }
+
+        @Override
+        public void setValue(int node, int value) {
+            values[node] = value;
+        }
+
+        @Override
+        int getTypeOrdinal(int node) {
+            return types[node];
+        }
+
+        @Override
+        int capacity() {
+            return types.length;
+        }
+
+        @Override
+        void grow() {
+            int capacity = newCapacity(types.length);
+            types = Arrays.copyOf(types, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            middles = Arrays.copyOf(middles, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void set(int node, int type, int left, int middle, int right, int value) {
+            types[node] = (byte) type;
+            lefts[node] = left;
+            middles[node] = middle;
+            rights[node] = right;
+            values[node] = value;
+        }
+    }
+
+    //Every node is a record of five ints: type, left, middle, right and value
+    private static final class DirectNodeArena extends NodeArena {
+        private static final int TYPE = 0;
+        private static final int LEFT = 4;
+        private static final int MIDDLE = 8;
+        private static final int RIGHT = 12;
+        private static final int VALUE = 16;
+        private static final int RECORD_SIZE = 20;
+        private static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_SIZE;
+
+        private ByteBuffer records;
+
+        DirectNodeArena(int capacity) {
+            records = allocate(Math.min(capacity, MAX_CAPACITY));
+        }
+
+        private static ByteBuffer allocate(int capacity) {
+            return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        public boolean isOffHeap() {
+            return true;
+        }
+
+        @Override
+        public void setType(int node, Type type) {
+            records.putInt(node * RECORD_SIZE + TYPE, type.ordinal());
+        }
+
+        @Override
+        public int getLeft(int node) {
+            return records.getInt(node * RECORD_SIZE + LEFT);
+        }
+
+        @Override
+        public void setLeft(int node, int child) {
+            records.putInt(node * RECORD_SIZE + LEFT, child);
+        }
+
+        @Override
+        public int getMiddle(int node) {
+            return records.getInt(node * RECORD_SIZE + MIDDLE);
+        }
+
+        @Override
+        public void setMiddle(int node, int child) {
+            records.putInt(node * RECORD_SIZE + MIDDLE, child);
+        }
+
+        @Override
+        public int getRight(int node) {
+            return records.getInt(node * RECORD_SIZE + RIGHT);
+        }
+
+        @Override
+        public void setRight(int node, int child) {
+            records.putInt(node * RECORD_SIZE + RIGHT, child);
+        }
+
+        @Override
+        public int getValue(int node) {
+            return records.getInt(node * RECORD_SIZE + VALUE);
+        }
+
+        @Override
+        public void setValue(int node, int value) {
+            records.putInt(node * RECORD_SIZE + VALUE, value);
+        }
+
+        @Override
+        int getTypeOrdinal(int node) {
+            return records.getInt(node * RECORD_SIZE + TYPE);
+        }
+
+        @Override
+        int capacity() {
+            return records.capacity() / RECORD_SIZE;
+        }
+
+        @Override
+        void grow() {
+            if (capacity() == MAX_CAPACITY) {
+                throw new IllegalStateException("The arena cannot hold more than " + MAX_CAPACITY + " nodes");
+            }
+            ByteBuffer grown = allocate(Math.min(newCapacity(capacity()), MAX_CAPACITY));
+            //Called on Buffer, the ByteBuffer override only exists from Java 9 on
+            ((Buffer) records).clear();
+            grown.put(records);
+            records = grown;
+        }
+
+        @Override
+        void set(int node, int type, int left, int middle, int right, int value) {
+            int offset = node * RECORD_SIZE;
+            records.putInt(offset + TYPE, type);
+            records.putInt(offset + LEFT, left);
+            records.putInt(offset + MIDDLE, middle);
+            records.putInt(offset + RIGHT, right);
+            records.putInt(offset + VALUE, value);
+        }
+    }
+
+    private static int newCapacity(int capacity) {
+        int doubled = capacity * 2;
+        return doubled < 0 ? Integer.MAX_VALUE - 8 : doubled;
+    }
+}
@@ -0,0 +1,88 @@
+package com.assignment.calculator.parser;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * Unsynchronized, array backed stack of nodes. Each entry also holds an int state, so a tree of any depth can be walked
+ * with an explicit stack instead of recursion: a node is pushed again with the next state when its children have to be
+ * visited first.
+ */
+public class NodeStack {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Node[] nodes;
+    private int[] states;
+    private int size;
+
+    public NodeStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public NodeStack(int capacity) {
+        nodes = new Node[Math.max(capacity, 1)];
+        states = new int[nodes.length];
+    }
+
+    public void push(Node node) {
+        push(node, 0);
+    }
+
+    public void push(Node node, int state) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        nodes[size] = node;
+        states[size] = state;
+        size++;
+    }
+
+    /**
+     * @return The node on top of the stack.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    public Node pop() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        Node node = nodes[--size];
+        nodes[size] = null;
+        return node;
+    }
+
+    /**
+     * @return The node on top of the stack without removing it.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    public Node peek() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return nodes[size - 1];
+    }
+
+    /**
+     * @return The state of the node on top of the stack.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    public int peekState() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return states[size - 1];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(nodes, 0, size, null);
+        size = 0;
+    }
+}
@@ -1,16 +1,25 @@
 package com.assignment.calculator.parser;
 
+import com.assignment.calculator.metrics.EventRecording;
+import com.assignment.calculator.metrics.ParseEvent;
 import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
 
-import java.util.EmptyStackException;
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 /**
- * Builds an abstract syntax tree from a list of valid tokens. Nodes are created from the root and starting from the left.
- * The left parenthesis and comma tokens are used to create nodes, the right parenthesis token is used to traverse back to the parent node,
- * and operator/variable/number tokens set a value in the node. A stack is used to keep track of parent nodes.
+ * Builds an abstract syntax tree from a list of valid tokens in a single pass, validating the expression as it goes:
+ *
+ * expression := number | variable | operator '(' expression ',' expression ')' | let '(' variable ',' expression ',' expression ')'
+ *
+ * Nodes are created from the root and starting from the left. An operator node is kept on a stack while its operands
+ * are read, with the number of operands still expected, so the depth of the expression is only limited by the heap.
+ * The first token that does not fit the grammar fails the parse with its offset and the token that was expected.
+ * Slow parses are recorded as {@link ParseEvent}s when the flight recorder is running.
+ *
+ * Very large expressions can be parsed into a {@link NodeArena} instead of node objects, see {@link #parse(TokenStream, NodeArena, ErrorReport)}.
  *
  * ie. add(2, 3) would result in:
  *     add
@@ -27,78 +36,320 @@ import java.util.Stack;
  */
 
 public class Parser {
-    private static final int MAXIMUM_OPERANDS_FOR_EXPRESSION = 2;
+    private static final int LAST_OPERAND = 0;
+    private static final int FIRST_OPERAND = 1;
+    static final String EXPRESSION = "number, variable or operator";
+    static final String VARIABLE = "variable";
+    static final String COMMA = "','";
+    static final String LPARENTH = "'('";
+    static final String RPARENTH = "')'";
+    static final String END_OF_INPUT = "end of input";
 
     private Parser() {}
     /**
      *
      * @param tokens An ordered list of parsed tokens (ie. (, add, ), etc.)
      * @return A tree with each token as a node
-     * @throws CalculatorExpressionParserException If the list of tokens contains recognizable tokens in an unrecognizable format
+     * @throws CalculatorExpressionParserException If the list of tokens contains recognizable tokens in an unrecognizable format.
+     * The offset of the exception is the index of the offending token.
      */
     public static AbstractSyntaxTree parseTokensToAST(List<Token> tokens) throws CalculatorExpressionParserException {
-        Stack<Node> parentStack = new Stack();
         if (tokens == null || tokens.isEmpty()) {
             throw new NullPointerException("No expression to parse");
         }
+        return parse(TokenStream.of(tokens));
+    }
+
+    /**
+     * Same as {@link #parseTokensToAST(List)} but reads the tokens with the cursor of a {@link TokenStream}.
+     *
+     * @param tokens Stream of parsed tokens. It is rewound and read from the first token.
+     * @return A tree with each token as a node
+     * @throws CalculatorExpressionParserException If the tokens are recognizable tokens in an unrecognizable format.
+     * The offset of the exception is the position of the offending token.
+     */
+    public static AbstractSyntaxTree parse(TokenStream tokens) throws CalculatorExpressionParserException {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new NullPointerException("No expression to parse");
+        }
+        ErrorReport errors = new ErrorReport();
+        AbstractSyntaxTree tree = parse(tokens, errors);
+        if (tree == null) {
+            throw errors.toParserException();
+        }
+        return tree;
+    }
+
+    /**
+     * Lexes and parses an expression read in place, see {@link Lexer#tokenize(CharSequence)}.
+     *
+     * @param inputExpression Direct user input.
+     * @return A tree with each token as a node
+     * @throws CalculatorExpressionParserException If the expression is invalid.
+     */
+    public static AbstractSyntaxTree parse(CharSequence inputExpression) throws CalculatorExpressionParserException {
+        return parse(Lexer.tokenize(inputExpression));
+    }
+
+    /**
+     * Lexes and parses an expression from ASCII bytes[offset, offset + length), see {@link Lexer#tokenize(byte[], int, int)}.
+     */
+    public static AbstractSyntaxTree parse(byte[] bytes, int offset, int length) throws CalculatorExpressionParserException {
+        return parse(Lexer.tokenize(bytes, offset, length));
+    }
+
+    /**
+     * Lexes and parses an expression from ASCII buffer[offset, offset + length), see {@link Lexer#tokenize(ByteBuffer, int, int)}.
+     */
+    public static AbstractSyntaxTree parse(ByteBuffer buffer, int offset, int length) throws CalculatorExpressionParserException {
+        return parse(Lexer.tokenize(buffer, offset, length));
+    }
+
+    /**
+     * Same as {@link #parse(TokenStream)} but records an invalid format in a report instead of throwing.
+     *
+     * @param tokens Stream of parsed tokens. It is rewound and read from the first token.
+     * @param errors Report without an error, the first error found is recorded in it.
+     * @return A tree with each token as a node, or null if there are no tokens or they are in an unrecognizable format.
+     */
+    public static AbstractSyntaxTree parse(TokenStream tokens, ErrorReport errors) {
+        if (!EventRecording.isParseRecorded()) {
+            return parseTree(tokens, errors);
+        }
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        AbstractSyntaxTree tree = parseTree(tokens, errors);
+        event.finish(tokens, tree, errors);
+        return tree;
+    }
+
+    /**
+     * Same as {@link #parse(TokenStream)} but adds the nodes to an arena, see {@link AbstractSyntaxTree#isFlat()}.
+     *
+     * @param tokens Stream of parsed tokens. It is rewound and read from the first token.
+     * @param arena Arena the nodes are added to, after the nodes already in it.
+     * @return A flat tree, its variable nodes refer to the tokens until it is resolved.
+     * @throws CalculatorExpressionParserException If the tokens are recognizable tokens in an unrecognizable format.
+     */
+    public static AbstractSyntaxTree parse(TokenStream tokens, NodeArena arena) throws CalculatorExpressionParserException {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new NullPointerException("No expression to parse");
+        }
+        ErrorReport errors = new ErrorReport();
+        AbstractSyntaxTree tree = parse(tokens, arena, errors);
+        if (tree == null) {
+            throw errors.toParserException();
+        }
+        return tree;
+    }
 
-        validateTokens(tokens);
+    /**
+     * Same as {@link #parse(TokenStream, NodeArena)} but records an invalid format in a report instead of throwing.
+     *
+     * @return A flat tree, or null if there are no tokens or they are in an unrecognizable format.
+     */
+    public static AbstractSyntaxTree parse(TokenStream tokens, NodeArena arena, ErrorReport errors) {
+        if (!EventRecording.isParseRecorded()) {
+            return parseFlat(tokens, arena, errors);
+        }
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        AbstractSyntaxTree tree = parseFlat(tokens, arena, errors);
+        event.finish(tokens, tree, errors);
+        return tree;
+    }
+
+    private static AbstractSyntaxTree parseTree(TokenStream tokens, ErrorReport errors) {
 
-        LinkedList<Token> tokensToEvaluate = new LinkedList<>(tokens);
-        AbstractSyntaxTree tree = new AbstractSyntaxTree(tokensToEvaluate.removeFirst().getType());
+        NodeStack parentStack = new NodeStack();
+        AbstractSyntaxTree tree = new AbstractSyntaxTree(Type.invalid);
         Node cursor = tree.getRoot();
-        try {
-            while (!tokensToEvaluate.isEmpty()) {
-                Token token = tokensToEvaluate.removeFirst();
-                if (Type.lparenth == token.getType()) {
-                    parentStack.push(cursor);
-                    cursor = tree.addChildNodeToCurrentNode(cursor, new Node());
-                } else if (Type.digit == token.getType()) {
-                    cursor.setType(token.getType());
-                    cursor.setNumberValue(token.getNumberValue());
-                } else if (Type.comma == token.getType()) {
-                    cursor = parentStack.pop();
-                    parentStack.push(cursor);
-                    cursor = tree.addChildNodeToCurrentNode(cursor, new Node());
-                } else if (Type.rparenth == token.getType()) {
-                    cursor = parentStack.pop();
-                } else if (Type.var == token.getType()) {
-                    cursor.setType(token.getType());
-                    cursor.setVariableName(token.getVariableName());
-                } else if (isOperator(token.getType())) {
-                    cursor.setType(token.getType());
+        int nodeCount = 0;
+        int letDepth = 0;
+        int maxLetDepth = 0;
+        int maxParentDepth = 0;
+        tokens.rewind();
+        while (true) {
+            //Read one expression into the cursor
+            if (!tokens.advance()) {
+                return unexpected(tokens, EXPRESSION, errors);
+            }
+            Type type = tokens.getType();
+            nodeCount++;
+            if (Type.digit == type) {
+                cursor.setType(type);
+                if (tokens.isBigNumber()) {
+                    cursor.setBigNumberValue(tokens.getBigNumberValue());
+                } else {
+                    cursor.setNumberValue(tokens.getNumberValue());
+                }
+            } else if (Type.var == type) {
+                cursor.setType(type);
+                cursor.setVariableName(tokens.getVariableName());
+            } else if (isOperator(type)) {
+                cursor.setType(type);
+                if (!expect(tokens, Type.lparenth)) {
+                    return unexpected(tokens, LPARENTH, errors);
+                }
+                if (Type.let == type) {
+                    if (!expect(tokens, Type.var)) {
+                        return unexpected(tokens, VARIABLE, errors);
+                    }
+                    Node variable = tree.addChildNodeToCurrentNode(cursor, new Node(Type.var));
+                    variable.setVariableName(tokens.getVariableName());
+                    nodeCount++;
+                    maxLetDepth = Math.max(maxLetDepth, ++letDepth);
+                    if (!expect(tokens, Type.comma)) {
+                        return unexpected(tokens, COMMA, errors);
+                    }
+                }
+                parentStack.push(cursor, FIRST_OPERAND);
+                maxParentDepth = Math.max(maxParentDepth, parentStack.size());
+                cursor = tree.addChildNodeToCurrentNode(cursor, new Node());
+                continue;
+            } else {
+                return unexpected(tokens, EXPRESSION, errors);
+            }
+
+            //Close every expression completed by it, until one still expects another operand
+            cursor = null;
+            while (cursor == null && !parentStack.isEmpty()) {
+                int state = parentStack.peekState();
+                Node parent = parentStack.pop();
+                if (state == FIRST_OPERAND) {
+                    if (!expect(tokens, Type.comma)) {
+                        return unexpected(tokens, COMMA, errors);
+                    }
+                    parentStack.push(parent, LAST_OPERAND);
+                    cursor = tree.addChildNodeToCurrentNode(parent, new Node());
+                } else {
+                    boolean hasToken = tokens.advance();
+                    if (hasToken && Type.comma == tokens.getType()) {
+                        errors.invalidArguments(tokens.getPosition(), RPARENTH);
+                        return null;
+                    } else if (!hasToken || Type.rparenth != tokens.getType()) {
+                        return unexpected(tokens, RPARENTH, errors);
+                    }
+                    if (Type.let == parent.getType()) {
+                        letDepth--;
+                    }
                 }
             }
-        } catch (EmptyStackException ese) {
-            throw new CalculatorExpressionParserException("The input did not match specifications");
+            if (cursor == null) {
+                break;
+            }
+        }
+
+        if (tokens.advance()) {
+            return unexpected(tokens, END_OF_INPUT, errors);
         }
+        tree.setNodeCount(nodeCount);
+        tree.setLetDepth(maxLetDepth);
+        tree.setDepth(maxParentDepth + 1);
         return tree;
     }
 
-    //Validates that at most two operands are passed into each expression
-    private static void validateTokens(List<Token> tokens) throws CalculatorExpressionParserException {
-        LinkedList<Token> tokensToEvaluate = new LinkedList<>(tokens);
-        LinkedList<Token> operandsAndBrackets = new LinkedList<>();
-        LinkedList<Token> operands = new LinkedList<>();
-
-
-        while(!tokensToEvaluate.isEmpty()) {
-            Token currentToken = tokensToEvaluate.removeFirst();
-            if(Type.var == currentToken.getType() || Type.digit == currentToken.getType()) {
-                operandsAndBrackets.add(currentToken);
-            } else if(Type.lparenth.equals(currentToken.getType())) {
-                operandsAndBrackets.add(currentToken);
-            } else if (Type.rparenth.equals(currentToken.getType())) {
-                while (!operandsAndBrackets.isEmpty() && Type.lparenth != operandsAndBrackets.peekLast().getType()) {
-                    Token operatorOrlParenth = operandsAndBrackets.removeLast();
-                    operands.add(operatorOrlParenth);
+    //The same steps as parseTree with node indexes. The parents are kept as pairs of node index and state.
+    private static AbstractSyntaxTree parseFlat(TokenStream tokens, NodeArena arena, ErrorReport errors) {
+        int[] parentStack = new int[32];
+        int parentCount = 0;
+        int root = arena.add(Type.invalid, 0);
+        int cursor = root;
+        int letDepth = 0;
+        int maxLetDepth = 0;
+        int maxParentDepth = 0;
+        tokens.rewind();
+        while (true) {
+            //Read one expression into the cursor
+            if (!tokens.advance()) {
+                return unexpected(tokens, EXPRESSION, errors);
+            }
+            Type type = tokens.getType();
+            if (Type.digit == type) {
+                if (tokens.isBigNumber()) {
+                    errors.invalidNumber(tokens.getPosition());
+                    return null;
+                }
+                arena.setType(cursor, type);
+                arena.setValue(cursor, tokens.getNumberValue());
+            } else if (Type.var == type) {
+                arena.setType(cursor, type);
+                arena.setValue(cursor, tokens.getIndex());
+            } else if (isOperator(type)) {
+                arena.setType(cursor, type);
+                if (!expect(tokens, Type.lparenth)) {
+                    return unexpected(tokens, LPARENTH, errors);
+                }
+                if (Type.let == type) {
+                    if (!expect(tokens, Type.var)) {
+                        return unexpected(tokens, VARIABLE, errors);
+                    }
+                    arena.addChild(cursor, Type.var, tokens.getIndex());
+                    maxLetDepth = Math.max(maxLetDepth, ++letDepth);
+                    if (!expect(tokens, Type.comma)) {
+                        return unexpected(tokens, COMMA, errors);
+                    }
                 }
-                if (operands.size() > MAXIMUM_OPERANDS_FOR_EXPRESSION) {
-                    throw new CalculatorExpressionParserException("Invalid number of arguments for an expression.");
+                if (parentCount == parentStack.length) {
+                    parentStack = Arrays.copyOf(parentStack, parentCount * 2);
                 }
-                operands.clear();
+                parentStack[parentCount++] = cursor;
+                parentStack[parentCount++] = FIRST_OPERAND;
+                maxParentDepth = Math.max(maxParentDepth, parentCount / 2);
+                cursor = arena.addChild(cursor, Type.invalid, 0);
+                continue;
+            } else {
+                return unexpected(tokens, EXPRESSION, errors);
+            }
+
+            //Close every expression completed by it, until one still expects another operand
+            cursor = NodeArena.NONE;
+            while (cursor == NodeArena.NONE && parentCount > 0) {
+                int state = parentStack[--parentCount];
+                int parent = parentStack[--parentCount];
+                if (state == FIRST_OPERAND) {
+                    if (!expect(tokens, Type.comma)) {
+                        return unexpected(tokens, COMMA, errors);
+                    }
+                    parentStack[parentCount++] = parent;
+                    parentStack[parentCount++] = LAST_OPERAND;
+                    cursor = arena.addChild(parent, Type.invalid, 0);
+                } else {
+                    boolean hasToken = tokens.advance();
+                    if (hasToken && Type.comma == tokens.getType()) {
+                        errors.invalidArguments(tokens.getPosition(), RPARENTH);
+                        return null;
+                    } else if (!hasToken || Type.rparenth != tokens.getType()) {
+                        return unexpected(tokens, RPARENTH, errors);
+                    }
+                    if (Type.let == arena.getType(parent)) {
+                        letDepth--;
+                    }
+                }
+            }
+            if (cursor == NodeArena.NONE) {
+                break;
             }
         }
+
+        if (tokens.advance()) {
+            return unexpected(tokens, END_OF_INPUT, errors);
+        }
+        AbstractSyntaxTree tree = new AbstractSyntaxTree(arena, root, tokens);
+        tree.setNodeCount(arena.size() - root);
+        tree.setLetDepth(maxLetDepth);
+        tree.setDepth(maxParentDepth + 1);
+        return tree;
+    }
+
+    //Moves to the next token, which has to be of the given type
+    private static boolean expect(TokenStream tokens, Type type) {
+        return tokens.advance() && type == tokens.getType();
+    }
+
+    private static AbstractSyntaxTree unexpected(TokenStream tokens, String expected, ErrorReport errors) {
+        errors.syntax(tokens.getPosition(), expected);
+        return null;
     }
 
     private static boolean isOperator(Type type) {
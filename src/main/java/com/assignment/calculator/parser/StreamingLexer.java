@@ -0,0 +1,301 @@
+package com.assignment.calculator.parser;
+
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads tokens one at a time from a {@link Reader} or a {@link ReadableByteChannel}, for expressions too large to be
+ * held in memory. Characters are pulled through a fixed size buffer as tokens are asked for, so only the current token
+ * is kept, never the input. The tokens are the same as the ones of the {@link Lexer}, read with a cursor like a
+ * {@link TokenStream} (see {@link #advance()}).
+ *
+ * Bytes read from a channel are ASCII characters, any byte outside of ASCII is simply a character that is rejected.
+ *
+ * Positions are character offsets in the input. A token longer than {@link #MAX_TOKEN_LENGTH} characters is never
+ * valid, it is reported as an invalid token showing its first characters. Positions past {@link Integer#MAX_VALUE}
+ * are reported as {@link Integer#MAX_VALUE}, the largest offset an error can hold.
+ *
+ * A lexer is not thread safe and reads its input once.
+ */
+public class StreamingLexer {
+    /** The longest token kept, far longer than any valid number or a reasonable variable name. */
+    public static final int MAX_TOKEN_LENGTH = 4096;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int END_OF_INPUT = -1;
+
+    private final Reader reader;
+    private final ReadableByteChannel channel;
+    private final ByteBuffer bytes;
+    private final char[] buffer;
+    private int bufferPosition;
+    private int bufferLimit;
+    //Offset of buffer[0] in the input
+    private long bufferStart;
+    private boolean endOfInput;
+
+    private final ErrorReport errors;
+    private final StringBuilder token = new StringBuilder();
+    private final StringBuilder blanks = new StringBuilder();
+    private long blankCount;
+    private boolean truncated;
+    //Position of a control character after a token, invalid unless only blanks follow it
+    private long controlPosition = -1;
+    private char control;
+    private boolean started;
+    //Whether only whitespace was read so far, a blank input ends at 0 like in the Lexer
+    private boolean blank = true;
+
+    private Type type;
+    private int numberValue;
+    private String variableName;
+    private long position;
+    //Position just after the last token, the end of the input once trimmed
+    private long tokenEnd;
+
+    /**
+     * @param reader Input the characters are read from, it is not closed.
+     * @param errors Report without an error, the first invalid token is recorded in it.
+     */
+    public StreamingLexer(Reader reader, ErrorReport errors) {
+        this(reader, null, DEFAULT_BUFFER_SIZE, errors);
+    }
+
+    /**
+     * @param channel Input the ASCII bytes are read from, it is not closed.
+     * @param errors Report without an error, the first invalid token is recorded in it.
+     */
+    public StreamingLexer(ReadableByteChannel channel, ErrorReport errors) {
+        this(null, channel, DEFAULT_BUFFER_SIZE, errors);
+    }
+
+    StreamingLexer(Reader reader, ReadableByteChannel channel, int bufferSize, ErrorReport errors) {
+        this.reader = reader;
+        this.channel = channel;
+        this.buffer = new char[Math.max(bufferSize, LexicalRules.OPERATOR_LENGTH)];
+        this.bytes = channel == null ? null : ByteBuffer.allocate(buffer.length);
+        this.errors = errors;
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return false at the end of the input, or if the next token is invalid and an error was recorded.
+     * @throws IOException If the input cannot be read.
+     */
+    public boolean advance() throws IOException {
+        type = null;
+        variableName = null;
+        while (true) {
+            int next = peek(0);
+            if (next == END_OF_INPUT) {
+                position = blank ? 0 : tokenEnd;
+                return false;
+            }
+            char currentCharValue = (char) next;
+            boolean whiteSpace = LexicalRules.isWhiteSpace(currentCharValue);
+            blank &= whiteSpace;
+            if (LexicalRules.isTrimmed(currentCharValue)) {
+                //Trimmed like String.trim() at either end of the input, a control character is invalid anywhere else
+                if (started && !whiteSpace && controlPosition < 0) {
+                    controlPosition = positionOf(bufferPosition);
+                    control = currentCharValue;
+                }
+                bufferPosition++;
+                continue;
+            }
+            position = positionOf(bufferPosition);
+            if (controlPosition >= 0) {
+                errors.invalidToken(offset(controlPosition), String.valueOf(control));
+                return false;
+            }
+            started = true;
+            if (whiteSpace) {
+                //Whitespace past the space is not trimmed, the input ends after it
+                bufferPosition++;
+                tokenEnd = position + 1;
+                continue;
+            }
+            boolean valid = scanToken(currentCharValue);
+            tokenEnd = position + tokenLength();
+            return valid;
+        }
+    }
+
+    private boolean scanToken(char currentCharValue) throws IOException {
+        if (LexicalRules.isDigit(currentCharValue)) {
+            readTokenText();
+            return parseDigit();
+        } else if (LexicalRules.isComma(currentCharValue)) {
+            return single(Type.comma);
+        } else if (LexicalRules.isLeftParenthesis(currentCharValue)) {
+            return single(Type.lparenth);
+        } else if (LexicalRules.isRightParenthesis(currentCharValue)) {
+            return single(Type.rparenth);
+        } else if (LexicalRules.isLetter(currentCharValue)) {
+            Type operator = parseOperator();
+            if (Type.invalid != operator) {
+                type = operator;
+                bufferPosition += LexicalRules.OPERATOR_LENGTH;
+                return true;
+            }
+            readTokenText();
+            if (truncated || !LexicalRules.isVariable(token, 0, token.length())) {
+                errors.invalidToken(offset(position), token);
+                return false;
+            }
+            type = Type.var;
+            variableName = token.toString();
+            return true;
+        } else {
+            errors.invalidToken(offset(position), String.valueOf(currentCharValue));
+            return false;
+        }
+    }
+
+    private int tokenLength() {
+        if (Type.digit == type || Type.var == type) {
+            return token.length();
+        }
+        return Type.comma == type || Type.lparenth == type || Type.rparenth == type ? 1 : LexicalRules.OPERATOR_LENGTH;
+    }
+
+    private boolean single(Type tokenType) {
+        type = tokenType;
+        bufferPosition++;
+        return true;
+    }
+
+    //An operator needs its three characters before the end of the input
+    private Type parseOperator() throws IOException {
+        if (peek(LexicalRules.OPERATOR_LENGTH - 1) == END_OF_INPUT) {
+            return Type.invalid;
+        }
+        return LexicalRules.parseOperator((char) peek(0), (char) peek(1), (char) peek(2));
+    }
+
+    //Numbers and variable names run until the next comma or right parenthesis, without trailing blanks. A control
+    //character among the trailing blanks is not part of the token, it is invalid unless only blanks follow it.
+    private void readTokenText() throws IOException {
+        token.setLength(0);
+        blanks.setLength(0);
+        blankCount = 0;
+        truncated = false;
+        for (int next = peek(0); next != END_OF_INPUT && !LexicalRules.isTokenEnd((char) next); next = peek(0)) {
+            char value = (char) next;
+            if (LexicalRules.isTrimmed(value)) {
+                if (blanks.length() < MAX_TOKEN_LENGTH) {
+                    blanks.append(value);
+                }
+                if (controlPosition < 0 && !LexicalRules.isWhiteSpace(value)) {
+                    controlPosition = positionOf(bufferPosition);
+                    control = value;
+                }
+                blankCount++;
+            } else {
+                if (blankCount > 0) {
+                    append(blanks, blankCount);
+                    blanks.setLength(0);
+                    blankCount = 0;
+                    controlPosition = -1;
+                }
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.append(value);
+                } else {
+                    truncated = true;
+                }
+            }
+            bufferPosition++;
+        }
+    }
+
+    private void append(CharSequence characters, long count) {
+        if (token.length() + count > MAX_TOKEN_LENGTH) {
+            truncated = true;
+        }
+        token.append(characters, 0, Math.min(characters.length(), MAX_TOKEN_LENGTH - token.length()));
+    }
+
+    private boolean parseDigit() {
+        long value = truncated ? LexicalRules.INVALID_NUMBER : LexicalRules.parseNumber(token, 0, token.length());
+        if (value == LexicalRules.INVALID_NUMBER) {
+            errors.invalidToken(offset(position), token);
+            return false;
+        }
+        if (value == LexicalRules.OUT_OF_RANGE) {
+            errors.invalidNumber(offset(position));
+            return false;
+        }
+        type = Type.digit;
+        numberValue = (int) value;
+        return true;
+    }
+
+    //The character ahead of the current one, reading more of the input when the buffer holds too few
+    private int peek(int ahead) throws IOException {
+        while (bufferPosition + ahead >= bufferLimit) {
+            if (endOfInput || !fill()) {
+                return END_OF_INPUT;
+            }
+        }
+        return buffer[bufferPosition + ahead];
+    }
+
+    //Moves the unread characters to the start of the buffer and reads after them
+    private boolean fill() throws IOException {
+        int remaining = bufferLimit - bufferPosition;
+        System.arraycopy(buffer, bufferPosition, buffer, 0, remaining);
+        bufferStart += bufferPosition;
+        bufferPosition = 0;
+        bufferLimit = remaining;
+
+        int read;
+        if (reader != null) {
+            read = reader.read(buffer, bufferLimit, buffer.length - bufferLimit);
+        } else {
+            //Called on Buffer, the ByteBuffer overrides only exist from Java 9 on
+            ((Buffer) bytes).clear().limit(buffer.length - bufferLimit);
+            read = channel.read(bytes);
+            for (int i = 0; i < read; i++) {
+                buffer[bufferLimit + i] = (char) (bytes.get(i) & 0xFF);
+            }
+        }
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        bufferLimit += read;
+        return true;
+    }
+
+    private long positionOf(int bufferIndex) {
+        return bufferStart + bufferIndex;
+    }
+
+    private static int offset(long position) {
+        return (int) Math.min(position, Integer.MAX_VALUE);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getNumberValue() {
+        return numberValue;
+    }
+
+    public String getVariableName() {
+        return variableName;
+    }
+
+    /**
+     * @return The position of the current token, or the end of the input once the cursor has moved past the last token.
+     */
+    public int getPosition() {
+        return offset(position);
+    }
+}
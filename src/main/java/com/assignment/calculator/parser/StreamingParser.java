@@ -0,0 +1,141 @@
+package com.assignment.calculator.parser;
+
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validates an expression read from a {@link StreamingLexer} against the same grammar as the {@link Parser}, without
+ * building a tree. Each sub-expression is handed to an {@link ExpressionListener} as soon as it is closed, so only the
+ * operators still open are kept and memory is bounded by the nesting depth of the expression instead of its size.
+ *
+ * Tokens are read as the parse needs them, so the first error in the input is reported, whether it is an invalid token,
+ * a syntax error or an error of the listener. The {@link Parser} reports an invalid token anywhere in the input first.
+ */
+public class StreamingParser {
+    private static final int LAST_OPERAND = 0;
+    private static final int FIRST_OPERAND = 1;
+    private static final Type[] TYPES = Type.values();
+
+    private StreamingParser() {}
+
+    /**
+     * @param lexer Lexer positioned before the first token.
+     * @param listener Receives the expression in post order.
+     * @param errors The report the lexer records into, the first error found is recorded in it.
+     * @return false if the expression is invalid or the listener stopped the parse.
+     * @throws IOException If the input cannot be read.
+     */
+    public static boolean parse(StreamingLexer lexer, ExpressionListener listener, ErrorReport errors) throws IOException {
+        //Every open operator is a pair of type and the operand it expects, a let expression also keeps its variable name
+        int[] parentStack = new int[32];
+        int parentCount = 0;
+        List<String> letNames = new ArrayList<>();
+        while (true) {
+            //Read one expression
+            if (!lexer.advance()) {
+                return unexpected(lexer, Parser.EXPRESSION, errors);
+            }
+            Type type = lexer.getType();
+            if (Type.digit == type) {
+                if (!listener.number(lexer.getNumberValue())) {
+                    return false;
+                }
+            } else if (Type.var == type) {
+                if (!listener.variable(lexer.getVariableName())) {
+                    return false;
+                }
+            } else if (isOperator(type)) {
+                if (!expect(lexer, Type.lparenth)) {
+                    return unexpected(lexer, Parser.LPARENTH, errors);
+                }
+                if (Type.let == type) {
+                    if (!expect(lexer, Type.var)) {
+                        return unexpected(lexer, Parser.VARIABLE, errors);
+                    }
+                    letNames.add(lexer.getVariableName());
+                    if (!expect(lexer, Type.comma)) {
+                        return unexpected(lexer, Parser.COMMA, errors);
+                    }
+                }
+                if (parentCount == parentStack.length) {
+                    parentStack = Arrays.copyOf(parentStack, parentCount * 2);
+                }
+                parentStack[parentCount++] = type.ordinal();
+                parentStack[parentCount++] = FIRST_OPERAND;
+                continue;
+            } else {
+                return unexpected(lexer, Parser.EXPRESSION, errors);
+            }
+
+            //Close every expression completed by it, until one still expects another operand
+            boolean expectsOperand = false;
+            while (!expectsOperand && parentCount > 0) {
+                int state = parentStack[--parentCount];
+                Type parent = TYPES[parentStack[--parentCount]];
+                if (state == FIRST_OPERAND) {
+                    if (!expect(lexer, Type.comma)) {
+                        return unexpected(lexer, Parser.COMMA, errors);
+                    }
+                    if (Type.let == parent && !listener.bind(letNames.get(letNames.size() - 1))) {
+                        return false;
+                    }
+                    parentStack[parentCount++] = parent.ordinal();
+                    parentStack[parentCount++] = LAST_OPERAND;
+                    expectsOperand = true;
+                } else {
+                    boolean hasToken = lexer.advance();
+                    if (hasToken && Type.comma == lexer.getType()) {
+                        errors.invalidArguments(lexer.getPosition(), Parser.RPARENTH);
+                        return false;
+                    } else if (!hasToken || Type.rparenth != lexer.getType()) {
+                        return unexpected(lexer, Parser.RPARENTH, errors);
+                    }
+                    boolean closed = Type.let == parent
+                            ? listener.unbind(letNames.remove(letNames.size() - 1))
+                            : listener.operator(parent);
+                    if (!closed) {
+                        return false;
+                    }
+                }
+            }
+            if (!expectsOperand) {
+                break;
+            }
+        }
+
+        if (lexer.advance()) {
+            return unexpected(lexer, Parser.END_OF_INPUT, errors);
+        }
+        return !errors.hasError();
+    }
+
+    //Moves to the next token, which has to be of the given type
+    private static boolean expect(StreamingLexer lexer, Type type) throws IOException {
+        return lexer.advance() && type == lexer.getType();
+    }
+
+    //An invalid token has already been recorded by the lexer
+    private static boolean unexpected(StreamingLexer lexer, String expected, ErrorReport errors) {
+        if (!errors.hasError()) {
+            errors.syntax(lexer.getPosition(), expected);
+        }
+        return false;
+    }
+
+    private static boolean isOperator(Type type) {
+        switch (type) {
+            case add:
+            case sub:
+            case mul:
+            case div:
+            case let:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
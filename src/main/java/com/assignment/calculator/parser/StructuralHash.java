@@ -0,0 +1,50 @@
+package com.assignment.calculator.parser;
+
+/**
+ * 128 bit hash of the structure of a closed sub-tree, see {@link Node#getStructuralHash()}. Two sub-trees with the
+ * same hash are taken to have the same value, so the hash is made of two independent 64 bit halves to make a
+ * collision between different sub-trees negligible. It also holds the number of nodes of the sub-tree, the cost of
+ * evaluating it again.
+ */
+public final class StructuralHash {
+    private final long high;
+    private final long low;
+    private final int cost;
+
+    public StructuralHash(long high, long low, int cost) {
+        this.high = high;
+        this.low = low;
+        this.cost = cost;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof StructuralHash)) {
+            return false;
+        }
+        StructuralHash hash = (StructuralHash) obj;
+        return high == hash.high && low == hash.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
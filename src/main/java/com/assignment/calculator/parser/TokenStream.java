@@ -0,0 +1,284 @@
+package com.assignment.calculator.parser;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact list of tokens stored in parallel arrays instead of one {@link Token} object per token.
+ *
+ * Each token has a type code and an int value. For a digit the value is the number itself, for a variable it is the
+ * index of its name in an identifier table shared by all tokens of the stream. The table does not copy the names, it
+ * keeps where they start and end in the source the tokens were read from. A name only becomes a String when it is asked
+ * for, so the source must not change while the tokens are in use. Tokens are read with a cursor (see {@link #advance()})
+ * or by index.
+ *
+ * A number outside of the int range is only kept when it is lexed for exact calculations. It is a digit token whose
+ * value indexes its digits in the identifier table, see {@link #isBigNumber(int)}.
+ *
+ * Every token also keeps its position, the offset of its first character in the input, so errors can point at it.
+ * A stream built from a list of tokens uses the index of each token as its position.
+ */
+public class TokenStream {
+    private static final Type[] TYPES = Type.values();
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] types;
+    private int[] values;
+    private int[] positions;
+    private int endPosition;
+    private int size;
+    private int cursor = -1;
+
+    private final CharSequence source;
+    private int[] identifierStarts;
+    private int[] identifierEnds;
+    private int identifierCount;
+    //Indexes of the big number tokens, only allocated for the first one
+    private BitSet bigNumbers;
+
+    /**
+     * @param source The text the tokens are read from, variable names are slices of it.
+     */
+    public TokenStream(CharSequence source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+
+    public TokenStream(CharSequence source, int capacity) {
+        int initialCapacity = Math.max(capacity, 1);
+        this.source = source;
+        types = new byte[initialCapacity];
+        values = new int[initialCapacity];
+        positions = new int[initialCapacity];
+        identifierStarts = new int[initialCapacity];
+        identifierEnds = new int[initialCapacity];
+    }
+
+    /**
+     * Adapter for the {@link Token} based API.
+     *
+     * @param tokens List of tokens to copy.
+     * @return A stream holding the same tokens, positioned before the first token.
+     */
+    public static TokenStream of(List<Token> tokens) {
+        StringBuilder variableNames = new StringBuilder();
+        for (Token token : tokens) {
+            if (Type.var == token.getType()) {
+                variableNames.append(token.getVariableName());
+            }
+        }
+
+        TokenStream stream = new TokenStream(variableNames, tokens.size());
+        int variableNameStart = 0;
+        for (Token token : tokens) {
+            int position = stream.size();
+            if (Type.digit == token.getType()) {
+                stream.addNumber(token.getNumberValue(), position);
+            } else if (Type.var == token.getType()) {
+                int variableNameEnd = variableNameStart + token.getVariableName().length();
+                stream.addVariable(variableNameStart, variableNameEnd, position);
+                variableNameStart = variableNameEnd;
+            } else {
+                stream.add(token.getType(), position);
+            }
+        }
+        stream.setEndPosition(stream.size());
+        return stream;
+    }
+
+    public void add(Type type, int position) {
+        append(type, 0, position);
+    }
+
+    public void addNumber(int numberValue, int position) {
+        append(Type.digit, numberValue, position);
+    }
+
+    /**
+     * Adds a variable token named source[start, end), without copying the name. Its position is start.
+     */
+    public void addVariable(int start, int end) {
+        addVariable(start, end, start);
+    }
+
+    private void addVariable(int start, int end, int position) {
+        append(Type.var, addIdentifier(start, end), position);
+    }
+
+    /**
+     * Adds a digit token for a number outside of the int range written in source[start, end), without converting it.
+     * Its position is start.
+     */
+    public void addBigNumber(int start, int end) {
+        if (bigNumbers == null) {
+            bigNumbers = new BitSet();
+        }
+        bigNumbers.set(size);
+        append(Type.digit, addIdentifier(start, end), start);
+    }
+
+    private int addIdentifier(int start, int end) {
+        if (identifierCount == identifierStarts.length) {
+            identifierStarts = Arrays.copyOf(identifierStarts, identifierCount * 2);
+            identifierEnds = Arrays.copyOf(identifierEnds, identifierCount * 2);
+        }
+        identifierStarts[identifierCount] = start;
+        identifierEnds[identifierCount] = end;
+        return identifierCount++;
+    }
+
+    private void append(Type type, int value, int position) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        types[size] = (byte) type.ordinal();
+        values[size] = value;
+        positions[size] = position;
+        size++;
+    }
+
+    /**
+     * @param endPosition The position just after the last character of the input, reported for errors at the end of it.
+     */
+    public void setEndPosition(int endPosition) {
+        this.endPosition = endPosition;
+    }
+
+    public int getEndPosition() {
+        return endPosition;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Type getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getNumberValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return true if the token is a number outside of the int range, its value is then read with
+     * {@link #getBigNumberValue(int)} instead of {@link #getNumberValue(int)}.
+     */
+    public boolean isBigNumber(int index) {
+        return bigNumbers != null && bigNumbers.get(index);
+    }
+
+    public BigInteger getBigNumberValue(int index) {
+        return new BigInteger(identifierSlice(index).toString());
+    }
+
+    public int getPosition(int index) {
+        return positions[index];
+    }
+
+    public String getVariableName(int index) {
+        return getVariableSlice(index).toString();
+    }
+
+    /**
+     * @return The name of the variable as a slice of the source, without creating a String.
+     */
+    public CharSequence getVariableSlice(int index) {
+        return identifierSlice(index);
+    }
+
+    private CharSequence identifierSlice(int index) {
+        int identifier = values[index];
+        return source.subSequence(identifierStarts[identifier], identifierEnds[identifier]);
+    }
+
+    /**
+     * Moves the cursor to the next token.
+     *
+     * @return false if there are no more tokens.
+     */
+    public boolean advance() {
+        if (cursor + 1 >= size) {
+            cursor = size;
+            return false;
+        }
+        cursor++;
+        return true;
+    }
+
+    /**
+     * @return The index of the current token.
+     */
+    public int getIndex() {
+        return cursor;
+    }
+
+    public boolean hasNext() {
+        return cursor + 1 < size;
+    }
+
+    /**
+     * Moves the cursor back before the first token so the stream can be read again.
+     */
+    public void rewind() {
+        cursor = -1;
+    }
+
+    public Type getType() {
+        return getType(cursor);
+    }
+
+    public int getNumberValue() {
+        return getNumberValue(cursor);
+    }
+
+    public boolean isBigNumber() {
+        return isBigNumber(cursor);
+    }
+
+    public BigInteger getBigNumberValue() {
+        return getBigNumberValue(cursor);
+    }
+
+    public String getVariableName() {
+        return getVariableName(cursor);
+    }
+
+    /**
+     * @return The position of the current token, or the end position once the cursor has moved past the last token.
+     */
+    public int getPosition() {
+        return cursor < size ? getPosition(cursor) : endPosition;
+    }
+
+    /**
+     * @return The tokens as an unmodifiable list of {@link Token} objects.
+     * @throws IllegalStateException If a token is a big number, which a {@link Token} cannot hold.
+     */
+    public List<Token> toTokens() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Type type = getType(i);
+            if (isBigNumber(i)) {
+                throw new IllegalStateException("Number out of the int range at " + getPosition(i));
+            }
+            if (Type.digit == type) {
+                tokens.add(new Token(type, getNumberValue(i)));
+            } else if (Type.var == type) {
+                tokens.add(new Token(type, getVariableName(i)));
+            } else {
+                tokens.add(new Token(type));
+            }
+        }
+        return Collections.unmodifiableList(tokens);
+    }
+}
@@ -1,12 +1,79 @@
 package com.assignment.calculator.parser.exceptions;
 
 public class CalculatorExpressionParserException extends Exception {
+    /** Offset of an error that cannot be tied to a position in the input. */
+    public static final int UNKNOWN_OFFSET = -1;
+
+    private final ErrorCode code;
+    private final int offset;
+    private final String expected;
 
     public CalculatorExpressionParserException() {
         super();
+        this.code = ErrorCode.SYNTAX;
+        this.offset = UNKNOWN_OFFSET;
+        this.expected = null;
     }
 
     public CalculatorExpressionParserException(String s) {
         super(s);
+        this.code = ErrorCode.SYNTAX;
+        this.offset = UNKNOWN_OFFSET;
+        this.expected = null;
+    }
+
+    /**
+     * @param s The detail message.
+     * @param offset Character offset of the error in the input expression.
+     * @param expected Description of the token expected at the offset, null if any other token would not help.
+     */
+    public CalculatorExpressionParserException(String s, int offset, String expected) {
+        this(s, ErrorCode.SYNTAX, offset, expected);
+    }
+
+    /**
+     * @param s The detail message.
+     * @param code The reason of the error.
+     * @param offset Character offset of the error in the input expression.
+     * @param expected Description of the token expected at the offset, null if any other token would not help.
+     */
+    public CalculatorExpressionParserException(String s, ErrorCode code, int offset, String expected) {
+        this(s, code, offset, expected, true);
+    }
+
+    /**
+     * @param s The detail message.
+     * @param code The reason of the error.
+     * @param offset Character offset of the error in the input expression.
+     * @param expected Description of the token expected at the offset, null if any other token would not help.
+     * @param writableStackTrace false for a stackless exception, which is much cheaper to create. Its stack trace is
+     *                           empty, the code and offset tell where the expression failed.
+     */
+    public CalculatorExpressionParserException(String s, ErrorCode code, int offset, String expected, boolean writableStackTrace) {
+        super(s, null, writableStackTrace, writableStackTrace);
+        this.code = code;
+        this.offset = offset;
+        this.expected = expected;
+    }
+
+    /**
+     * @return The reason of the error, {@link ErrorCode#SYNTAX} when no more specific reason is known.
+     */
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    /**
+     * @return Character offset of the error in the input expression, or {@link #UNKNOWN_OFFSET}.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Description of the token expected at the offset, ie. "','", or null.
+     */
+    public String getExpected() {
+        return expected;
     }
 }
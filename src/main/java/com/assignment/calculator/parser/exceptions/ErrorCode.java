@@ -0,0 +1,38 @@
+package com.assignment.calculator.parser.exceptions;
+
+/**
+ * Represents all the reasons an expression can fail to be calculated.
+ */
+public enum ErrorCode {
+    /** A character or token that is not part of the specifications. */
+    INVALID_TOKEN,
+    /** A number that does not fit in an int. */
+    INVALID_NUMBER,
+    /** Valid tokens in an order that does not match the grammar. */
+    SYNTAX,
+    /** An expression with more than two operands. */
+    INVALID_ARGUMENTS,
+    /** A variable used where no let expression binds it. */
+    UNDEFINED_VARIABLE,
+    /** A division by zero while evaluating. */
+    DIVISION_BY_ZERO,
+    /** A result that does not fit in an int, only reported in checked mode. */
+    OVERFLOW;
+
+    /** Message of an overflow, the same as the one of {@link Math#addExact(int, int)}. */
+    public static final String OVERFLOW_MESSAGE = "integer overflow";
+
+    /**
+     * @return true for the errors raised as an {@link ArithmeticException} instead of a parser exception.
+     */
+    public boolean isArithmetic() {
+        return this == DIVISION_BY_ZERO || this == OVERFLOW;
+    }
+
+    /**
+     * @return The reason of an exception raised while evaluating.
+     */
+    public static ErrorCode of(ArithmeticException ae) {
+        return OVERFLOW_MESSAGE.equals(ae.getMessage()) ? OVERFLOW : DIVISION_BY_ZERO;
+    }
+}
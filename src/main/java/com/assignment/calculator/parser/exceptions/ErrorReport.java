@@ -0,0 +1,162 @@
+package com.assignment.calculator.parser.exceptions;
+
+/**
+ * Records why an expression failed without creating an exception, so failures are cheap when many expressions are
+ * calculated at once. The non-throwing variants of the lexer, parser, resolver and interpreter record the first error
+ * they find here and stop. The throwing variants turn the record into an exception with the same message.
+ *
+ * A report holds one error at a time and can be reused after {@link #clear()}. It is not thread safe.
+ */
+public class ErrorReport {
+    private static final String ERROR_MESSAGE = "The input did not match specifications";
+    private static final String ARGUMENTS_ERROR_MESSAGE = "Invalid number of arguments for an expression: ";
+
+    private ErrorCode code;
+    private int offset = CalculatorExpressionParserException.UNKNOWN_OFFSET;
+    private String expected;
+    private CharSequence source;
+    private int start;
+    private int end;
+    private String variableName;
+
+    public boolean hasError() {
+        return code != null;
+    }
+
+    /**
+     * @return The reason of the error, or null if no error has been recorded.
+     */
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    /**
+     * @return Character offset of the error in the input expression, or {@link CalculatorExpressionParserException#UNKNOWN_OFFSET}.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Description of the token expected at the offset, or null.
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * @return A copy of the report that no longer refers to the input, so it keeps its message once the input is
+     * changed or reused. Only the text of an invalid token is copied.
+     */
+    public ErrorReport copy() {
+        ErrorReport copy = new ErrorReport();
+        copy.record(code, offset, expected);
+        if (source != null) {
+            copy.source = source.subSequence(start, end).toString();
+            copy.end = end - start;
+        }
+        copy.variableName = variableName;
+        return copy;
+    }
+
+    public void clear() {
+        record(null, CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+        source = null;
+        variableName = null;
+    }
+
+    /**
+     * Records that source[start, end) is not a valid token.
+     */
+    public void invalidToken(CharSequence source, int start, int end) {
+        record(ErrorCode.INVALID_TOKEN, start, null);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Records that the token at the offset is not a valid token, for input that is no longer available once read.
+     *
+     * @param token The text of the token, it is copied.
+     */
+    public void invalidToken(int offset, CharSequence token) {
+        invalidToken(token.toString(), 0, token.length());
+        this.offset = offset;
+    }
+
+    public void invalidNumber(int offset) {
+        record(ErrorCode.INVALID_NUMBER, offset, null);
+    }
+
+    public void syntax(int offset, String expected) {
+        record(ErrorCode.SYNTAX, offset, expected);
+    }
+
+    public void invalidArguments(int offset, String expected) {
+        record(ErrorCode.INVALID_ARGUMENTS, offset, expected);
+    }
+
+    public void undefinedVariable(String variableName) {
+        record(ErrorCode.UNDEFINED_VARIABLE, CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+        this.variableName = variableName;
+    }
+
+    public void divisionByZero() {
+        record(ErrorCode.DIVISION_BY_ZERO, CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+    }
+
+    public void overflow() {
+        record(ErrorCode.OVERFLOW, CalculatorExpressionParserException.UNKNOWN_OFFSET, null);
+    }
+
+    private void record(ErrorCode code, int offset, String expected) {
+        this.code = code;
+        this.offset = offset;
+        this.expected = expected;
+    }
+
+    /**
+     * @return The message the throwing variants use for the recorded error, or null if there is none.
+     */
+    public String getMessage() {
+        if (code == null) {
+            return null;
+        }
+        switch (code) {
+            case INVALID_TOKEN:
+                return ERROR_MESSAGE + ": " + source.subSequence(start, end);
+            case INVALID_NUMBER:
+                return "Invalid number format";
+            case INVALID_ARGUMENTS:
+                return ARGUMENTS_ERROR_MESSAGE + expectedAt();
+            case UNDEFINED_VARIABLE:
+                return "Undefined variable: " + variableName;
+            case DIVISION_BY_ZERO:
+                return "/ by zero";
+            case OVERFLOW:
+                return ErrorCode.OVERFLOW_MESSAGE;
+            default:
+                return expected == null ? ERROR_MESSAGE : ERROR_MESSAGE + ": " + expectedAt();
+        }
+    }
+
+    private String expectedAt() {
+        return "expected " + expected + " at offset " + offset;
+    }
+
+    /**
+     * @return The exception the throwing variants of the lexer, parser and resolver raise for the recorded error.
+     */
+    public CalculatorExpressionParserException toParserException() {
+        return new CalculatorExpressionParserException(getMessage(), code, offset, expected);
+    }
+
+    /**
+     * @return The same exception as {@link #toParserException()} without a stack trace, for callers that handle many
+     * invalid expressions.
+     */
+    public CalculatorExpressionParserException toStacklessParserException() {
+        return new CalculatorExpressionParserException(getMessage(), code, offset, expected, false);
+    }
+}
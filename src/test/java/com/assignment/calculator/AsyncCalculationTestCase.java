@@ -0,0 +1,316 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncCalculationTestCase {
+    private static final int COUNT = 1000;
+    private static final Executor CALLER = Runnable::run;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Calculate calculate = new Calculate();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFutureCompletesWithValue() throws Exception {
+        assertEquals(Integer.valueOf(3), calculate.performCalculationAsync("add(1, 2)", executor).get());
+        assertEquals(Integer.valueOf(55), calculate.performCalculationAsync("let(a, 5, let(b, mul(a, 10), add(b, a)))").join());
+    }
+
+    @Test
+    public void testFutureFailsWithTheExceptionOfPerformCalculation() throws InterruptedException {
+        try {
+            calculate.performCalculationAsync("add(1, 2", executor).get();
+            fail("Expected a syntax error");
+        } catch (ExecutionException ee) {
+            CalculatorExpressionParserException cep = (CalculatorExpressionParserException) ee.getCause();
+            assertEquals(ErrorCode.SYNTAX, cep.getCode());
+            assertEquals(8, cep.getOffset());
+        }
+        try {
+            calculate.performCalculationAsync("div(1, 0)", executor).get();
+            fail("Expected a division by zero");
+        } catch (ExecutionException ee) {
+            assertEquals("/ by zero", ee.getCause().getMessage());
+            assertTrue(ee.getCause() instanceof ArithmeticException);
+        }
+    }
+
+    @Test
+    public void testOrderedResultsFollowTheExpressions() throws InterruptedException {
+        CalculationProcessor processor = new CalculationProcessor(calculate, executor, 16, true);
+        ExpressionPublisher publisher = new ExpressionPublisher(expressions(COUNT));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+
+        subscriber.await();
+        assertNull(subscriber.error);
+        assertEquals(COUNT, subscriber.results.size());
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(i, subscriber.results.get(i).getValue());
+        }
+        assertTrue(publisher.maxOutstanding <= 16);
+    }
+
+    @Test
+    public void testUnorderedResultsHoldEveryExpression() throws InterruptedException {
+        CalculationProcessor processor = new CalculationProcessor(calculate, executor, 16, false);
+        ExpressionPublisher publisher = new ExpressionPublisher(expressions(COUNT));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+
+        subscriber.await();
+        Set<Integer> values = new HashSet<>();
+        for (CalculationResult result : subscriber.results) {
+            assertEquals("add(" + result.getValue() + ", 0)", result.getExpression());
+            values.add(result.getValue());
+        }
+        assertEquals(COUNT, values.size());
+        assertTrue(publisher.maxOutstanding <= 16);
+    }
+
+    @Test
+    public void testProcessesExpressionsOfJdkPublisher() throws InterruptedException {
+        CalculationProcessor processor = new CalculationProcessor(calculate, executor, 16, true);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        try (SubmissionPublisher<String> publisher = new SubmissionPublisher<>(executor, 8)) {
+            publisher.subscribe(processor);
+            for (String expression : expressions(COUNT)) {
+                publisher.submit(expression);
+            }
+        }
+
+        subscriber.await();
+        assertTrue(subscriber.completed);
+        assertEquals(COUNT, subscriber.results.size());
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(i, subscriber.results.get(i).getValue());
+        }
+    }
+
+    @Test
+    public void testOnlyRequestedResultsAreEmitted() {
+        CalculationProcessor processor = new CalculationProcessor(calculate, CALLER, 4, true);
+        ExpressionPublisher publisher = new ExpressionPublisher(expressions(10));
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+
+        //The window is calculated ahead, nothing more until results are emitted
+        assertEquals(0, subscriber.results.size());
+        assertEquals(4, publisher.requested);
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.results.size());
+        assertEquals(7, publisher.requested);
+        subscriber.subscription.request(7);
+        assertEquals(10, subscriber.results.size());
+        assertTrue(subscriber.completed);
+        assertTrue(publisher.maxOutstanding <= 4);
+    }
+
+    @Test
+    public void testFailedExpressionsAreResults() {
+        CalculationProcessor processor = new CalculationProcessor(calculate, CALLER, 2, true);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        new ExpressionPublisher(Arrays.asList("add(1, 2", "div(1, 0)", "mul(2, 3)")).subscribe(processor);
+
+        assertTrue(subscriber.completed);
+        assertEquals(ErrorCode.SYNTAX, subscriber.results.get(0).getError());
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, subscriber.results.get(1).getError());
+        assertEquals(6, subscriber.results.get(2).getValue());
+    }
+
+    @Test
+    public void testPublisherErrorFollowsTheResults() {
+        CalculationProcessor processor = new CalculationProcessor(calculate, CALLER, 8, true);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        ExpressionPublisher publisher = new ExpressionPublisher(expressions(3));
+        publisher.failure = new IllegalStateException("Input lost");
+        publisher.subscribe(processor);
+
+        assertEquals(3, subscriber.results.size());
+        assertEquals("Input lost", subscriber.error.getMessage());
+        assertTrue(!subscriber.completed);
+    }
+
+    @Test
+    public void testCancelStopsThePublisher() {
+        CalculationProcessor processor = new CalculationProcessor(calculate, CALLER, 4, true);
+        ExpressionPublisher publisher = new ExpressionPublisher(expressions(100));
+        RecordingSubscriber subscriber = new RecordingSubscriber(2);
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+        assertTrue(publisher.cancelled);
+        assertEquals(2, subscriber.results.size());
+        assertTrue(!subscriber.completed);
+    }
+
+    @Test
+    public void testRejectedCalculationFailsTheStream() {
+        CalculationProcessor processor = new CalculationProcessor(calculate, runnable -> {
+            throw new RejectedExecutionException("Shut down");
+        }, 4, true);
+        ExpressionPublisher publisher = new ExpressionPublisher(expressions(10));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+
+        assertTrue(subscriber.error instanceof RejectedExecutionException);
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void testOnlyOneSubscriber() {
+        CalculationProcessor processor = new CalculationProcessor(calculate, CALLER, 4, true);
+        processor.subscribe(new RecordingSubscriber(0));
+        RecordingSubscriber second = new RecordingSubscriber(0);
+        processor.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testNonPositiveRequestFailsTheStream() {
+        CalculationProcessor processor = new CalculationProcessor(calculate, CALLER, 4, true);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        processor.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsEmptyWindow() {
+        new CalculationProcessor(calculate, CALLER, 0, true);
+    }
+
+    private static List<String> expressions(int count) {
+        List<String> expressions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            expressions.add("add(" + i + ", 0)");
+        }
+        return expressions;
+    }
+
+    //Publishes the expressions as they are requested, recording how many were requested ahead of the ones published
+    private static class ExpressionPublisher implements Flow.Publisher<String> {
+        private final List<String> expressions;
+        private Throwable failure;
+        private long requested;
+        private int published;
+        private long maxOutstanding;
+        private boolean publishing;
+        private volatile boolean cancelled;
+
+        private ExpressionPublisher(List<String> expressions) {
+            this.expressions = expressions;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super String> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public synchronized void request(long n) {
+                    requested += n;
+                    maxOutstanding = Math.max(maxOutstanding, requested - published);
+                    //Requests made while publishing are served by the loop already running
+                    if (publishing) {
+                        return;
+                    }
+                    publishing = true;
+                    while (!cancelled && published < requested && published < expressions.size()) {
+                        subscriber.onNext(expressions.get(published++));
+                    }
+                    if (!cancelled && published == expressions.size()) {
+                        cancelled = true;
+                        if (failure == null) {
+                            subscriber.onComplete();
+                        } else {
+                            subscriber.onError(failure);
+                        }
+                    }
+                    publishing = false;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<CalculationResult> {
+        private final long initialRequest;
+        private final List<CalculationResult> results = new ArrayList<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        private RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(CalculationResult item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        private void await() throws InterruptedException {
+            assertTrue(terminated.await(10, TimeUnit.SECONDS));
+        }
+    }
+}
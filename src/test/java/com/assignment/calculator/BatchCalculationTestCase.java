@@ -0,0 +1,101 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchCalculationTestCase {
+    private static final String[] EXPRESSIONS = {
+            "add(1, 2)",
+            "let(a, 5, let(b, mul(a, 10), add(b, a)))",
+            "div(10, 0)",
+            "add(1, 2",
+            "add(a, 1)",
+            "mul(32723423423423467, 2)",
+            "add(1, #)",
+            null,
+            "add(-2, 3, 2)"
+    };
+
+    @Test
+    public void testBatchReportsValuesAndErrorsByIndex() {
+        BatchResult result = new Calculate().performCalculations(Arrays.asList(EXPRESSIONS));
+
+        assertEquals(EXPRESSIONS.length, result.size());
+        assertArrayEquals(new int[] {3, 55, 0, 0, 0, 0, 0, 0, 0}, result.getValues());
+        assertArrayEquals(new ErrorCode[] {null, null, ErrorCode.DIVISION_BY_ZERO, ErrorCode.SYNTAX, ErrorCode.UNDEFINED_VARIABLE,
+                ErrorCode.INVALID_NUMBER, ErrorCode.INVALID_TOKEN, ErrorCode.SYNTAX, ErrorCode.INVALID_ARGUMENTS}, result.getErrors());
+        assertEquals(7, result.getErrorCount());
+        assertEquals(8, result.getErrorOffset(3));
+        assertEquals(7, result.getErrorOffset(6));
+    }
+
+    @Test
+    public void testBatchExceptionsMatchSingleCalculation() {
+        Calculate calculate = new Calculate();
+        BatchResult result = calculate.performCalculations(EXPRESSIONS);
+
+        for (int i = 0; i < EXPRESSIONS.length; i++) {
+            if (result.isSuccess(i) || EXPRESSIONS[i] == null) {
+                continue;
+            }
+            Exception exception = result.getException(i);
+            try {
+                calculate.performCalculation(EXPRESSIONS[i]);
+            } catch (CalculatorExpressionParserException expected) {
+                assertEquals(expected.getMessage(), exception.getMessage());
+                assertEquals(expected.getOffset(), ((CalculatorExpressionParserException) exception).getOffset());
+            } catch (ArithmeticException expected) {
+                assertEquals(ArithmeticException.class, exception.getClass());
+            }
+        }
+        assertNull(result.getException(0));
+    }
+
+    @Test
+    public void testErrorsOutliveTheirExpressions() {
+        StringBuilder token = new StringBuilder("add(1, #)");
+        StringBuilder division = new StringBuilder("div(10, 0)");
+        BatchResult result = new Calculate().performCalculations(new CharSequence[] {token, division});
+        token.setLength(0);
+        token.append("add(1, 2)");
+        division.setLength(0);
+
+        assertEquals("The input did not match specifications: #", result.getErrorMessage(0));
+        assertEquals(7, ((CalculatorExpressionParserException) result.getException(0)).getOffset());
+        assertEquals("/ by zero", result.getErrorMessage(1));
+        assertTrue(result.getException(1) instanceof ArithmeticException);
+    }
+
+    @Test
+    public void testLargeBatchMatchesSequentialCalculation() throws CalculatorExpressionParserException {
+        Calculate calculate = new Calculate();
+        String[] expressions = new String[10000];
+        for (int i = 0; i < expressions.length; i++) {
+            expressions[i] = "let(a, " + i + ", div(mul(a, 10), sub(a, " + (i % 100) + ")))";
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BatchResult result = calculate.performCalculations(expressions, pool);
+            for (int i = 0; i < expressions.length; i++) {
+                if (i < 100) {
+                    assertEquals(ErrorCode.DIVISION_BY_ZERO, result.getError(i));
+                } else {
+                    assertTrue(result.isSuccess(i));
+                    assertEquals(calculate.performCalculation(expressions[i]), result.getValue(i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.BytecodeCompiler;
+import com.assignment.calculator.compiler.CompiledExpression;
+import com.assignment.calculator.compiler.IntExpression;
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.Program;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BytecodeCompilerTestCase {
+    private static final String[] EXPRESSIONS = {
+            "add(1, 2)",
+            "sub(111, -30000)",
+            "div(5, 2)",
+            "mul(add(2, 2), div(9, 3))",
+            "let(a, 5, let(b, mul(a, 10), add(b, a)))",
+            "let(a, let(b, 10, add(b, b)), let(b, 20, add(a, b)))",
+            "add(mul(200, -129), mul(40000, 2147483647))"
+    };
+
+    @Test
+    public void testGeneratedClassMatchesInterpreter() throws CalculatorExpressionParserException {
+        for (String expression : EXPRESSIONS) {
+            Program program = compile(expression);
+            assertEquals(expression, Interpreter.execute(program), BytecodeCompiler.compile(program).evaluate());
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testGeneratedClassDividesByZero() throws CalculatorExpressionParserException {
+        BytecodeCompiler.compile(compile("div(10, sub(2, 2))")).evaluate();
+    }
+
+    @Test
+    public void testGeneratedClassReportsFailuresWithoutThrowing() throws CalculatorExpressionParserException {
+        ErrorReport errors = new ErrorReport();
+        assertEquals(0, BytecodeCompiler.compile(compile("div(10, sub(2, 2))")).evaluate(null, errors));
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, errors.getCode());
+
+        errors = new ErrorReport();
+        assertEquals(0, BytecodeCompiler.compile(compileChecked("add(2147483647, 1)")).evaluate(null, errors));
+        assertEquals(ErrorCode.OVERFLOW, errors.getCode());
+
+        //The first failure is the one reported
+        errors = new ErrorReport();
+        assertEquals(0, BytecodeCompiler.compile(compileChecked("add(mul(65536, 65536), div(1, 0))")).evaluate(null, errors));
+        assertEquals(ErrorCode.OVERFLOW, errors.getCode());
+
+        for (String expression : EXPRESSIONS) {
+            errors = new ErrorReport();
+            Program program = compile(expression);
+            assertEquals(expression, Interpreter.execute(program), BytecodeCompiler.compile(program).evaluate(null, errors));
+            assertFalse(errors.hasError());
+        }
+    }
+
+    @Test
+    public void testPromotedExpressionReportsFailures() throws CalculatorExpressionParserException {
+        CompiledExpression expression = new CompiledExpression(compileChecked("let(a, 65536, mul(a, a))"), 1);
+        ErrorReport errors = new ErrorReport();
+        assertEquals(0, expression.evaluate(errors));
+        assertTrue(expression.isPromoted());
+        errors = new ErrorReport();
+        assertEquals(0, expression.evaluate(errors));
+        assertEquals(ErrorCode.OVERFLOW, errors.getCode());
+    }
+
+    @Test
+    public void testProgramTooLargeForOneMethodIsNotCompiled() throws CalculatorExpressionParserException {
+        assertNull(BytecodeCompiler.compile(compile(balancedAdd(16))));
+    }
+
+    @Test
+    public void testExpressionIsPromotedAtThreshold() throws CalculatorExpressionParserException {
+        CompiledExpression expression = new CompiledExpression(compile("let(a, 5, add(a, a))"), 3);
+        assertEquals(10, expression.evaluate());
+        assertEquals(10, expression.evaluate());
+        assertFalse(expression.isPromoted());
+        assertEquals(10, expression.evaluate());
+        assertTrue(expression.isPromoted());
+        assertEquals(10, expression.evaluate());
+    }
+
+    @Test
+    public void testLargeExpressionStaysInInterpreter() throws CalculatorExpressionParserException {
+        CompiledExpression expression = new CompiledExpression(compile(balancedAdd(16)), 1);
+        assertEquals(65536, expression.evaluate());
+        assertFalse(expression.isPromoted());
+    }
+
+    @Test
+    public void testCalculatePromotesCachedExpressions() throws CalculatorExpressionParserException {
+        ExpressionCache cache = new ExpressionCache(10);
+        Calculate calculate = Calculate.builder().expressionCache(cache).promotionThreshold(2).build();
+        calculate.performCalculation("mul(add(2, 2), div(9, 3))");
+        assertEquals(12, calculate.performCalculation("mul(add(2, 2), div(9, 3))"));
+        assertTrue(cache.get("mul(add(2, 2), div(9, 3))").isPromoted());
+    }
+
+    private static String balancedAdd(int depth) {
+        return depth == 0 ? "1" : "add(" + balancedAdd(depth - 1) + ", " + balancedAdd(depth - 1) + ")";
+    }
+
+    private static Program compile(String expression) throws CalculatorExpressionParserException {
+        return ProgramCompiler.compile(Parser.parse(Lexer.tokenize(expression)));
+    }
+
+    private static Program compileChecked(String expression) throws CalculatorExpressionParserException {
+        return ProgramCompiler.compile(Parser.parse(Lexer.tokenize(expression)), true);
+    }
+}
@@ -4,7 +4,14 @@ import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserExc
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 
 public class CalculateTestCase {
@@ -139,4 +146,39 @@ public class CalculateTestCase {
         String expressionToTest = "add(-2, 3, 2, 3, 4)";
         calculate.performCalculation(expressionToTest);
     }
+
+    @Test
+    public void testVariablesDoNotLeakBetweenCalculations() throws CalculatorExpressionParserException {
+        assertEquals(1, calculate.performCalculation("let(a, 1, add(a, 0))"));
+        try {
+            calculate.performCalculation("add(a, 1)");
+            fail("Expected an undefined variable");
+        } catch (CalculatorExpressionParserException cep) {
+            //a is only bound within the first calculation
+        }
+    }
+
+    @Test
+    public void testInnermostLetShadowsOuterLet() throws CalculatorExpressionParserException {
+        String expressionToTest = "let(a, 1, add(let(a, 2, add(a, 0)), a))";
+        int result = calculate.performCalculation(expressionToTest);
+        assertEquals(3, result);
+    }
+
+    @Test
+    public void testCalculateIsSharedBetweenThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String expressionToTest = "let(a, " + i + ", let(b, mul(a, 10), add(b, a)))";
+                results.add(executor.submit(() -> calculate.performCalculation(expressionToTest)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(Integer.valueOf(i * 11), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.metrics.CalculatorMetrics;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CalculationResultTestCase {
+    private static final String[] EXPRESSIONS = {
+            "add(1, 2)",
+            "let(a, 5, let(b, mul(a, 10), add(b, a)))",
+            "div(1, 0)",
+            "let(a, 0, div(1, a))",
+            "add(1, x)",
+            "add(1, 2",
+            "add(1, 2, 3)",
+            "add(1, #)",
+            "add(1, 2147483648)",
+            "",
+    };
+
+    @Test
+    public void testMatchesPerformCalculation() {
+        Calculate[] calculates = {
+                new Calculate(),
+                new Calculate(new ExpressionCache(16)),
+                Calculate.builder().expressionCache(new ExpressionCache(16)).metrics(new CalculatorMetrics()).build(),
+        };
+        for (Calculate calculate : calculates) {
+            //Twice, so cached expressions are also calculated from the cache
+            for (int i = 0; i < 2; i++) {
+                for (String expression : EXPRESSIONS) {
+                    CalculationResult result = calculate.tryCalculation(expression);
+                    try {
+                        assertEquals(expression, calculate.performCalculation(expression), result.getValue());
+                        assertTrue(expression, result.isSuccess());
+                        assertNull(result.getError());
+                        assertNull(result.getMessage());
+                    } catch (CalculatorExpressionParserException cep) {
+                        assertFalse(expression, result.isSuccess());
+                        assertEquals(expression, cep.getCode(), result.getError());
+                        assertEquals(expression, cep.getOffset(), result.getErrorOffset());
+                        assertEquals(expression, cep.getExpected(), result.getExpected());
+                        assertEquals(expression, cep.getMessage(), result.getMessage());
+                    } catch (ArithmeticException ae) {
+                        assertFalse(expression, result.isSuccess());
+                        assertEquals(expression, ErrorCode.of(ae), result.getError());
+                        assertEquals(expression, ae.getMessage(), result.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsErrorsInMetrics() {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        Calculate calculate = Calculate.builder().metrics(metrics).build();
+        for (String expression : EXPRESSIONS) {
+            calculate.tryCalculation(expression);
+        }
+        assertEquals(EXPRESSIONS.length, metrics.getExpressionCount());
+        assertEquals(2, metrics.getErrorCount(ErrorCode.DIVISION_BY_ZERO));
+        assertEquals(2, metrics.getErrorCount(ErrorCode.SYNTAX));
+        assertEquals(1, metrics.getErrorCount(ErrorCode.INVALID_NUMBER));
+    }
+
+    @Test
+    public void testThrowsStacklessExceptions() {
+        Calculate calculate = new Calculate();
+        try {
+            calculate.tryCalculation("add(1, 2").getValueOrThrow();
+            fail("Expected a syntax error");
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals(ErrorCode.SYNTAX, cep.getCode());
+            assertEquals(8, cep.getOffset());
+            assertEquals(0, cep.getStackTrace().length);
+        }
+        try {
+            calculate.tryCalculation("div(1, 0)").getValueOrThrow();
+            fail("Expected a division by zero");
+        } catch (ArithmeticException ae) {
+            assertEquals("/ by zero", ae.getMessage());
+        } catch (CalculatorExpressionParserException cep) {
+            fail(cep.getMessage());
+        }
+
+        ErrorReport errors = new ErrorReport();
+        errors.invalidNumber(3);
+        assertEquals(0, errors.toStacklessParserException().getStackTrace().length);
+        assertTrue(errors.toParserException().getStackTrace().length > 0);
+    }
+}
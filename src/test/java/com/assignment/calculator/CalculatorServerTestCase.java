@@ -0,0 +1,204 @@
+package com.assignment.calculator;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CalculatorServerTestCase {
+    private CalculatorServer server;
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testAnswersPipelinedRequestsInOrder() throws IOException {
+        start(4);
+        try (Socket socket = connect()) {
+            send(socket, "add(1, 2)\nlet(a, 5, let(b, mul(a, 10), add(b, a)))\ndiv(1, 0)\n\nadd(1, 2\n");
+            BufferedReader reader = reader(socket);
+            assertEquals("3", reader.readLine());
+            assertEquals("55", reader.readLine());
+            assertTrue(reader.readLine().startsWith("error: "));
+            assertEquals("error: No expression to parse", reader.readLine());
+            assertEquals("error: The input did not match specifications: expected ')' at offset 8", reader.readLine());
+        }
+    }
+
+    @Test
+    public void testLimitsConcurrentConnections() throws IOException {
+        start(1);
+        try (Socket first = connect(); Socket second = connect()) {
+            send(second, "add(2, 2)\n");
+            send(first, "add(1, 1)\n");
+            assertEquals("2", reader(first).readLine());
+
+            //The second connection is only served once the first one is closed
+            second.setSoTimeout(200);
+            BufferedReader secondReader = reader(second);
+            assertFalse(ready(secondReader));
+            first.close();
+            second.setSoTimeout(5000);
+            assertEquals("4", secondReader.readLine());
+        }
+    }
+
+    @Test
+    public void testShutdownAnswersReceivedRequests() throws IOException, InterruptedException {
+        start(4);
+        try (Socket socket = connect()) {
+            BufferedReader reader = reader(socket);
+            send(socket, "add(1, 1)\n");
+            assertEquals("2", reader.readLine());
+
+            assertTrue(server.shutdown(5, TimeUnit.SECONDS));
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void testShutdownAnswersPipelinedBurstLargerThanBuffer() throws IOException, InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        //Holds the connection on its first request, while the rest of the burst waits in the socket
+        start(new Calculate(new ExpressionCache(16)) {
+            @Override
+            public CalculationResult tryCalculation(String inputExpression) {
+                if (started.getCount() > 0) {
+                    started.countDown();
+                    try {
+                        released.await();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.tryCalculation(inputExpression);
+            }
+        }, 4);
+        int requests = 4000;
+        StringBuilder burst = new StringBuilder();
+        for (int i = 0; i < requests; i++) {
+            burst.append("add(1, 2)\n");
+        }
+        assertTrue(burst.length() > 4 * 8192);
+
+        try (Socket socket = connect()) {
+            send(socket, burst.toString());
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            boolean[] shutDown = new boolean[1];
+            Thread shutdown = new Thread(() -> {
+                try {
+                    shutDown[0] = server.shutdown(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            shutdown.start();
+            //Released once the shutdown has found the connection busy
+            assertTrue(server.connectionsSignalled.await(5, TimeUnit.SECONDS));
+            released.countDown();
+
+            BufferedReader reader = reader(socket);
+            for (int i = 0; i < requests; i++) {
+                assertEquals("3", reader.readLine());
+            }
+            assertNull(reader.readLine());
+            shutdown.join();
+            assertTrue(shutDown[0]);
+        }
+    }
+
+    @Test
+    public void testClosesConnectionOnTooLongRequest() throws IOException {
+        start(4);
+        try (Socket socket = connect()) {
+            BufferedReader reader = reader(socket);
+            send(socket, "add(1, 2)\n");
+            assertEquals("3", reader.readLine());
+
+            //Exactly one character too many, so the server reads all of it before closing
+            StringBuilder request = new StringBuilder();
+            for (int i = 0; i <= CalculatorServer.MAX_REQUEST_LENGTH; i++) {
+                request.append(' ');
+            }
+            send(socket, request.toString());
+            assertEquals("error: The request is longer than " + CalculatorServer.MAX_REQUEST_LENGTH + " characters", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void testAnswersRequestOfMaximumLength() throws IOException {
+        start(4);
+        try (Socket socket = connect()) {
+            StringBuilder request = new StringBuilder("add(1, 2)");
+            while (request.length() < CalculatorServer.MAX_REQUEST_LENGTH) {
+                request.append(' ');
+            }
+            send(socket, request + "\r\nadd(2, 2)\r\n");
+            BufferedReader reader = reader(socket);
+            assertEquals("3", reader.readLine());
+            assertEquals("4", reader.readLine());
+        }
+    }
+
+    @Test
+    public void testClosesIdleConnections() throws IOException {
+        server = new CalculatorServer(new Calculate(new ExpressionCache(16)), 0, 1, 100, TimeUnit.MILLISECONDS);
+        server.start();
+        try (Socket idle = connect(); Socket second = connect()) {
+            //The idle connection gives its place up to the second one once it times out
+            send(second, "add(2, 2)\n");
+            assertEquals("4", reader(second).readLine());
+            assertNull(reader(idle).readLine());
+        }
+    }
+
+    private void start(int maxConnections) throws IOException {
+        start(new Calculate(new ExpressionCache(16)), maxConnections);
+    }
+
+    private void start(Calculate calculate, int maxConnections) throws IOException {
+        server = new CalculatorServer(calculate, 0, maxConnections);
+        server.start();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String requests) throws IOException {
+        OutputStream output = socket.getOutputStream();
+        output.write(requests.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static boolean ready(BufferedReader reader) {
+        try {
+            return reader.read() >= 0;
+        } catch (IOException timeout) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.ColumnInterpreter;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ColumnInterpreterTestCase {
+    private final Calculate calculate = new Calculate();
+
+    @Test
+    public void testEvaluatesColumns() throws CalculatorExpressionParserException {
+        PreparedExpression expression = calculate.prepare("add(mul(x, 3), y)", "x", "y");
+        assertArrayEquals(new int[] {13, 26, -3}, expression.evaluateColumns(new int[] {1, 2, -1}, new int[] {10, 20, 0}));
+    }
+
+    @Test
+    public void testMatchesRowByRowAcrossChunks() throws CalculatorExpressionParserException {
+        PreparedExpression expression = calculate.prepare(
+                "let(a, div(x, 3), add(mul(a, let(b, sub(y, 7), mul(b, b))), add(a, add(mul(x, 3), mul(x, 3)))))", "x", "y");
+        Random random = new Random(42);
+        int rows = 1000;
+        int[] x = new int[rows];
+        int[] y = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = random.nextInt(2000) - 1000;
+            y[i] = random.nextInt(2000) - 1000;
+        }
+        for (int chunkSize : new int[] {1, 7, 64, 4096}) {
+            int[] output = new int[rows];
+            new ColumnInterpreter(expression.getProgram(), chunkSize).execute(new int[][] {x, y}, output);
+            for (int i = 0; i < rows; i++) {
+                assertEquals("row " + i, expression.evaluate(x[i], y[i]), output[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testConstantExpression() throws CalculatorExpressionParserException {
+        int[] output = new int[5];
+        calculate.prepare("let(a, 2, div(10, a))").evaluateColumns(new int[0][], output);
+        assertArrayEquals(new int[] {5, 5, 5, 5, 5}, output);
+    }
+
+    @Test
+    public void testDivisionByZeroGivesTheRow() throws CalculatorExpressionParserException {
+        PreparedExpression expression = calculate.prepare("div(x, y)", "x", "y");
+        try {
+            new ColumnInterpreter(expression.getProgram(), 2).execute(new int[][] {{1, 2, 3, 4}, {1, 1, 1, 0}}, new int[4]);
+            fail();
+        } catch (ArithmeticException ae) {
+            assertEquals("/ by zero in row 3", ae.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortColumn() throws CalculatorExpressionParserException {
+        calculate.prepare("add(x, y)", "x", "y").evaluateColumns(new int[][] {{1, 2}, {1}}, new int[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingColumn() throws CalculatorExpressionParserException {
+        calculate.prepare("add(x, y)", "x", "y").evaluateColumns(new int[] {1});
+    }
+}
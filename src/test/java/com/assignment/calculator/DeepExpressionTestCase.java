@@ -0,0 +1,72 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DeepExpressionTestCase {
+    private static final int DEPTH = 1000000;
+
+    @Test
+    public void testShouldCalculateDeepRightNesting() throws CalculatorExpressionParserException {
+        String expression = rightNested(DEPTH, "1");
+        assertEquals(DEPTH + 1, new Calculate().performCalculation(expression));
+        assertEquals(DEPTH + 1, new Calculate().evaluate(parse(expression)));
+    }
+
+    @Test
+    public void testShouldCalculateDeepLeftNesting() throws CalculatorExpressionParserException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            builder.append("add(");
+        }
+        builder.append('1');
+        for (int i = 0; i < DEPTH; i++) {
+            builder.append(", 1)");
+        }
+        assertEquals(DEPTH + 1, new Calculate().performCalculation(builder.toString()));
+    }
+
+    @Test
+    public void testShouldCalculateDeepLetChain() throws CalculatorExpressionParserException {
+        StringBuilder builder = new StringBuilder("let(v, 1, ");
+        for (int i = 1; i < DEPTH; i++) {
+            builder.append("let(v, add(v, 1), ");
+        }
+        builder.append("add(v, 0)");
+        for (int i = 0; i < DEPTH; i++) {
+            builder.append(')');
+        }
+        String expression = builder.toString();
+        assertEquals(DEPTH, new Calculate().performCalculation(expression));
+        assertEquals(DEPTH, new Calculate().evaluate(parse(expression)));
+        assertEquals(DEPTH, Interpreter.execute(ProgramCompiler.compile(parse(expression))));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testShouldFailDeepDivisionByZero() throws CalculatorExpressionParserException {
+        new Calculate().performCalculation(rightNested(DEPTH, "div(1, 0)"));
+    }
+
+    private static String rightNested(int depth, String innermost) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            builder.append("add(1, ");
+        }
+        builder.append(innermost);
+        for (int i = 0; i < depth; i++) {
+            builder.append(')');
+        }
+        return builder.toString();
+    }
+
+    private static AbstractSyntaxTree parse(String expression) throws CalculatorExpressionParserException {
+        return Parser.parse(Lexer.tokenize(expression));
+    }
+}
@@ -0,0 +1,86 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.CompiledExpression;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ExpressionCacheTestCase {
+    private static final CompiledExpression EXPRESSION = compile("add(1, 2)");
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ExpressionCache cache = new ExpressionCache(2);
+        cache.put("add(1, 2)", EXPRESSION);
+        cache.put("sub(1, 2)", EXPRESSION);
+        cache.get("add(1, 2)");
+        cache.put("mul(1, 2)", EXPRESSION);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("sub(1, 2)"));
+        assertNotNull(cache.get("add(1, 2)"));
+        assertNotNull(cache.get("mul(1, 2)"));
+    }
+
+    @Test
+    public void testEvictsByWeight() {
+        ExpressionCache cache = new ExpressionCache(100, 20);
+        cache.put("add(1, 2)", EXPRESSION);
+        cache.put("sub(1, 2)", EXPRESSION);
+        cache.put("mul(1, 2)", EXPRESSION);
+
+        assertEquals(2, cache.size());
+        assertEquals(18, cache.getWeight());
+        assertNull(cache.get("add(1, 2)"));
+    }
+
+    @Test
+    public void testDoesNotCacheExpressionHeavierThanMaximumWeight() {
+        ExpressionCache cache = new ExpressionCache(100, 5);
+        cache.put("add(1, 2)", EXPRESSION);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testKeyIsTrimmed() {
+        ExpressionCache cache = new ExpressionCache(10);
+        cache.put("  add(1, 2) ", EXPRESSION);
+        assertSame(EXPRESSION, cache.get("add(1, 2)"));
+    }
+
+    @Test
+    public void testCalculateSkipsParsingOfRepeatedExpressions() throws CalculatorExpressionParserException {
+        ExpressionCache cache = new ExpressionCache(10);
+        Calculate calculate = new Calculate(cache);
+        assertEquals(55, calculate.performCalculation("let(a, 5, let(b, mul(a, 10), add(b, a)))"));
+        assertEquals(55, calculate.performCalculation("let(a, 5, let(b, mul(a, 10), add(b, a)))"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test(expected = CalculatorExpressionParserException.class)
+    public void testInvalidExpressionIsNotCached() throws CalculatorExpressionParserException {
+        ExpressionCache cache = new ExpressionCache(10);
+        try {
+            new Calculate(cache).performCalculation("add(1, 2&)");
+        } finally {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    private static CompiledExpression compile(String expression) {
+        try {
+            return new CompiledExpression(ProgramCompiler.compile(Parser.parse(Lexer.tokenize(expression))), CompiledExpression.NEVER_PROMOTE);
+        } catch (CalculatorExpressionParserException cep) {
+            throw new IllegalStateException(cep);
+        }
+    }
+}
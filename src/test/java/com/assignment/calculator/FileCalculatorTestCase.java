@@ -0,0 +1,90 @@
+package com.assignment.calculator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FileCalculatorTestCase {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWritesOneResultPerLine() throws IOException {
+        String input = "add(1, 2)\r\nlet(a, 5, let(b, mul(a, 10), add(b, a)))\n\ndiv(1, 0)\nadd(1, 2\nmul(2, 3)";
+        List<String> results = process(input, 16);
+        assertEquals(Arrays.asList("3", "55", "error: The input did not match specifications: expected number, variable or operator at offset 0",
+                "error: / by zero", "error: The input did not match specifications: expected ')' at offset 8", "6"), results);
+    }
+
+    @Test
+    public void testKeepsInputOrderAcrossBlocksAndWindows() throws IOException {
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            input.append("let(a, ").append(i).append(", mul(a, 3))\n");
+            expected.add(String.valueOf(i * 3));
+        }
+        assertEquals(expected, process(input.toString(), 1000));
+    }
+
+    @Test(timeout = 10000)
+    public void testFailsLineLongerThanLargestWindow() throws IOException {
+        Path inputFile = write("add(1, 2)\nadd(1111111111, 1111111111)\nmul(2, 3)");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new FileCalculator(new Calculate(), pool, 4, 16).process(inputFile, folder.getRoot().toPath().resolve("output.txt"));
+            fail("Expected the long line to fail");
+        } catch (IOException ioe) {
+            assertTrue(ioe.getMessage(), ioe.getMessage().startsWith("Line at offset 10 "));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testRejectedBlockEndsTheCalculation() throws IOException {
+        Path inputFile = write("add(1, 2)\nmul(2, 3)");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        pool.shutdown();
+        try {
+            new FileCalculator(new Calculate(), pool, 16).process(inputFile, folder.getRoot().toPath().resolve("output.txt"));
+            fail("Expected the shut down pool to reject the lines");
+        } catch (RejectedExecutionException ree) {
+            //Thrown instead of waiting for blocks that never come
+        }
+    }
+
+    private Path write(String input) throws IOException {
+        Path inputFile = folder.newFile("input.txt").toPath();
+        Files.write(inputFile, input.getBytes(StandardCharsets.UTF_8));
+        return inputFile;
+    }
+
+    private List<String> process(String input, int mapWindowSize) throws IOException {
+        Path inputFile = folder.newFile("input.txt").toPath();
+        Path outputFile = folder.getRoot().toPath().resolve("output.txt");
+        Files.write(inputFile, input.getBytes(StandardCharsets.UTF_8));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new FileCalculator(new Calculate(), pool, mapWindowSize).process(inputFile, outputFile);
+        } finally {
+            pool.shutdown();
+        }
+        return Files.readAllLines(outputFile, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,136 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.metrics.CalculationEvent;
+import com.assignment.calculator.metrics.EventRecording;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.SettingDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FlightRecorderTestCase {
+    private static final String CALCULATION = "com.assignment.calculator.Calculation";
+    private static final String LEX = "com.assignment.calculator.Lex";
+    private static final String PARSE = "com.assignment.calculator.Parse";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testChecksRecordingOfEveryEvent() {
+        assertFalse(EventRecording.isLexRecorded());
+        try (Recording recording = new Recording()) {
+            recording.enable(LEX);
+            recording.disable(PARSE);
+            recording.disable(CALCULATION);
+            recording.start();
+            assertTrue(EventRecording.isLexRecorded());
+            assertFalse(EventRecording.isParseRecorded());
+            assertFalse(EventRecording.isCalculationRecorded());
+            recording.stop();
+        }
+        assertFalse(EventRecording.isLexRecorded());
+    }
+
+    @Test
+    public void testRecordsCalculations() throws IOException, CalculatorExpressionParserException {
+        Calculate calculate = new Calculate(new ExpressionCache(16));
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CALCULATION).withThreshold(Duration.ZERO);
+            recording.enable(LEX).withThreshold(Duration.ZERO);
+            recording.enable(PARSE).withThreshold(Duration.ZERO);
+            recording.start();
+            calculate.performCalculation("let(a, 5, let(b, mul(a, 10), add(b, a)))");
+            calculate.performCalculation("let(a, 5, let(b, mul(a, 10), add(b, a)))");
+            try {
+                calculate.performCalculation("div(1, 0)");
+                fail();
+            } catch (ArithmeticException expected) {
+                //Recorded as a failed calculation
+            }
+            recording.stop();
+            events = read(recording);
+        }
+
+        List<RecordedEvent> calculations = ofType(events, CALCULATION);
+        assertEquals(3, calculations.size());
+        RecordedEvent compiled = calculations.get(0);
+        assertEquals(40, compiled.getInt("expressionLength"));
+        assertFalse(compiled.getBoolean("cached"));
+        assertEquals(25, compiled.getInt("tokenCount"));
+        assertEquals(11, compiled.getInt("nodeCount"));
+        assertEquals(4, compiled.getInt("treeDepth"));
+        assertEquals("OK", compiled.getString("outcome"));
+        assertTrue(calculations.get(1).getBoolean("cached"));
+        assertEquals(0, calculations.get(1).getInt("tokenCount"));
+        assertEquals("DIVISION_BY_ZERO", calculations.get(2).getString("outcome"));
+
+        List<RecordedEvent> parses = ofType(events, PARSE);
+        assertEquals(2, parses.size());
+        assertEquals(2, parses.get(0).getInt("letDepth"));
+        assertEquals(2, ofType(events, LEX).size());
+        assertEquals(25, ofType(events, LEX).get(0).getInt("tokenCount"));
+    }
+
+    @Test
+    public void testRecordsFailedLexing() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(LEX).withThreshold(Duration.ZERO);
+            recording.start();
+            try {
+                new Calculate().performCalculation("add(1, #)");
+                fail();
+            } catch (CalculatorExpressionParserException expected) {
+                //Recorded as a failed scan
+            }
+            recording.stop();
+            events = read(recording);
+        }
+        assertEquals("INVALID_TOKEN", ofType(events, LEX).get(0).getString("outcome"));
+    }
+
+    @Test
+    public void testOnlySlowCalculationsAreRecordedByDefault() {
+        for (SettingDescriptor setting : EventType.getEventType(CalculationEvent.class).getSettingDescriptors()) {
+            if ("threshold".equals(setting.getName())) {
+                assertEquals("1 ms", setting.getDefaultValue());
+                return;
+            }
+        }
+        fail("No threshold setting");
+    }
+
+    private List<RecordedEvent> read(Recording recording) throws IOException {
+        Path file = folder.newFile("calculator.jfr").toPath();
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> ofType = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (name.equals(event.getEventType().getName())) {
+                ofType.add(event);
+            }
+        }
+        ofType.sort((event1, event2) -> event1.getStartTime().compareTo(event2.getStartTime()));
+        return ofType;
+    }
+}
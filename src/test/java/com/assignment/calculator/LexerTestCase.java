@@ -3,13 +3,19 @@ package com.assignment.calculator;
 import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
 import com.assignment.calculator.parser.Lexer;
 import com.assignment.calculator.parser.Token;
+import com.assignment.calculator.parser.TokenStream;
+import com.assignment.calculator.parser.Type;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
 import java.util.List;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
 public class LexerTestCase {
     @Test
@@ -113,5 +119,98 @@ public class LexerTestCase {
         String testExpression = "let(4a, 4, add(a, a))";
         Lexer.lex(testExpression);
     }
-}
 
+    @Test
+    public void testInvalidNumberReportsTheNumber() {
+        try {
+            Lexer.lex("add(35 5, 4)");
+            fail();
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals("The input did not match specifications: 35 5", cep.getMessage());
+        }
+    }
+
+    @Test
+    public void testNumberOutsideIntegerRange() {
+        try {
+            Lexer.lex("add(2147483648, 4)");
+            fail();
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals("Invalid number format", cep.getMessage());
+        }
+    }
+
+    @Test
+    public void testShouldAllowIntegerLimits() throws CalculatorExpressionParserException {
+        List<Token> actualTokens = Lexer.lex("add(2147483647, -2147483648)");
+        assertEquals(new Token(Type.digit, Integer.MAX_VALUE), actualTokens.get(2));
+        assertEquals(new Token(Type.digit, Integer.MIN_VALUE), actualTokens.get(4));
+    }
+
+    @Test
+    public void testShortVariableAtEndOfInput() throws CalculatorExpressionParserException {
+        List<Token> actualTokens = Lexer.lex("ab");
+        assertEquals(1, actualTokens.size());
+        assertEquals(new Token(Type.var, "ab"), actualTokens.get(0));
+    }
+
+    @Test
+    public void testTokenStreamMatchesTokenList() throws CalculatorExpressionParserException {
+        String testExpression = "let(a, let(b, 2, mul(b, b)), add(a, a))";
+        TokenStream tokenStream = Lexer.tokenize(testExpression);
+        assertEquals(TestHelper.createNestedLet(), tokenStream.toTokens());
+        assertEquals(TestHelper.createNestedLet(), TokenStream.of(TestHelper.createNestedLet()).toTokens());
+    }
+
+    @Test
+    public void testTokenStreamCursor() throws CalculatorExpressionParserException {
+        TokenStream tokenStream = Lexer.tokenize("sub(-2, b)");
+        assertTrue(tokenStream.advance());
+        assertEquals(Type.sub, tokenStream.getType());
+        tokenStream.advance();
+        tokenStream.advance();
+        assertEquals(-2, tokenStream.getNumberValue());
+        tokenStream.advance();
+        tokenStream.advance();
+        assertEquals("b", tokenStream.getVariableName());
+        tokenStream.advance();
+        assertEquals(Type.rparenth, tokenStream.getType());
+        assertFalse(tokenStream.advance());
+    }
+
+    @Test
+    public void testLexesBytesInPlace() throws CalculatorExpressionParserException {
+        String testExpression = "let(a, let(b, 2, mul(b, b)), add(a, a))";
+        byte[] bytes = ("##" + testExpression + "##").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+        directBuffer.put(bytes);
+
+        assertEquals(TestHelper.createNestedLet(), Lexer.tokenize(new StringBuilder(testExpression)).toTokens());
+        assertEquals(TestHelper.createNestedLet(), Lexer.tokenize(bytes, 2, testExpression.length()).toTokens());
+        assertEquals(TestHelper.createNestedLet(), Lexer.tokenize(ByteBuffer.wrap(bytes), 2, testExpression.length()).toTokens());
+        assertEquals(TestHelper.createNestedLet(), Lexer.tokenize(directBuffer, 2, testExpression.length()).toTokens());
+        assertEquals(bytes.length, directBuffer.position());
+    }
+
+    @Test
+    public void testVariableNamesAreSlicesOfTheInput() throws CalculatorExpressionParserException {
+        byte[] bytes = "add(first, second)".getBytes(StandardCharsets.US_ASCII);
+        TokenStream tokenStream = Lexer.tokenize(bytes, 0, bytes.length);
+        CharSequence slice = tokenStream.getVariableSlice(4);
+        assertEquals("second", slice.toString());
+
+        bytes[11] = 'S';
+        assertEquals("Second", tokenStream.getVariableName(4));
+    }
+
+    @Test
+    public void testReportsInvalidBytes() {
+        byte[] bytes = "add(1, \u00e9)".getBytes(StandardCharsets.UTF_8);
+        try {
+            Lexer.tokenize(bytes, 0, bytes.length);
+            fail();
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals(7, cep.getOffset());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.metrics.CalculatorMetrics;
+import com.assignment.calculator.metrics.Histogram;
+import com.assignment.calculator.metrics.Stage;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import org.junit.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MetricsTestCase {
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500, histogram.getMean(), 0.001);
+        assertWithin(500000, histogram.getValueAtPercentile(50));
+        assertWithin(990000, histogram.getValueAtPercentile(99));
+        assertEquals(1000000, histogram.getValueAtPercentile(100));
+        assertEquals(1000, histogram.getValueAtPercentile(0), 1000 / 16);
+    }
+
+    @Test
+    public void testHistogramSmallAndHugeValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(3);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(3, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertEquals(0, new Histogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testRecordsStagesOfCachedCalculations() throws CalculatorExpressionParserException {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        Calculate calculate = Calculate.builder().expressionCache(new ExpressionCache(16)).metrics(metrics).build();
+        assertEquals(55, calculate.performCalculation("let(a, 5, let(b, mul(a, 10), add(b, a)))"));
+        assertEquals(55, calculate.performCalculation("let(a, 5, let(b, mul(a, 10), add(b, a)))"));
+
+        assertEquals(2, metrics.getExpressionCount());
+        assertEquals(1, metrics.getCacheHitCount());
+        assertEquals(1, metrics.getCacheMissCount());
+        assertEquals(1, metrics.getStage(Stage.LEX).getCount());
+        assertEquals(1, metrics.getStage(Stage.PARSE).getCount());
+        assertEquals(1, metrics.getStage(Stage.COMPILE).getCount());
+        assertEquals(2, metrics.getStage(Stage.EVALUATE).getCount());
+        assertEquals(25, metrics.getTokenCount());
+        assertEquals(11, metrics.getNodeCount());
+        assertEquals(2, metrics.getMaxLetDepth());
+    }
+
+    @Test
+    public void testBatchAndSingleCalculationsRecordTheSameStages() throws CalculatorExpressionParserException {
+        CalculatorMetrics single = new CalculatorMetrics();
+        CalculatorMetrics batch = new CalculatorMetrics();
+        String[] expressions = {"add(1, #)", "add(1, 2", "div(1, 0)"};
+        for (String expression : expressions) {
+            Calculate.builder().metrics(single).build().tryCalculation(expression);
+        }
+        Calculate.builder().metrics(batch).build().performCalculations(expressions);
+        for (Stage stage : new Stage[] {Stage.LEX, Stage.PARSE}) {
+            assertEquals(stage.name(), single.getStage(stage).getCount(), batch.getStage(stage).getCount());
+        }
+        assertEquals(3, batch.getStage(Stage.LEX).getCount());
+        assertEquals(2, batch.getStage(Stage.PARSE).getCount());
+    }
+
+    @Test
+    public void testBatchErrorsAreRecordedOnce() {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        Calculate calculate = Calculate.builder().metrics(metrics).build();
+        BatchResult result = calculate.performCalculations(new String[] {"div(1, 0)"});
+        assertEquals("/ by zero", result.getErrorMessage(0));
+        assertTrue(result.getException(0) instanceof ArithmeticException);
+        assertEquals(1, metrics.getExpressionCount());
+        assertEquals(1, metrics.getErrorCount(ErrorCode.DIVISION_BY_ZERO));
+    }
+
+    @Test
+    public void testRecordsErrorsByCode() {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        Calculate calculate = Calculate.builder().metrics(metrics).build();
+        for (String inputExpression : Arrays.asList("div(1, 0)", "add(1, x)", "add(1, 2", "add(1, 2, 3)", "add(1, #)")) {
+            try {
+                calculate.performCalculation(inputExpression);
+                fail(inputExpression);
+            } catch (CalculatorExpressionParserException | ArithmeticException expected) {
+                //Counted below
+            }
+        }
+        assertEquals(5, metrics.getExpressionCount());
+        assertEquals(1, metrics.getErrorCount(ErrorCode.DIVISION_BY_ZERO));
+        assertEquals(1, metrics.getErrorCount(ErrorCode.UNDEFINED_VARIABLE));
+        assertEquals(1, metrics.getErrorCount(ErrorCode.SYNTAX));
+        assertEquals(1, metrics.getErrorCount(ErrorCode.INVALID_ARGUMENTS));
+        assertEquals(1, metrics.getErrorCount(ErrorCode.INVALID_TOKEN));
+    }
+
+    @Test
+    public void testRecordsBatchCalculations() {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        Calculate calculate = Calculate.builder().metrics(metrics).build();
+        BatchResult result = calculate.performCalculations(new String[] {"add(1, 2)", "div(1, 0)", "let(a, 1, a)"});
+        assertEquals(1, result.getErrorCount());
+        assertEquals(3, metrics.getExpressionCount());
+        assertEquals(3, metrics.getStage(Stage.EVALUATE).getCount());
+        assertEquals(0, metrics.getStage(Stage.COMPILE).getCount());
+        assertEquals(1, metrics.getErrorCount(ErrorCode.DIVISION_BY_ZERO));
+        assertEquals(1, metrics.getMaxLetDepth());
+    }
+
+    @Test
+    public void testExposedOverJmx() throws JMException {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        ObjectName name = metrics.register("test");
+        try {
+            metrics.recordExpression();
+            metrics.recordStage(Stage.PARSE, 1500);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "ExpressionCount"));
+            assertTrue(server.getAttribute(name, "StageLatencies").toString().contains("parse.p99Nanos"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertEquals(expected, actual, expected / 16.0);
+    }
+}
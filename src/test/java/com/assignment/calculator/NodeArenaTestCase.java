@@ -0,0 +1,164 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.Optimizer;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.compiler.Resolver;
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.NodeArena;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NodeArenaTestCase {
+    private static final String[] EXPRESSIONS = {
+            "7",
+            "add(1, 2)",
+            "sub(111, -30000)",
+            "div(5, 2)",
+            "mul(add(2, 2), div(9, 3))",
+            "let(a, 5, add(a, a))",
+            "let(a, 5, let(b, mul(a, 10), add(b, a)))",
+            "let(a, let(b, 10, add(b, b)), let(b, 20, add(a, b)))",
+            "let(a, 1, add(let(a, 2, a), a))",
+    };
+    private static final int DEPTH = 1000000;
+
+    @Test
+    public void testArenaGrowsAndClears() {
+        for (NodeArena arena : new NodeArena[] {NodeArena.onHeap(1), NodeArena.offHeap(1)}) {
+            int root = arena.add(Type.add, 0);
+            int left = arena.addChild(root, Type.digit, 1);
+            int right = arena.addChild(root, Type.digit, -2);
+            assertEquals(3, arena.size());
+            assertEquals(Type.add, arena.getType(root));
+            assertEquals(left, arena.getLeft(root));
+            assertEquals(NodeArena.NONE, arena.getMiddle(root));
+            assertEquals(right, arena.getRight(root));
+            assertEquals(-2, arena.getValue(right));
+            assertEquals(NodeArena.NONE, arena.getLeft(right));
+
+            arena.clear();
+            assertEquals(0, arena.size());
+            assertEquals(0, arena.add(Type.let, 3));
+            assertEquals(NodeArena.NONE, arena.getLeft(0));
+        }
+        assertFalse(NodeArena.onHeap().isOffHeap());
+        assertTrue(NodeArena.offHeap(16).isOffHeap());
+    }
+
+    @Test
+    public void testCalculatesLikeNodes() throws CalculatorExpressionParserException {
+        Calculate calculate = new Calculate();
+        for (NodeArena arena : new NodeArena[] {NodeArena.onHeap(), NodeArena.offHeap(4)}) {
+            for (String expression : EXPRESSIONS) {
+                assertEquals(expression, calculate.performCalculation(expression), calculate.performLargeCalculation(expression, arena));
+            }
+        }
+    }
+
+    @Test
+    public void testFlatTree() throws CalculatorExpressionParserException {
+        NodeArena arena = NodeArena.onHeap();
+        AbstractSyntaxTree tree = Parser.parse(Lexer.tokenize("let(a, 5, let(b, mul(a, 10), add(b, a)))"), arena);
+        assertTrue(tree.isFlat());
+        assertEquals(arena, tree.getArena());
+        assertEquals(11, tree.getNodeCount());
+        assertEquals(11, arena.size());
+        assertEquals(2, tree.getLetDepth());
+        assertEquals(Type.let, arena.getType(tree.getRootIndex()));
+        assertEquals("a", tree.getVariableName(arena.getLeft(tree.getRootIndex())));
+
+        Resolver.resolve(tree);
+        assertEquals(2, tree.getSlotCount());
+        assertEquals(55, new Calculate().evaluate(tree));
+    }
+
+    @Test
+    public void testConvertsIntoNodes() throws CalculatorExpressionParserException {
+        String expression = "let(a, 5, let(b, mul(a, 10), add(b, a)))";
+        NodeArena arena = NodeArena.offHeap(4);
+        arena.add(Type.digit, 42);
+        AbstractSyntaxTree tree = Parser.parse(Lexer.tokenize(expression), arena);
+        Resolver.resolve(tree);
+
+        Node root = tree.getRoot();
+        assertFalse(tree.isFlat());
+        assertNull(tree.getArena());
+        assertEquals(Type.let, root.getType());
+        assertEquals("a", root.getLeftChild().getVariableName());
+        assertEquals(0, root.getLeftChild().getSlot());
+        assertEquals(Integer.valueOf(5), root.getMiddleChild().getNumberValue());
+        assertEquals("b", root.getRightChild().getRightChild().getLeftChild().getVariableName());
+        assertEquals(1, root.getRightChild().getRightChild().getLeftChild().getSlot());
+        assertEquals(55, Interpreter.execute(ProgramCompiler.compile(Optimizer.optimize(tree))));
+
+        AbstractSyntaxTree unresolved = Parser.parse(Lexer.tokenize(expression), NodeArena.onHeap());
+        assertEquals(55, Interpreter.execute(ProgramCompiler.compile(unresolved)));
+    }
+
+    @Test
+    public void testReportsErrorsLikeNodes() {
+        NodeArena arena = NodeArena.onHeap();
+        String[] invalid = {"add(1, 2", "add(1, 2, 3)", "let(a, 1, b)", "add(1, 2) 3", "", "add(2147483648, 1)"};
+        for (String expression : invalid) {
+            try {
+                new Calculate().performCalculation(expression);
+                fail("Expected an error for " + expression);
+            } catch (CalculatorExpressionParserException expected) {
+                try {
+                    new Calculate().performLargeCalculation(expression, arena);
+                    fail("Expected an error for " + expression);
+                } catch (CalculatorExpressionParserException cep) {
+                    assertEquals(expected.getMessage(), cep.getMessage());
+                }
+            } catch (RuntimeException empty) {
+                try {
+                    new Calculate().performLargeCalculation(expression, arena);
+                    fail("Expected an error for " + expression);
+                } catch (CalculatorExpressionParserException cep) {
+                    assertEquals(ErrorCode.SYNTAX, cep.getCode());
+                }
+            }
+        }
+        try {
+            new Calculate().performLargeCalculation("let(a, 0, div(1, a))", arena);
+            fail("Expected a division by zero");
+        } catch (ArithmeticException ae) {
+            assertEquals("/ by zero", ae.getMessage());
+        } catch (CalculatorExpressionParserException cep) {
+            fail(cep.getMessage());
+        }
+    }
+
+    @Test
+    public void testReusesArenaForDeepExpressions() throws CalculatorExpressionParserException {
+        StringBuilder builder = new StringBuilder("let(v, 1, ");
+        for (int i = 1; i < DEPTH; i++) {
+            builder.append("let(v, add(v, 1), ");
+        }
+        builder.append("add(v, 0)");
+        for (int i = 0; i < DEPTH; i++) {
+            builder.append(')');
+        }
+        String expression = builder.toString();
+        Calculate calculate = Calculate.builder().numericMode(NumericMode.CHECKED).build();
+        NodeArena arena = NodeArena.offHeap(16);
+        assertEquals(DEPTH, calculate.performLargeCalculation(expression, arena));
+        int size = arena.size();
+        assertEquals(DEPTH, calculate.performLargeCalculation(expression, arena));
+        assertEquals(size, arena.size());
+        assertEquals(3, calculate.performLargeCalculation("add(1, 2)", arena));
+        assertEquals(3, arena.size());
+    }
+}
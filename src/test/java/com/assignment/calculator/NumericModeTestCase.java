@@ -0,0 +1,146 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.metrics.CalculatorMetrics;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NumericModeTestCase {
+    private static final String OVERFLOWING = "add(2147483647, 1)";
+
+    private final Calculate checked = Calculate.builder().numericMode(NumericMode.CHECKED).build();
+
+    @Test
+    public void testWrapsByDefault() throws CalculatorExpressionParserException {
+        Calculate calculate = new Calculate();
+        assertEquals(NumericMode.WRAP, calculate.getNumericMode());
+        assertEquals(Integer.MIN_VALUE, calculate.performCalculation(OVERFLOWING));
+        assertEquals(Integer.MIN_VALUE, calculate.performCalculation("let(a, 2147483647, add(a, 1))"));
+        assertEquals(Integer.MIN_VALUE, calculate.evaluate(Parser.parse(OVERFLOWING)));
+    }
+
+    @Test
+    public void testCheckedFailsOnOverflow() throws CalculatorExpressionParserException {
+        assertEquals(NumericMode.CHECKED, checked.getNumericMode());
+        assertEquals(2147483647, checked.performCalculation("add(2147483646, 1)"));
+        assertOverflows(checked, OVERFLOWING);
+        assertOverflows(checked, "sub(-2147483648, 1)");
+        assertOverflows(checked, "mul(65536, 65536)");
+        assertOverflows(checked, "div(-2147483648, -1)");
+        assertOverflows(checked, "let(a, 2147483647, add(a, 1))");
+        assertOverflows(checked, "let(a, 2147483647, let(b, mul(a, 2), 0))");
+        try {
+            checked.evaluate(Parser.parse(OVERFLOWING));
+            fail("Expected an overflow");
+        } catch (ArithmeticException ae) {
+            assertEquals(ErrorCode.OVERFLOW_MESSAGE, ae.getMessage());
+        }
+    }
+
+    @Test
+    public void testCheckedFailsOnOverflowWhenCachedAndPromoted() throws CalculatorExpressionParserException {
+        Calculate cached = Calculate.builder()
+                .expressionCache(new ExpressionCache(16))
+                .promotionThreshold(1)
+                .numericMode(NumericMode.CHECKED)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            assertOverflows(cached, "let(a, 2147483647, mul(a, a))");
+            assertEquals(-2147483648, cached.performCalculation("sub(-2147483647, 1)"));
+        }
+    }
+
+    @Test
+    public void testCheckedRecordsOverflow() {
+        CalculatorMetrics metrics = new CalculatorMetrics();
+        Calculate measured = Calculate.builder()
+                .expressionCache(new ExpressionCache(16))
+                .promotionThreshold(1)
+                .metrics(metrics)
+                .numericMode(NumericMode.CHECKED)
+                .build();
+        assertOverflows(measured, OVERFLOWING);
+        assertEquals(1, metrics.getErrorCount(ErrorCode.OVERFLOW));
+        assertEquals(0, metrics.getErrorCount(ErrorCode.DIVISION_BY_ZERO));
+
+        BatchResult result = checked.performCalculations(new CharSequence[] {"add(1, 2)", OVERFLOWING, "div(1, 0)"});
+        assertEquals(3, result.getValue(0));
+        assertEquals(ErrorCode.OVERFLOW, result.getError(1));
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, result.getError(2));
+        assertTrue(result.getException(1) instanceof ArithmeticException);
+    }
+
+    @Test
+    public void testCheckedPreparedAndColumnarExpressions() throws CalculatorExpressionParserException {
+        PreparedExpression expression = checked.prepare("mul(x, y)", "x", "y");
+        assertEquals(-6, expression.evaluate(2, -3));
+        try {
+            expression.evaluate(65536, 65536);
+            fail("Expected an overflow");
+        } catch (ArithmeticException ae) {
+            assertEquals(ErrorCode.OVERFLOW_MESSAGE, ae.getMessage());
+        }
+        try {
+            expression.evaluateColumns(new int[] {1, 65536}, new int[] {1, 65536});
+            fail("Expected an overflow");
+        } catch (ArithmeticException ae) {
+            assertEquals(ErrorCode.OVERFLOW_MESSAGE + " in row 1", ae.getMessage());
+        }
+    }
+
+    @Test
+    public void testExactCalculation() throws CalculatorExpressionParserException {
+        Calculate calculate = new Calculate();
+        assertEquals(BigInteger.valueOf(3), calculate.performExactCalculation("add(1, 2)"));
+        assertEquals(BigInteger.valueOf(2147483648L), calculate.performExactCalculation(OVERFLOWING));
+        assertEquals(BigInteger.valueOf(2147483648L), calculate.performExactCalculation("div(-2147483648, -1)"));
+        assertEquals(BigInteger.valueOf(-2), calculate.performExactCalculation("div(-7, 3)"));
+        assertEquals(new BigInteger("99999999999999999999"), calculate.performExactCalculation("sub(100000000000000000000, 1)"));
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(Long.MAX_VALUE)),
+                calculate.performExactCalculation("let(a, 9223372036854775807, mul(a, a))"));
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE).negate(),
+                calculate.performExactCalculation("div(-9223372036854775808, -1)"));
+        assertEquals(BigInteger.valueOf(5), calculate.performExactCalculation("div(mul(10000000000, 10000000000), 20000000000000000000)"));
+        try {
+            calculate.performExactCalculation("div(100000000000000000000, sub(1, 1))");
+            fail("Expected a division by zero");
+        } catch (ArithmeticException ae) {
+            assertEquals("/ by zero", ae.getMessage());
+        }
+    }
+
+    @Test
+    public void testBigLiteralsOnlyInExactCalculation() {
+        try {
+            new Calculate().performCalculation("add(2147483648, 1)");
+            fail("Expected an invalid number");
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals(ErrorCode.INVALID_NUMBER, cep.getCode());
+        }
+        try {
+            new Calculate().performExactCalculation("add(1x, 1)");
+            fail("Expected an invalid token");
+        } catch (CalculatorExpressionParserException cep) {
+            assertFalse(cep.getMessage().isEmpty());
+        }
+    }
+
+    private static void assertOverflows(Calculate calculate, String inputExpression) {
+        try {
+            calculate.performCalculation(inputExpression);
+            fail("Expected an overflow for " + inputExpression);
+        } catch (ArithmeticException ae) {
+            assertEquals(ErrorCode.OVERFLOW_MESSAGE, ae.getMessage());
+        } catch (CalculatorExpressionParserException cep) {
+            fail(cep.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.Optimizer;
+import com.assignment.calculator.compiler.Program;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class OptimizerTestCase {
+
+    @Test
+    public void testFoldsConstantExpression() throws CalculatorExpressionParserException {
+        assertEquals("PUSH 12\n", optimize("mul(add(2, 2), div(9, 3))").toString());
+    }
+
+    @Test
+    public void testPropagatesConstantBindings() throws CalculatorExpressionParserException {
+        assertEquals("PUSH 55\n", optimize("let(a, 5, let(b, mul(a, 10), add(b, a)))").toString());
+    }
+
+    @Test
+    public void testFoldingWrapsOnOverflow() throws CalculatorExpressionParserException {
+        assertEquals("PUSH -2\n", optimize("mul(2147483647, 2)").toString());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testDoesNotFoldDivisionByZero() throws CalculatorExpressionParserException {
+        Program program = optimize("div(10, sub(2, 2))");
+        assertEquals("PUSH 10\nPUSH 0\nDIV\n", program.toString());
+        Interpreter.execute(program);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testKeepsUnusedBindingThatDividesByZero() throws CalculatorExpressionParserException {
+        Program program = optimize("let(a, div(1, 0), 7)");
+        assertEquals("PUSH 1\nPUSH 0\nDIV\nSTORE 0\nPUSH 7\n", program.toString());
+        Interpreter.execute(program);
+    }
+
+    @Test
+    public void testEvaluatesIdenticalSubExpressionsOnce() throws CalculatorExpressionParserException {
+        Program program = optimize("add(div(1, sub(2, 2)), div(1, sub(2, 2)))");
+        assertEquals("PUSH 1\nPUSH 0\nDIV\nSTORE 0\nLOAD 0\nLOAD 0\nADD\n", program.toString());
+    }
+
+    @Test
+    public void testOptimizedProgramMatchesOriginalOnRandomExpressions() throws CalculatorExpressionParserException {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            String expression = "sub(" + randomExpression(random, new ArrayList<>(), 4) + ", 1)";
+            assertEquals(expression, run(compile(expression)), run(optimize(expression)));
+        }
+    }
+
+    private static String run(Program program) {
+        try {
+            return String.valueOf(Interpreter.execute(program));
+        } catch (ArithmeticException ae) {
+            return ae.getMessage();
+        }
+    }
+
+    //Operations and lets, where every variable used is bound by an enclosing let
+    private static String randomExpression(Random random, List<String> variables, int depth) {
+        int choice = depth == 0 ? random.nextInt(2) : random.nextInt(7);
+        if (choice == 0 || (choice == 1 && variables.isEmpty())) {
+            return String.valueOf(random.nextInt(5) - 1);
+        } else if (choice == 1) {
+            return variables.get(random.nextInt(variables.size()));
+        } else if (choice == 2) {
+            String variable = "v" + random.nextInt(3);
+            String value = randomExpression(random, variables, depth - 1);
+            List<String> scope = new ArrayList<>(variables);
+            scope.add(variable);
+            String body = "add(" + randomExpression(random, scope, depth - 1) + ", " + randomExpression(random, scope, depth - 1) + ")";
+            return "let(" + variable + ", " + value + ", " + body + ")";
+        }
+        String[] operators = {"add", "sub", "mul", "div"};
+        String operand = randomExpression(random, variables, depth - 1);
+        //Repeat the first operand now and then so there are identical sub-trees to share
+        String secondOperand = random.nextInt(3) == 0 ? operand : randomExpression(random, variables, depth - 1);
+        return operators[random.nextInt(operators.length)] + "(" + operand + ", " + secondOperand + ")";
+    }
+
+    private static Program compile(String expression) throws CalculatorExpressionParserException {
+        return ProgramCompiler.compile(Parser.parse(Lexer.tokenize(expression)));
+    }
+
+    private static Program optimize(String expression) throws CalculatorExpressionParserException {
+        return ProgramCompiler.compile(Optimizer.optimize(Parser.parse(Lexer.tokenize(expression))));
+    }
+}
@@ -0,0 +1,99 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ParserTestCase {
+
+    @Test
+    public void testParseNestedLet() throws CalculatorExpressionParserException {
+        Node root = Parser.parseTokensToAST(TestHelper.createNestedLet()).getRoot();
+        assertEquals(Type.let, root.getType());
+        assertEquals("a", root.getLeftChild().getVariableName());
+        assertEquals(Type.let, root.getMiddleChild().getType());
+        assertEquals(Type.mul, root.getMiddleChild().getRightChild().getType());
+        assertEquals(Type.add, root.getRightChild().getType());
+        assertEquals("a", root.getRightChild().getRightChild().getVariableName());
+    }
+
+    @Test
+    public void testParseSingleOperand() throws CalculatorExpressionParserException {
+        AbstractSyntaxTree tree = parse("  42 ");
+        assertEquals(Type.digit, tree.getRoot().getType());
+        assertEquals(Integer.valueOf(42), tree.getRoot().getNumberValue());
+        assertNull(tree.getRoot().getLeftChild());
+    }
+
+    @Test
+    public void testLetBodyCanBeAnOperand() throws CalculatorExpressionParserException {
+        assertEquals(2, new Calculate().performCalculation("let(a, 2, a)"));
+    }
+
+    @Test
+    public void testReportsMissingComma() {
+        assertError("add(mul(1, 2) 3)", 14, "','");
+    }
+
+    @Test
+    public void testReportsTooManyArguments() {
+        CalculatorExpressionParserException cep = assertError("add(-2, 3, 2)", 9, "')'");
+        assertEquals("Invalid number of arguments for an expression: expected ')' at offset 9", cep.getMessage());
+    }
+
+    @Test
+    public void testReportsMissingRightParenthesis() {
+        CalculatorExpressionParserException cep = assertError("add(1, mul(2, 3)", 16, "')'");
+        assertEquals("The input did not match specifications: expected ')' at offset 16", cep.getMessage());
+    }
+
+    @Test
+    public void testReportsExtraRightParenthesis() {
+        assertError("add(3, 4))", 9, "end of input");
+    }
+
+    @Test
+    public void testReportsOperatorUsedAsVariable() {
+        assertError("let(add, 1, 2)", 4, "variable");
+    }
+
+    @Test
+    public void testReportsMissingOperand() {
+        assertError("sub(, 4)", 4, "number, variable or operator");
+    }
+
+    @Test
+    public void testReportsTokenIndexForTokenList() {
+        try {
+            Parser.parseTokensToAST(TestHelper.createInvalidInput());
+            fail();
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals(2, cep.getOffset());
+            assertEquals("number, variable or operator", cep.getExpected());
+        }
+    }
+
+    private static CalculatorExpressionParserException assertError(String expression, int offset, String expected) {
+        try {
+            parse(expression);
+            fail();
+            return null;
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals(offset, cep.getOffset());
+            assertEquals(expected, cep.getExpected());
+            return cep;
+        }
+    }
+
+    private static AbstractSyntaxTree parse(String expression) throws CalculatorExpressionParserException {
+        return Parser.parse(Lexer.tokenize(expression));
+    }
+}
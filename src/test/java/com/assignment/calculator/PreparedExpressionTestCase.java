@@ -0,0 +1,90 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PreparedExpressionTestCase {
+    private final Calculate calculate = new Calculate();
+
+    @Test
+    public void testEvaluatesWithValues() throws CalculatorExpressionParserException {
+        PreparedExpression expression = calculate.prepare("add(mul(x, 3), y)", "x", "y");
+        assertTrue(expression.isCompiled());
+        assertEquals(10, expression.evaluate(2, 4));
+        assertEquals(-3, expression.evaluate(-1, 0));
+        int[] values = {5, 5};
+        assertEquals(20, expression.evaluate(values));
+    }
+
+    @Test
+    public void testEvaluatesWithBindings() throws CalculatorExpressionParserException {
+        PreparedExpression expression = calculate.prepare("sub(x, y)", "x", "y");
+        PreparedExpression.Bindings bindings = expression.newBindings().set("y", 3);
+        assertEquals(-3, expression.evaluate(bindings));
+        assertEquals(7, expression.evaluate(bindings.set("x", 10)));
+        assertEquals(5, expression.evaluate(bindings.set(expression.indexOf("y"), 5)));
+    }
+
+    @Test
+    public void testLetShadowsFreeVariables() throws CalculatorExpressionParserException {
+        PreparedExpression expression = calculate.prepare("add(mul(x, 3), let(x, add(x, 1), mul(x, y)))", "x", "y");
+        assertEquals(6 + 3 * 10, expression.evaluate(2, 10));
+        assertEquals(0, calculate.prepare("let(a, 5, 0)", "unused").evaluate(7));
+    }
+
+    @Test
+    public void testMatchesTheLetWrappedExpression() throws CalculatorExpressionParserException {
+        String body = "let(a, div(x, 2), add(mul(a, a), sub(y, let(y, 3, mul(y, x)))))";
+        PreparedExpression expression = calculate.prepare(body, "x", "y");
+        for (int x = -5; x <= 5; x++) {
+            for (int y = -5; y <= 5; y++) {
+                String wrapped = "let(x, " + x + ", let(y, " + y + ", " + body + "))";
+                assertEquals(wrapped, calculate.performCalculation(wrapped), expression.evaluate(x, y));
+                assertEquals(wrapped, calculate.performCalculation(wrapped),
+                        Interpreter.execute(expression.getProgram(), new int[] {x, y}, null));
+            }
+        }
+    }
+
+    @Test
+    public void testNoFreeVariables() throws CalculatorExpressionParserException {
+        PreparedExpression expression = calculate.prepare("add(1, 2)");
+        assertEquals(0, expression.getVariableCount());
+        assertEquals(3, expression.evaluate());
+    }
+
+    @Test
+    public void testUndefinedVariable() {
+        try {
+            calculate.prepare("add(x, z)", "x", "y");
+            fail();
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals("Undefined variable: z", cep.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateVariable() throws CalculatorExpressionParserException {
+        calculate.prepare("add(x, x)", "x", "x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongNumberOfValues() throws CalculatorExpressionParserException {
+        calculate.prepare("add(x, y)", "x", "y").evaluate(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownBinding() throws CalculatorExpressionParserException {
+        calculate.prepare("add(x, y)", "x", "y").newBindings().set("z", 1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testDivisionByZero() throws CalculatorExpressionParserException {
+        calculate.prepare("div(x, y)", "x", "y").evaluate(1, 0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.Program;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProgramCompilerTestCase {
+    private static final String[] EXPRESSIONS = {
+            "add(1, 2)",
+            "sub(111, -30000)",
+            "div(5, 2)",
+            "add(1, mul(2, 3))",
+            "mul(add(2, 2), div(9, 3))",
+            "let(a, 5, add(a, a))",
+            "let(a, 5, let(b, mul(a, 10), add(b, a)))",
+            "let(a, let(b, 10, add(b, b)), let(b, 20, add(a, b)))",
+            "let(a, 1, add(let(a, 2, add(a, 0)), a))",
+            "mul(-32767, 32767)"
+    };
+
+    @Test
+    public void testCompilesOperandsBeforeOperator() throws CalculatorExpressionParserException {
+        Program program = compile("let(a, 5, sub(a, mul(2, a)))");
+        assertEquals("PUSH 5\nSTORE 0\nLOAD 0\nPUSH 2\nLOAD 0\nMUL\nSUB\n", program.toString());
+        assertEquals(1, program.getSlotCount());
+        assertEquals(3, program.getMaxStack());
+    }
+
+    @Test
+    public void testInterpreterMatchesTreeEvaluation() throws CalculatorExpressionParserException {
+        Calculate calculate = new Calculate();
+        for (String expression : EXPRESSIONS) {
+            AbstractSyntaxTree tree = Parser.parse(Lexer.tokenize(expression));
+            assertEquals(expression, calculate.evaluate(tree), Interpreter.execute(ProgramCompiler.compile(tree)));
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testInterpreterDividesByZero() throws CalculatorExpressionParserException {
+        Interpreter.execute(compile("div(10, sub(2, 2))"));
+    }
+
+    private static Program compile(String expression) throws CalculatorExpressionParserException {
+        return ProgramCompiler.compile(Parser.parse(Lexer.tokenize(expression)));
+    }
+}
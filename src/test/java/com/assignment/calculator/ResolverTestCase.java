@@ -0,0 +1,58 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.Resolver;
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Node;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResolverTestCase {
+
+    @Test
+    public void testEachBindingGetsItsOwnSlot() throws CalculatorExpressionParserException {
+        AbstractSyntaxTree tree = resolve("let(a, 5, let(b, mul(a, 10), add(b, a)))");
+        assertEquals(2, tree.getSlotCount());
+
+        Node outerLet = tree.getRoot();
+        Node innerLet = outerLet.getRightChild();
+        Node body = innerLet.getRightChild();
+        assertEquals(0, outerLet.getLeftChild().getSlot());
+        assertEquals(1, innerLet.getLeftChild().getSlot());
+        assertEquals(0, innerLet.getMiddleChild().getLeftChild().getSlot());
+        assertEquals(1, body.getLeftChild().getSlot());
+        assertEquals(0, body.getRightChild().getSlot());
+    }
+
+    @Test
+    public void testShadowedVariableUsesInnermostBinding() throws CalculatorExpressionParserException {
+        AbstractSyntaxTree tree = resolve("let(a, 1, add(let(a, 2, add(a, 0)), a))");
+        Node body = tree.getRoot().getRightChild();
+        assertEquals(1, body.getLeftChild().getRightChild().getLeftChild().getSlot());
+        assertEquals(0, body.getRightChild().getSlot());
+    }
+
+    @Test
+    public void testExpressionWithoutVariablesNeedsNoSlots() throws CalculatorExpressionParserException {
+        assertEquals(0, resolve("mul(add(2, 2), div(9, 3))").getSlotCount());
+    }
+
+    @Test(expected = CalculatorExpressionParserException.class)
+    public void testUnboundVariableIsReportedBeforeEvaluation() throws CalculatorExpressionParserException {
+        resolve("let(a, div(1, 0), add(b, a))");
+    }
+
+    @Test(expected = CalculatorExpressionParserException.class)
+    public void testBindingIsNotVisibleInItsOwnValue() throws CalculatorExpressionParserException {
+        resolve("let(a, add(a, 1), add(a, a))");
+    }
+
+    private static AbstractSyntaxTree resolve(String expression) throws CalculatorExpressionParserException {
+        AbstractSyntaxTree tree = Parser.parse(Lexer.tokenize(expression));
+        Resolver.resolve(tree);
+        return tree;
+    }
+}
@@ -0,0 +1,247 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.StreamingLexer;
+import com.assignment.calculator.parser.TokenStream;
+import com.assignment.calculator.parser.Type;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import com.assignment.calculator.parser.exceptions.ErrorReport;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class StreamingCalculationTestCase {
+    private static final String[] EXPRESSIONS = {
+            "7",
+            " add(1, 2) ",
+            "sub(111, -30000)",
+            "div(5, 2)",
+            "mul(add(2, 2), div(9, 3))",
+            "let(a, 5, add(a, a))",
+            "let(a, 5, let(b, mul(a, 10), add(b, a)))",
+            "let(a, let(b, 10, add(b, b)), let(b, 20, add(a, b)))",
+            "let(a, 1, add(let(a, 2, a), a))",
+            "let(long_name_1, -2147483648, sub(long_name_1, 1))",
+            "add(1 , 2\t)\n\u0001",
+    };
+    private static final String[] INVALID = {
+            "add(1, 2",
+            "add(1, 2, 3)",
+            "add(1, 2) 3",
+            "add(1 2, 3)",
+            "add(01, 2)",
+            "add(-, 2)",
+            "add(x$, 2)",
+            "add(1, 2) #",
+            "add(1, 2147483648)",
+            "adder(1, 2)",
+            "let(add, 1, 2)",
+            "let(a, 1, b)",
+            "mul(\u0001 1, 2)",
+            "mul(1\u0001, 2)",
+            "\u2028\u0001add(1, 2)",
+            "add(1, 2)\u0001\u2028",
+            "",
+            "   ",
+    };
+    //Characters of the generated inputs, with whitespace and control characters on both sides of the space
+    private static final String ALPHABET = "adsubltmivx_019-,() \t\n\u0001\u001F\u2028\u0660\u00E9$";
+    private static final int GENERATED = 20000;
+    private static final int DEPTH = 1000000;
+
+    @Test
+    public void testCalculatesLikeCalculate() throws CalculatorExpressionParserException, IOException {
+        Calculate calculate = new Calculate();
+        for (String expression : EXPRESSIONS) {
+            int expected = calculate.performCalculation(expression);
+            assertEquals(expression, expected, calculate.performStreamingCalculation(new OneCharReader(expression)));
+            assertEquals(expression, expected, calculate.performStreamingCalculation(
+                    Channels.newChannel(new ByteArrayInputStream(expression.getBytes(StandardCharsets.US_ASCII)))));
+        }
+    }
+
+    @Test
+    public void testReportsErrorsLikeCalculate() throws IOException {
+        Calculate calculate = new Calculate();
+        for (String expression : INVALID) {
+            CalculatorExpressionParserException expected = failure(calculate, expression);
+            try {
+                calculate.performStreamingCalculation(new OneCharReader(expression));
+                fail("Expected an error for " + expression);
+            } catch (CalculatorExpressionParserException cep) {
+                assertEquals(expression, expected.getMessage(), cep.getMessage());
+                assertEquals(expression, expected.getCode(), cep.getCode());
+                assertEquals(expression, expected.getOffset(), cep.getOffset());
+            }
+        }
+    }
+
+    @Test
+    public void testReadsTheTokensOfTheLexer() throws IOException {
+        List<String> inputs = new ArrayList<>(Arrays.asList(EXPRESSIONS));
+        inputs.addAll(Arrays.asList(INVALID));
+        inputs.add("\u2028add(1, 2)\u2028\u0001");
+        Random random = new Random(42);
+        for (int i = 0; i < GENERATED; i++) {
+            char[] input = new char[random.nextInt(12)];
+            for (int j = 0; j < input.length; j++) {
+                input[j] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            }
+            inputs.add(new String(input));
+        }
+        for (String input : inputs) {
+            String expected = lexerTokens(input);
+            assertEquals(input, expected, streamingTokens(new OneCharReader(input)));
+            assertEquals(input, expected, streamingTokens(new StringReader(input)));
+        }
+    }
+
+    @Test
+    public void testFailsArithmetic() throws CalculatorExpressionParserException, IOException {
+        try {
+            new Calculate().performStreamingCalculation(new StringReader("let(a, 0, div(1, a))"));
+            fail("Expected a division by zero");
+        } catch (ArithmeticException ae) {
+            assertEquals("/ by zero", ae.getMessage());
+        }
+        try {
+            Calculate checked = Calculate.builder().numericMode(NumericMode.CHECKED).build();
+            checked.performStreamingCalculation(new StringReader("mul(65536, 65536)"));
+            fail("Expected an overflow");
+        } catch (ArithmeticException ae) {
+            assertEquals(ErrorCode.OVERFLOW_MESSAGE, ae.getMessage());
+        }
+        assertEquals(0, new Calculate().performStreamingCalculation(new StringReader("mul(65536, 65536)")));
+    }
+
+    @Test
+    public void testRejectsLongTokens() throws IOException {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i <= StreamingLexer.MAX_TOKEN_LENGTH; i++) {
+            name.append('v');
+        }
+        try {
+            new Calculate().performStreamingCalculation(new StringReader("let(" + name + ", 1, 2)"));
+            fail("Expected an invalid token");
+        } catch (CalculatorExpressionParserException cep) {
+            assertEquals(ErrorCode.INVALID_TOKEN, cep.getCode());
+            assertEquals(4, cep.getOffset());
+        }
+    }
+
+    @Test
+    public void testCalculatesGeneratedInput() throws CalculatorExpressionParserException, IOException {
+        assertEquals(DEPTH + 1, new Calculate().performStreamingCalculation(new NestedReader(DEPTH)));
+    }
+
+    //The error of a blank expression is the one of the batch API, performCalculation has no tokens to parse
+    private static CalculatorExpressionParserException failure(Calculate calculate, String expression) {
+        return (CalculatorExpressionParserException) calculate.performCalculations(new CharSequence[] {expression}).getException(0);
+    }
+
+    private static String lexerTokens(String input) {
+        ErrorReport errors = new ErrorReport();
+        TokenStream tokens = Lexer.tokenize(input, errors);
+        if (tokens == null) {
+            return error(errors);
+        }
+        StringBuilder description = new StringBuilder();
+        while (tokens.advance()) {
+            Type type = tokens.getType();
+            description.append(token(type, tokens.getPosition(),
+                    Type.digit == type ? String.valueOf(tokens.getNumberValue()) : Type.var == type ? tokens.getVariableName() : ""));
+        }
+        return description.append("end@").append(tokens.getPosition()).toString();
+    }
+
+    private static String streamingTokens(Reader input) throws IOException {
+        ErrorReport errors = new ErrorReport();
+        StreamingLexer tokens = new StreamingLexer(input, errors);
+        StringBuilder description = new StringBuilder();
+        while (tokens.advance()) {
+            Type type = tokens.getType();
+            description.append(token(type, tokens.getPosition(),
+                    Type.digit == type ? String.valueOf(tokens.getNumberValue()) : Type.var == type ? tokens.getVariableName() : ""));
+        }
+        if (errors.hasError()) {
+            return error(errors);
+        }
+        return description.append("end@").append(tokens.getPosition()).toString();
+    }
+
+    private static String token(Type type, int position, String value) {
+        return type + "@" + position + "=" + value + " ";
+    }
+
+    private static String error(ErrorReport errors) {
+        return errors.getCode() + "@" + errors.getOffset() + ": " + errors.getMessage();
+    }
+
+    //Returns one character per read, so every token is split across reads
+    private static class OneCharReader extends Reader {
+        private final String text;
+        private int position;
+
+        private OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    //Generates add(1, add(1, ... 1)) as it is read, without holding it in memory
+    private static class NestedReader extends Reader {
+        private static final String OPEN = "add(1, ";
+        private final long length;
+        private final int depth;
+        private long position;
+
+        private NestedReader(int depth) {
+            this.depth = depth;
+            this.length = (long) depth * (OPEN.length() + 1) + 1;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            if (position == length) {
+                return -1;
+            }
+            int read = 0;
+            long opened = (long) depth * OPEN.length();
+            for (; read < count && position < length; read++, position++) {
+                if (position < opened) {
+                    buffer[offset + read] = OPEN.charAt((int) (position % OPEN.length()));
+                } else {
+                    buffer[offset + read] = position == opened ? '1' : ')';
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,181 @@
+package com.assignment.calculator;
+
+import com.assignment.calculator.compiler.Resolver;
+import com.assignment.calculator.compiler.StructuralHasher;
+import com.assignment.calculator.compiler.SubExpressionMemo;
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.StructuralHash;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import com.assignment.calculator.parser.exceptions.ErrorCode;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SubExpressionMemoTestCase {
+    private static final String[] EXPRESSIONS = {
+            "let(a, let(b, 10, add(b, b)), add(a, 1))",
+            "let(a, let(c, 10, add(c, c)), mul(a, 2))",
+            "let(a, 5, add(mul(a, 2), 1))",
+            "let(a, 6, add(mul(a, 2), 1))",
+            "add(let(x, 3, mul(x, x)), let(y, 3, mul(y, y)))",
+            "let(a, 1, add(let(a, 2, a), a))",
+            "let(a, 1, add(let(b, 2, sub(a, b)), let(b, 2, sub(b, a))))",
+            "mul(add(2, 2), div(9, 3))",
+            "sub(mul(65536, 65536), 1)",
+    };
+
+    @Test
+    public void testSharedClosedSubExpressionIsEvaluatedOnce() throws CalculatorExpressionParserException {
+        SubExpressionMemo memo = new SubExpressionMemo(1024, 3);
+        Calculate calculate = memoized(memo, NumericMode.WRAP);
+
+        assertEquals(21, calculate.performCalculation(EXPRESSIONS[0]));
+        assertEquals(0, memo.getHits());
+        assertEquals(40, calculate.performCalculation(EXPRESSIONS[1]));
+        //Both roots miss, the value of a is found the second time whatever the name of its variable
+        assertEquals(1, memo.getHits());
+        assertEquals(3, memo.getMisses());
+        assertEquals(0.25, memo.getHitRate(), 0);
+    }
+
+    @Test
+    public void testCalculatesLikeWithoutMemo() throws CalculatorExpressionParserException {
+        Calculate calculate = new Calculate();
+        Calculate memoized = memoized(new SubExpressionMemo(1024, 2), NumericMode.WRAP);
+        Calculate tiny = memoized(new SubExpressionMemo(1, 2), NumericMode.WRAP);
+        for (int round = 0; round < 2; round++) {
+            for (String expression : EXPRESSIONS) {
+                int expected = calculate.performCalculation(expression);
+                assertEquals(expression, expected, memoized.performCalculation(expression));
+                assertEquals(expression, expected, tiny.performCalculation(expression));
+            }
+        }
+        assertTrue(tiny.getMemo().getReplacements() > 0);
+    }
+
+    @Test
+    public void testWalkedTreesAreMemoized() {
+        SubExpressionMemo memo = new SubExpressionMemo(1024, 2);
+        BatchResult expected = new Calculate().performCalculations(EXPRESSIONS);
+        for (int round = 0; round < 2; round++) {
+            BatchResult result = memoized(memo, NumericMode.WRAP).performCalculations(EXPRESSIONS);
+            for (int i = 0; i < EXPRESSIONS.length; i++) {
+                assertEquals(EXPRESSIONS[i], expected.getValue(i), result.getValue(i));
+            }
+        }
+        assertTrue(memo.getHits() > 0);
+    }
+
+    @Test
+    public void testOnlyClosedSubTreesAreHashed() throws CalculatorExpressionParserException {
+        AbstractSyntaxTree tree = hash("let(a, 5, add(mul(a, 2), mul(3, 4)))");
+        assertNotNull(tree.getRoot().getStructuralHash());
+        //add(mul(a, 2), mul(3, 4))
+        assertNull(tree.getRoot().getRightChild().getStructuralHash());
+        assertNull(tree.getRoot().getRightChild().getLeftChild().getStructuralHash());
+        assertNotNull(tree.getRoot().getRightChild().getRightChild().getStructuralHash());
+        //Leaves are never hashed
+        assertNull(tree.getRoot().getMiddleChild().getStructuralHash());
+        assertNull(tree.getRoot().getRightChild().getLeftChild().getLeftChild().getStructuralHash());
+        assertNull(tree.getRoot().getRightChild().getRightChild().getLeftChild().getStructuralHash());
+    }
+
+    @Test
+    public void testSmallSubTreesAreNotAdmitted() throws CalculatorExpressionParserException {
+        AbstractSyntaxTree tree = hash("let(a, 5, add(mul(a, 2), mul(3, 4)))");
+        SubExpressionMemo admitting = new SubExpressionMemo(1024, 4);
+        assertTrue(admitting.admits(tree.getRoot().getStructuralHash()));
+        assertFalse(admitting.admits(tree.getRoot().getRightChild().getRightChild().getStructuralHash()));
+
+        SubExpressionMemo memo = new SubExpressionMemo(1024, 100);
+        memoized(memo, NumericMode.WRAP).performCalculation(EXPRESSIONS[0]);
+        assertEquals(0, memo.getHits() + memo.getMisses());
+        assertEquals(0, memo.getHitRate(), 0);
+    }
+
+    @Test
+    public void testHashIgnoresVariableNames() throws CalculatorExpressionParserException {
+        assertEquals(rootHash("let(a, 5, add(a, a))"), rootHash("let(b, 5, add(b, b))"));
+        assertEquals(rootHash("let(a, 5, let(b, 6, sub(a, b)))"), rootHash("let(x, 5, let(y, 6, sub(x, y)))"));
+        assertFalse(rootHash("let(a, 5, let(b, 6, sub(a, b)))").equals(rootHash("let(a, 5, let(b, 6, sub(b, a)))")));
+        assertFalse(rootHash("let(a, 5, add(a, a))").equals(rootHash("let(a, 6, add(a, a))")));
+        assertFalse(rootHash("add(1, 2)").equals(rootHash("add(2, 1)")));
+        assertFalse(rootHash("add(1, 2)").equals(rootHash("sub(1, 2)")));
+    }
+
+    @Test
+    public void testNumericModesDoNotShareValues() throws CalculatorExpressionParserException {
+        SubExpressionMemo memo = new SubExpressionMemo(1024, 2);
+        assertEquals(-1, memoized(memo, NumericMode.WRAP).performCalculation(EXPRESSIONS[8]));
+        try {
+            memoized(memo, NumericMode.CHECKED).performCalculation(EXPRESSIONS[8]);
+            fail("Expected an overflow");
+        } catch (ArithmeticException ae) {
+            assertEquals(0, memo.getHits());
+        }
+    }
+
+    @Test
+    public void testSharedTreeIsHashedOnceForEveryNumericMode() throws CalculatorExpressionParserException {
+        SubExpressionMemo memo = new SubExpressionMemo(1024, 2);
+        AbstractSyntaxTree tree = Parser.parse(Lexer.tokenize(EXPRESSIONS[8]));
+        assertEquals(-1, memoized(memo, NumericMode.WRAP).evaluate(tree));
+        StructuralHash hash = tree.getRoot().getStructuralHash();
+        assertTrue(tree.isHashed());
+        try {
+            memoized(memo, NumericMode.CHECKED).evaluate(tree);
+            fail("Expected an overflow");
+        } catch (ArithmeticException ae) {
+            assertTrue(hash == tree.getRoot().getStructuralHash());
+        }
+        assertEquals(-1, memoized(memo, NumericMode.WRAP).evaluate(tree));
+        assertEquals(1, memo.getHits());
+    }
+
+    @Test
+    public void testFailuresAreNotMemoized() throws CalculatorExpressionParserException {
+        SubExpressionMemo memo = new SubExpressionMemo(1024, 2);
+        Calculate calculate = memoized(memo, NumericMode.CHECKED);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(ErrorCode.DIVISION_BY_ZERO, calculate.tryCalculation("let(a, 0, div(1, a))").getError());
+            assertEquals(ErrorCode.OVERFLOW, calculate.tryCalculation("add(2147483647, 1)").getError());
+            assertEquals(ErrorCode.OVERFLOW, calculate.performCalculations(new String[] {"add(2147483647, 1)"}).getError(0));
+        }
+        assertEquals(0, memo.getStores());
+        assertEquals(0, memo.getHits());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsEmptyMemo() {
+        new SubExpressionMemo(0, 2);
+    }
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, new SubExpressionMemo(1, 2).capacity());
+        assertEquals(1024, new SubExpressionMemo(1000, 2).capacity());
+        assertEquals(1024, new SubExpressionMemo(1024, 2).capacity());
+    }
+
+    private static Calculate memoized(SubExpressionMemo memo, NumericMode numericMode) {
+        return Calculate.builder().numericMode(numericMode).memo(memo).build();
+    }
+
+    private static AbstractSyntaxTree hash(String expression) throws CalculatorExpressionParserException {
+        AbstractSyntaxTree tree = Parser.parse(Lexer.tokenize(expression));
+        Resolver.resolve(tree);
+        StructuralHasher.hash(tree);
+        return tree;
+    }
+
+    private static StructuralHash rootHash(String expression) throws CalculatorExpressionParserException {
+        return hash(expression).getRoot().getStructuralHash();
+    }
+}
@@ -0,0 +1,140 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.CalculationProcessor;
+import com.assignment.calculator.CalculationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculates expressions on a thread pool, as futures and through a {@link CalculationProcessor} with ordered and
+ * unordered results. The scores are per expression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AsyncBenchmark {
+    private static final int SIZE = 10000;
+
+    /** Maximum number of expressions in flight in the processor. */
+    @Param({"16", "256"})
+    public int window;
+
+    private Calculate calculate;
+    private ExecutorService executor;
+    private String[] expressions;
+
+    @Setup
+    public void setUp() {
+        calculate = new Calculate();
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        expressions = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            expressions[i] = ExpressionWorkloads.expressionFor(ExpressionWorkloads.DEEP_LET);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long futures() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            futures[i] = calculate.performCalculationAsync(expressions[i], executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long ordered() throws InterruptedException {
+        return process(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long unordered() throws InterruptedException {
+        return process(false);
+    }
+
+    private long process(boolean ordered) throws InterruptedException {
+        CalculationProcessor processor = new CalculationProcessor(calculate, executor, window, ordered);
+        AtomicLong sum = new AtomicLong();
+        CountDownLatch completed = new CountDownLatch(1);
+        processor.subscribe(new Flow.Subscriber<CalculationResult>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(CalculationResult item) {
+                sum.addAndGet(item.getValue());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        processor.onSubscribe(new Flow.Subscription() {
+            private int published;
+            private long requested;
+            private boolean publishing;
+
+            @Override
+            public synchronized void request(long n) {
+                requested += n;
+                if (publishing) {
+                    return;
+                }
+                publishing = true;
+                while (published < requested && published < SIZE) {
+                    processor.onNext(expressions[published++]);
+                }
+                if (published == SIZE) {
+                    published++;
+                    processor.onComplete();
+                }
+                publishing = false;
+            }
+
+            @Override
+            public void cancel() {}
+        });
+        completed.await();
+        return sum.get();
+    }
+}
@@ -0,0 +1,65 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.BatchResult;
+import com.assignment.calculator.Calculate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates a batch of expressions on fork-join pools with an increasing number of workers. The throughput is per
+ * expression, so the scores of the parallelism levels show how the batch scales from one core to all of them.
+ * One expression in ten fails, to include the cost of recording errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    private static final int BATCH_SIZE = 100000;
+
+    /** Number of pool workers, 0 uses every available core. */
+    @Param({"1", "2", "4", "0"})
+    public int parallelism;
+
+    private Calculate calculate;
+    private String[] expressions;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        calculate = new Calculate();
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        String[] workloads = {ExpressionWorkloads.FLAT, ExpressionWorkloads.DEEP_LET, ExpressionWorkloads.LONG_VARIABLES};
+        expressions = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            expressions[i] = i % 10 == 9 ? "div(" + i + ", 0)" : ExpressionWorkloads.expressionFor(workloads[i % workloads.length]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchResult batch() {
+        return calculate.performCalculations(expressions, pool);
+    }
+}
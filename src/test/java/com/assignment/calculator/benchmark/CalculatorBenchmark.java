@@ -0,0 +1,89 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.ExpressionCache;
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.Token;
+import com.assignment.calculator.parser.TokenStream;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each stage of a calculation on its own (lex, parse) and the stages together (lex + parse, full calculation).
+ * The {@link Token} list based stages are measured next to the {@link TokenStream} based ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CalculatorBenchmark {
+    @Param({ExpressionWorkloads.FLAT, ExpressionWorkloads.DEEP_LET, ExpressionWorkloads.WIDE_TREE, ExpressionWorkloads.LONG_VARIABLES})
+    public String workload;
+
+    private String expression;
+    private List<Token> tokens;
+    private TokenStream tokenStream;
+    private Calculate calculate;
+    private Calculate cachedCalculate;
+
+    @Setup
+    public void setUp() throws CalculatorExpressionParserException {
+        expression = ExpressionWorkloads.expressionFor(workload);
+        tokens = Lexer.lex(expression);
+        tokenStream = Lexer.tokenize(expression);
+        calculate = new Calculate();
+        cachedCalculate = new Calculate(new ExpressionCache(16));
+    }
+
+    @Benchmark
+    public List<Token> lex() throws CalculatorExpressionParserException {
+        return Lexer.lex(expression);
+    }
+
+    @Benchmark
+    public TokenStream tokenize() throws CalculatorExpressionParserException {
+        return Lexer.tokenize(expression);
+    }
+
+    @Benchmark
+    public AbstractSyntaxTree parse() throws CalculatorExpressionParserException {
+        return Parser.parseTokensToAST(tokens);
+    }
+
+    @Benchmark
+    public AbstractSyntaxTree parseTokenStream() throws CalculatorExpressionParserException {
+        return Parser.parse(tokenStream);
+    }
+
+    @Benchmark
+    public AbstractSyntaxTree lexAndParse() throws CalculatorExpressionParserException {
+        return Parser.parse(Lexer.tokenize(expression));
+    }
+
+    @Benchmark
+    public int calculate() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(expression);
+    }
+
+    @Benchmark
+    public int calculateCached() throws CalculatorExpressionParserException {
+        return cachedCalculate.performCalculation(expression);
+    }
+}
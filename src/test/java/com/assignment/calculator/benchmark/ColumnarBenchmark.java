@@ -0,0 +1,99 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.PreparedExpression;
+import com.assignment.calculator.compiler.ColumnInterpreter;
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates one expression over many rows of values, reported per row: row by row with a let-wrapped calculation, the
+ * interpreter and the generated class of a prepared expression, and a chunk of rows at a time with the
+ * {@link ColumnInterpreter}. The chunk sizes show where the buffers stop fitting in the caches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnarBenchmark {
+    private static final int ROWS = 100000;
+    private static final String EXPRESSION = "add(mul(x, 3), let(z, sub(y, x), add(mul(z, z), mul(y, 7))))";
+
+    @Param({"256", "1024", "16384"})
+    public int chunkSize;
+
+    private Calculate calculate;
+    private PreparedExpression prepared;
+    private ColumnInterpreter columnInterpreter;
+    private int[][] columns;
+    private final int[] output = new int[ROWS];
+    private final int[] values = new int[2];
+
+    @Setup
+    public void setUp() throws CalculatorExpressionParserException {
+        calculate = new Calculate();
+        prepared = calculate.prepare(EXPRESSION, "x", "y");
+        columnInterpreter = new ColumnInterpreter(prepared.getProgram(), chunkSize);
+        Random random = new Random(42);
+        columns = new int[2][ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            columns[0][i] = random.nextInt();
+            columns[1][i] = random.nextInt();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS / 100)
+    public int[] rowsLetWrapped() throws CalculatorExpressionParserException {
+        for (int i = 0; i < ROWS / 100; i++) {
+            output[i] = calculate.performCalculation("let(x, " + columns[0][i] + ", let(y, " + columns[1][i] + ", " + EXPRESSION + "))");
+        }
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] rowsInterpreted() {
+        for (int i = 0; i < ROWS; i++) {
+            values[0] = columns[0][i];
+            values[1] = columns[1][i];
+            output[i] = Interpreter.execute(prepared.getProgram(), values, null);
+        }
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] rowsPrepared() {
+        for (int i = 0; i < ROWS; i++) {
+            values[0] = columns[0][i];
+            values[1] = columns[1][i];
+            output[i] = prepared.evaluate(values);
+        }
+        return output;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int[] columns() {
+        columnInterpreter.execute(columns, output);
+        return output;
+    }
+}
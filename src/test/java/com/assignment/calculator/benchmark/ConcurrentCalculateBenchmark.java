@@ -0,0 +1,67 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.ExpressionCache;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates expressions from an increasing number of threads, all sharing one {@link Calculate} and its cache.
+ * The throughput per thread count shows how evaluation scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConcurrentCalculateBenchmark {
+    @Param({ExpressionWorkloads.DEEP_LET, ExpressionWorkloads.WIDE_TREE})
+    public String workload;
+
+    private String expression;
+    private Calculate calculate;
+
+    @Setup
+    public void setUp() {
+        expression = ExpressionWorkloads.expressionFor(workload);
+        calculate = new Calculate(new ExpressionCache(16));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int oneThread() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(expression);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public int twoThreads() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(expression);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int fourThreads() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(expression);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int allThreads() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(expression);
+    }
+}
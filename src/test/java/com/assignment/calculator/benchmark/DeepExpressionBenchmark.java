@@ -0,0 +1,100 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.parser.NodeArena;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calculating very deeply nested expressions end to end, which would overflow the thread stack if any pass
+ * recursed over the tree. The nested operations are also parsed and walked without compiling them, as a tree of nodes
+ * and in a reused arena on and off the heap, which should allocate far less, and calculated as they are read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeepExpressionBenchmark {
+    @Param({"1000", "1000000"})
+    public int depth;
+
+    private Calculate calculate;
+    private String nestedOperations;
+    private String letChain;
+    private NodeArena heapArena;
+    private NodeArena offHeapArena;
+
+    @Setup
+    public void setUp() {
+        calculate = new Calculate();
+        heapArena = NodeArena.onHeap();
+        offHeapArena = NodeArena.offHeap(16);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            builder.append("add(1, ");
+        }
+        builder.append('1');
+        for (int i = 0; i < depth; i++) {
+            builder.append(')');
+        }
+        nestedOperations = builder.toString();
+
+        builder = new StringBuilder("let(v, 1, ");
+        for (int i = 1; i < depth; i++) {
+            builder.append("let(v, add(v, 1), ");
+        }
+        builder.append("add(v, 0)");
+        for (int i = 0; i < depth; i++) {
+            builder.append(')');
+        }
+        letChain = builder.toString();
+    }
+
+    @Benchmark
+    public int nestedOperations() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(nestedOperations);
+    }
+
+    @Benchmark
+    public int nestedOperationsWalked() throws CalculatorExpressionParserException {
+        return calculate.evaluate(Parser.parse(nestedOperations));
+    }
+
+    @Benchmark
+    public int nestedOperationsHeapArena() throws CalculatorExpressionParserException {
+        return calculate.performLargeCalculation(nestedOperations, heapArena);
+    }
+
+    @Benchmark
+    public int nestedOperationsOffHeapArena() throws CalculatorExpressionParserException {
+        return calculate.performLargeCalculation(nestedOperations, offHeapArena);
+    }
+
+    @Benchmark
+    public int nestedOperationsStreamed() throws CalculatorExpressionParserException, IOException {
+        return calculate.performStreamingCalculation(new StringReader(nestedOperations));
+    }
+
+    @Benchmark
+    public int letChain() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(letChain);
+    }
+}
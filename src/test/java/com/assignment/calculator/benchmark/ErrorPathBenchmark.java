@@ -0,0 +1,147 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.BatchResult;
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.CalculationResult;
+import com.assignment.calculator.ExpressionCache;
+import com.assignment.calculator.NumericMode;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates a workload where a share of the expressions is malformed, failing in the lexer, the parser or the
+ * resolver. Failures are reported by throwing exceptions with a stack trace, by result objects, by result objects
+ * turned into stackless exceptions, and by a batch. The scores are per expression.
+ *
+ * The same share of cached expressions fails in checked arithmetic instead, by a division by zero or an overflow, once
+ * evaluated by the interpreter and once promoted to generated classes. Both report the failures without throwing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ErrorPathBenchmark {
+    private static final int SIZE = 1000;
+    private static final String[] MALFORMED = {"add(1, 2", "add(1, 2, 3)", "add(1, #)", "let(a, 1, b)", "mul(0123, 4)"};
+    private static final String[] FAILING = {"let(a, 65536, mul(a, a))", "div(1, sub(2, 2))", "let(a, 2147483647, add(a, 1))"};
+
+    /** Percentage of malformed expressions. */
+    @Param({"0", "20", "100"})
+    public int errorPercentage;
+
+    private Calculate calculate;
+    private Calculate interpreted;
+    private Calculate promoted;
+    private String[] expressions;
+    private String[] failing;
+
+    @Setup
+    public void setUp() {
+        calculate = new Calculate();
+        expressions = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            expressions[i] = i % 100 < errorPercentage
+                    ? MALFORMED[i % MALFORMED.length]
+                    : ExpressionWorkloads.expressionFor(ExpressionWorkloads.DEEP_LET);
+        }
+        interpreted = Calculate.builder()
+                .expressionCache(new ExpressionCache(SIZE))
+                .numericMode(NumericMode.CHECKED)
+                .build();
+        promoted = Calculate.builder()
+                .expressionCache(new ExpressionCache(SIZE))
+                .promotionThreshold(1)
+                .numericMode(NumericMode.CHECKED)
+                .build();
+        failing = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            failing[i] = i % 100 < errorPercentage
+                    ? FAILING[i % FAILING.length]
+                    : ExpressionWorkloads.expressionFor(ExpressionWorkloads.DEEP_LET);
+            //Compiled, and promoted, before the measurement
+            interpreted.tryCalculation(failing[i]);
+            promoted.tryCalculation(failing[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long exceptions() {
+        long sum = 0;
+        for (String expression : expressions) {
+            try {
+                sum += calculate.performCalculation(expression);
+            } catch (CalculatorExpressionParserException cep) {
+                sum += cep.getOffset();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long results() {
+        long sum = 0;
+        for (String expression : expressions) {
+            CalculationResult result = calculate.tryCalculation(expression);
+            sum += result.isSuccess() ? result.getValue() : result.getErrorOffset();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long stacklessExceptions() {
+        long sum = 0;
+        for (String expression : expressions) {
+            try {
+                sum += calculate.tryCalculation(expression).getValueOrThrow();
+            } catch (CalculatorExpressionParserException cep) {
+                sum += cep.getOffset();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public BatchResult batch() {
+        return calculate.performCalculations(expressions);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long interpretedArithmeticResults() {
+        return arithmeticResults(interpreted);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long promotedArithmeticResults() {
+        return arithmeticResults(promoted);
+    }
+
+    private long arithmeticResults(Calculate calculate) {
+        long sum = 0;
+        for (String expression : failing) {
+            CalculationResult result = calculate.tryCalculation(expression);
+            sum += result.isSuccess() ? result.getValue() : result.getError().ordinal();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,68 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.compiler.BytecodeCompiler;
+import com.assignment.calculator.compiler.IntExpression;
+import com.assignment.calculator.compiler.Interpreter;
+import com.assignment.calculator.compiler.Program;
+import com.assignment.calculator.compiler.ProgramCompiler;
+import com.assignment.calculator.parser.AbstractSyntaxTree;
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Parser;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluating an already parsed expression by walking its tree, running its compiled {@link Program} in the
+ * interpreter and running the JVM class generated from the program.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EvaluatorBenchmark {
+    @Param({ExpressionWorkloads.FLAT, ExpressionWorkloads.DEEP_LET, ExpressionWorkloads.WIDE_TREE, ExpressionWorkloads.LONG_VARIABLES})
+    public String workload;
+
+    private Calculate calculate;
+    private AbstractSyntaxTree tree;
+    private Program program;
+    private IntExpression bytecode;
+
+    @Setup
+    public void setUp() throws CalculatorExpressionParserException {
+        calculate = new Calculate();
+        tree = Parser.parse(Lexer.tokenize(ExpressionWorkloads.expressionFor(workload)));
+        program = ProgramCompiler.compile(tree);
+        bytecode = BytecodeCompiler.compile(program);
+    }
+
+    @Benchmark
+    public int treeWalking() throws CalculatorExpressionParserException {
+        return calculate.evaluate(tree);
+    }
+
+    @Benchmark
+    public int interpreter() {
+        return Interpreter.execute(program);
+    }
+
+    @Benchmark
+    public int bytecode() {
+        return bytecode.evaluate();
+    }
+}
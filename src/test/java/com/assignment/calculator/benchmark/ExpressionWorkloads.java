@@ -0,0 +1,95 @@
+package com.assignment.calculator.benchmark;
+
+/**
+ * Generates the expression shapes used by the benchmarks. Every generated expression is valid and evaluates without
+ * dividing by zero.
+ */
+public class ExpressionWorkloads {
+    public static final String FLAT = "flat";
+    public static final String DEEP_LET = "deepLet";
+    public static final String WIDE_TREE = "wideTree";
+    public static final String LONG_VARIABLES = "longVariables";
+
+    private ExpressionWorkloads() {}
+
+    /**
+     * @param workload One of the workload names defined in this class.
+     * @return The expression for the given workload.
+     */
+    public static String expressionFor(String workload) {
+        switch (workload) {
+            case FLAT:
+                return flat();
+            case DEEP_LET:
+                return deepLet(32);
+            case WIDE_TREE:
+                return wideTree(5);
+            case LONG_VARIABLES:
+                return longVariables(64);
+            default:
+                throw new IllegalArgumentException("Unknown workload: " + workload);
+        }
+    }
+
+    /**
+     * ie. add(1, 2)
+     */
+    public static String flat() {
+        return "add(1, 2)";
+    }
+
+    /**
+     * A chain of let expressions where each binding uses the previous ones.
+     *
+     * ie. deepLet(2) would result in:
+     * let(v0, 1, let(v1, add(v0, 1), add(v1, v0)))
+     */
+    public static String deepLet(int depth) {
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            expression.append("let(v").append(i).append(", ");
+            if (i == 0) {
+                expression.append("1");
+            } else {
+                expression.append("add(v").append(i - 1).append(", 1)");
+            }
+            expression.append(", ");
+        }
+        expression.append("add(v").append(depth - 1).append(", v0)");
+        for (int i = 0; i < depth; i++) {
+            expression.append(')');
+        }
+        return expression.toString();
+    }
+
+    /**
+     * A balanced tree of arithmetic expressions. Every level has three sub-trees so the size grows as 3^depth.
+     *
+     * ie. wideTree(1) would result in:
+     * mul(add(7, 7), div(7, 2))
+     */
+    public static String wideTree(int depth) {
+        if (depth == 0) {
+            return "7";
+        }
+        String child = wideTree(depth - 1);
+        return "mul(add(" + child + ", " + child + "), div(" + child + ", " + (depth + 1) + "))";
+    }
+
+    /**
+     * Nested let expressions whose variable names are nameLength characters long.
+     */
+    public static String longVariables(int nameLength) {
+        String first = variableName('x', nameLength);
+        String second = variableName('y', nameLength);
+        return "let(" + first + ", 5, let(" + second + ", mul(" + first + ", 10), add(" + second + ", " + first + ")))";
+    }
+
+    private static String variableName(char prefix, int nameLength) {
+        StringBuilder name = new StringBuilder("long_").append(prefix);
+        for (int i = 0; name.length() < nameLength; i++) {
+            name.append((char) ('a' + i % 26));
+        }
+        return name.toString();
+    }
+}
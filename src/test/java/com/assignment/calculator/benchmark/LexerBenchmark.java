@@ -0,0 +1,71 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.parser.Lexer;
+import com.assignment.calculator.parser.Token;
+import com.assignment.calculator.parser.TokenStream;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single pass {@link Lexer} against the original regex based {@link RegexLexer}, and lexing ASCII bytes
+ * in place against decoding them into a String first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LexerBenchmark {
+    @Param({ExpressionWorkloads.FLAT, ExpressionWorkloads.DEEP_LET, ExpressionWorkloads.WIDE_TREE, ExpressionWorkloads.LONG_VARIABLES})
+    public String workload;
+
+    private String expression;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setUp() {
+        expression = ExpressionWorkloads.expressionFor(workload);
+        byte[] encoded = expression.getBytes(StandardCharsets.US_ASCII);
+        bytes = ByteBuffer.allocateDirect(encoded.length);
+        bytes.put(encoded);
+    }
+
+    @Benchmark
+    public List<Token> lexer() throws CalculatorExpressionParserException {
+        return Lexer.lex(expression);
+    }
+
+    @Benchmark
+    public TokenStream tokenizeBytes() throws CalculatorExpressionParserException {
+        return Lexer.tokenize(bytes, 0, bytes.capacity());
+    }
+
+    @Benchmark
+    public TokenStream decodeAndTokenize() throws CalculatorExpressionParserException {
+        byte[] encoded = new byte[bytes.capacity()];
+        bytes.position(0);
+        bytes.get(encoded);
+        return Lexer.tokenize(new String(encoded, StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public List<Token> regexLexer() throws CalculatorExpressionParserException {
+        return RegexLexer.lex(expression);
+    }
+}
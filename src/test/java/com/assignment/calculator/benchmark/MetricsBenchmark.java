@@ -0,0 +1,82 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.BatchResult;
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.ExpressionCache;
+import com.assignment.calculator.metrics.CalculatorMetrics;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of recording {@link CalculatorMetrics}: the same calculations with metrics disabled and enabled.
+ * The disabled scores should match the ones of {@link CalculatorBenchmark}. The threaded benchmark shows whether
+ * threads sharing one metrics instance slow each other down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MetricsBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private String expression;
+    private String[] expressions;
+    private Calculate calculate;
+    private Calculate cachedCalculate;
+
+    @Setup
+    public void setUp() {
+        CalculatorMetrics calculatorMetrics = metrics ? new CalculatorMetrics() : null;
+        expression = ExpressionWorkloads.expressionFor(ExpressionWorkloads.DEEP_LET);
+        expressions = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            expressions[i] = ExpressionWorkloads.expressionFor(ExpressionWorkloads.FLAT);
+        }
+        calculate = Calculate.builder().metrics(calculatorMetrics).build();
+        cachedCalculate = Calculate.builder()
+                .expressionCache(new ExpressionCache(16))
+                .metrics(calculatorMetrics)
+                .build();
+    }
+
+    @Benchmark
+    public int calculate() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(expression);
+    }
+
+    @Benchmark
+    public int cachedCalculate() throws CalculatorExpressionParserException {
+        return cachedCalculate.performCalculation(expression);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int cachedCalculateThreaded() throws CalculatorExpressionParserException {
+        return cachedCalculate.performCalculation(expression);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchResult batch() {
+        return calculate.performCalculations(expressions);
+    }
+}
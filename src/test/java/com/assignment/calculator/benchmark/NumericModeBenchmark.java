@@ -0,0 +1,76 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.ExpressionCache;
+import com.assignment.calculator.NumericMode;
+import com.assignment.calculator.PreparedExpression;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of the numeric modes: cached calculations and prepared expressions in wrapping and checked mode,
+ * and exact calculations of an expression that fits in a long and of one that has to be evaluated again on BigIntegers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericModeBenchmark {
+    private static final String EXPRESSION = "let(a, 5, let(b, mul(a, 10), add(b, a)))";
+    private static final String PREPARED = "add(mul(x, 3), let(z, sub(y, x), div(mul(z, z), add(y, 1))))";
+    private static final String LONG_EXPRESSION = "let(a, 2147483647, mul(a, add(a, 10)))";
+    private static final String BIG_EXPRESSION = "let(a, 9223372036854775807, mul(a, add(a, 10)))";
+
+    @Param({"WRAP", "CHECKED"})
+    public NumericMode mode;
+
+    private Calculate calculate;
+    private PreparedExpression prepared;
+    private final int[] values = new int[2];
+    private int input;
+
+    @Setup
+    public void setUp() throws CalculatorExpressionParserException {
+        calculate = Calculate.builder().expressionCache(new ExpressionCache(1024)).numericMode(mode).build();
+        prepared = calculate.prepare(PREPARED, "x", "y");
+    }
+
+    @Benchmark
+    public int cached() throws CalculatorExpressionParserException {
+        return calculate.performCalculation(EXPRESSION);
+    }
+
+    @Benchmark
+    public int prepared() {
+        //Small enough inputs never overflow, so both modes evaluate the same values
+        input = (input + 1) & 0xFFFF;
+        values[0] = input;
+        values[1] = input >> 1;
+        return prepared.evaluate(values);
+    }
+
+    @Benchmark
+    public BigInteger exactLong() throws CalculatorExpressionParserException {
+        return calculate.performExactCalculation(LONG_EXPRESSION);
+    }
+
+    @Benchmark
+    public BigInteger exactBig() throws CalculatorExpressionParserException {
+        return calculate.performExactCalculation(BIG_EXPRESSION);
+    }
+}
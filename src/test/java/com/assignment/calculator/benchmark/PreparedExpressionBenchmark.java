@@ -0,0 +1,74 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.ExpressionCache;
+import com.assignment.calculator.PreparedExpression;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates the same expression shape with changing inputs: by wrapping it in let expressions holding the inputs and
+ * calculating the result (with and without the expression cache, which misses as the text changes every time), and by
+ * evaluating a prepared expression with an array of values or with bindings. The prepared evaluations should not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreparedExpressionBenchmark {
+    private static final String EXPRESSION = "add(mul(x, 3), let(z, sub(y, x), div(mul(z, z), add(y, 1))))";
+
+    private Calculate calculate;
+    private Calculate cachedCalculate;
+    private PreparedExpression prepared;
+    private PreparedExpression.Bindings bindings;
+    private final int[] values = new int[2];
+    private int input;
+
+    @Setup
+    public void setUp() throws CalculatorExpressionParserException {
+        calculate = new Calculate();
+        cachedCalculate = new Calculate(new ExpressionCache(1024));
+        prepared = calculate.prepare(EXPRESSION, "x", "y");
+        bindings = prepared.newBindings();
+    }
+
+    @Benchmark
+    public int letWrapped() throws CalculatorExpressionParserException {
+        input++;
+        return calculate.performCalculation("let(x, " + input + ", let(y, " + (input >> 1) + ", " + EXPRESSION + "))");
+    }
+
+    @Benchmark
+    public int letWrappedCached() throws CalculatorExpressionParserException {
+        input++;
+        return cachedCalculate.performCalculation("let(x, " + input + ", let(y, " + (input >> 1) + ", " + EXPRESSION + "))");
+    }
+
+    @Benchmark
+    public int preparedValues() {
+        input++;
+        values[0] = input;
+        values[1] = input >> 1;
+        return prepared.evaluate(values);
+    }
+
+    @Benchmark
+    public int preparedBindings() {
+        input++;
+        return prepared.evaluate(bindings.set("x", input).set("y", input >> 1));
+    }
+}
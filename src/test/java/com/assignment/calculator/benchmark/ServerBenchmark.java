@@ -0,0 +1,124 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.CalculatorServer;
+import com.assignment.calculator.ExpressionCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator for {@link CalculatorServer}: every benchmark thread is a client with its own connection sending
+ * requests over loopback. The sample time benchmarks report the latency distribution of a request (p50, p99, ...),
+ * the throughput ones the requests served per second with one and with many concurrent clients. The pipelined
+ * benchmark sends a burst of requests before reading any response.
+ */
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerBenchmark {
+    private static final int MAX_CONNECTIONS = 64;
+    private static final int PIPELINE_DEPTH = 64;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        CalculatorServer server;
+
+        @Setup
+        public void setUp() throws IOException {
+            server = new CalculatorServer(new Calculate(new ExpressionCache(1024)), 0, MAX_CONNECTIONS);
+            server.start();
+        }
+
+        @TearDown
+        public void tearDown() {
+            server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private Socket socket;
+        private OutputStream output;
+        private BufferedReader reader;
+        private byte[] request;
+        private byte[] pipelinedRequests;
+
+        @Setup(Level.Trial)
+        public void setUp(Server server) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.server.getPort());
+            socket.setTcpNoDelay(true);
+            output = socket.getOutputStream();
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line = ExpressionWorkloads.expressionFor(ExpressionWorkloads.DEEP_LET) + '\n';
+            request = line.getBytes(StandardCharsets.UTF_8);
+            StringBuilder burst = new StringBuilder();
+            for (int i = 0; i < PIPELINE_DEPTH; i++) {
+                burst.append(line);
+            }
+            pipelinedRequests = burst.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            socket.close();
+        }
+
+        String call() throws IOException {
+            output.write(request);
+            output.flush();
+            return reader.readLine();
+        }
+
+        String callPipelined() throws IOException {
+            output.write(pipelinedRequests);
+            output.flush();
+            String response = null;
+            for (int i = 0; i < PIPELINE_DEPTH; i++) {
+                response = reader.readLine();
+            }
+            return response;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String singleClient(Client client) throws IOException {
+        return client.call();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String concurrentClients(Client client) throws IOException {
+        return client.call();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(PIPELINE_DEPTH)
+    public String pipelined(Client client) throws IOException {
+        return client.callPipelined();
+    }
+}
@@ -0,0 +1,98 @@
+package com.assignment.calculator.benchmark;
+
+import com.assignment.calculator.Calculate;
+import com.assignment.calculator.compiler.SubExpressionMemo;
+import com.assignment.calculator.parser.exceptions.CalculatorExpressionParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculates distinct expressions that all share the same closed let prefix, compiled and walked, with and without a
+ * {@link SubExpressionMemo}. The expressions are never repeated, so an expression cache would not help. The scores are
+ * per expression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SubExpressionMemoBenchmark {
+    private static final int SIZE = 1000;
+
+    /** Number of let expressions in the shared prefix. */
+    @Param({"10", "100", "1000"})
+    public int prefixLength;
+
+    private Calculate calculate;
+    private Calculate memoized;
+    private String[] expressions;
+
+    @Setup
+    public void setUp() {
+        calculate = new Calculate();
+        memoized = Calculate.builder().memo(new SubExpressionMemo(1024, 16)).build();
+        String prefix = prefix(prefixLength);
+        expressions = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            expressions[i] = "let(shared, " + prefix + ", add(shared, " + i + "))";
+        }
+    }
+
+    //let(v0, 1, let(v1, add(v0, 1), ... let(vn, add(vn-1, n), vn)))
+    private static String prefix(int length) {
+        StringBuilder prefix = new StringBuilder("let(v0, 1, ");
+        for (int i = 1; i < length; i++) {
+            prefix.append("let(v").append(i).append(", add(v").append(i - 1).append(", ").append(i).append("), ");
+        }
+        prefix.append('v').append(length - 1);
+        for (int i = 0; i < length; i++) {
+            prefix.append(')');
+        }
+        return prefix.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long compiled() throws CalculatorExpressionParserException {
+        return calculateAll(calculate);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long compiledMemoized() throws CalculatorExpressionParserException {
+        return calculateAll(memoized);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] walked() {
+        return calculate.performCalculations(expressions).getValues();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] walkedMemoized() {
+        return memoized.performCalculations(expressions).getValues();
+    }
+
+    private long calculateAll(Calculate calculator) throws CalculatorExpressionParserException {
+        long sum = 0;
+        for (String expression : expressions) {
+            sum += calculator.performCalculation(expression);
+        }
+        return sum;
+    }
+}